@@ -0,0 +1,149 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.util.Arrays;
+
+/*************************************************************************************
+ * Active set of the assignment step. A full sweep scans every datapoint for its closest
+ * and second closest centroids; the datapoints whose second closest centroid is within a
+ * margin of the closest are on a cluster boundary and stay active. The assignment steps
+ * until the next sweep only rescan the active datapoints: the others keep their cluster
+ * and the distance of their last scan.
+ *
+ * A centroid that moved d Kilometers brings a datapoint at most d closer, so the gap
+ * between the second closest and the closest centroid of a datapoint shrinks by at most
+ * twice the largest move of a centroid. The moves are summed since the last sweep and a
+ * datapoint is also rescanned once they may have closed its gap, so an inactive datapoint
+ * is still closest to its centroid. A sweep runs every few steps, when datapoints are moved
+ * outside the assignment step and before a run accepts convergence, to refresh the
+ * distances of the inactive datapoints.
+ *************************************************************************************/
+final class ActiveSet
+{
+	/** Gap in Kilometers between the second closest and the closest centroid below which a datapoint is active. */
+	private final double mMarginKm;
+
+	/** Number of assignment steps between two sweeps. */
+	private final int mSweepInterval;
+
+	/** Gap of every datapoint at its last scan plus twice the drift at that scan, in Kilometers. */
+	private double[] mGap;
+
+	/** Distance in Kilometers of every datapoint from its closest centroid at its last scan. */
+	private float[] mDistance;
+
+	/** Clusters scanned by the last sweep. */
+	private int[] mSweepClusters;
+
+	/** Assignment steps since the last sweep. */
+	private int mSinceSweep;
+
+	/** Unit vector of every centroid in the previous assignment step. */
+	private double[] mX;
+	private double[] mY;
+	private double[] mZ;
+
+	/** Sum in Kilometers of the largest move of a centroid of every step since the last sweep. */
+	private double mDrift;
+
+	/** True when the next assignment step must be a sweep. */
+	private boolean mSweepDue = true;
+
+	/** True while the current assignment step is a sweep. */
+	private boolean mSweep;
+
+	/**
+	 * Instantiates an active set.
+	 *
+	 * @param marginKm gap to the second closest centroid below which a datapoint is active
+	 * @param sweepInterval number of assignment steps between two sweeps
+	 */
+	ActiveSet(double marginKm, int sweepInterval)
+	{
+		mMarginKm = marginKm;
+		mSweepInterval = sweepInterval;
+	}
+
+	/*************************************************************************************
+	 * Decide whether the assignment step with the given centroids is a sweep: the first
+	 * step, every mSweepInterval steps, after a sweep was requested and when the active
+	 * clusters changed. Otherwise add the largest move of a centroid to the drift.
+	 *
+	 * @param pointCount number of datapoints
+	 * @param centroids centroids of this step
+	 *************************************************************************************/
+	void prepare(int pointCount, CentroidTable centroids)
+	{
+		mSweep = mSweepDue || (mGap == null) || (mGap.length != pointCount) || (mSinceSweep >= mSweepInterval) || !Arrays.equals(mSweepClusters, centroids.mActive);
+		if (mSweep)
+		{
+			if ((mGap == null) || (mGap.length != pointCount))
+			{
+				mGap = new double[pointCount];
+				mDistance = new float[pointCount];
+			}
+			mSweepClusters = centroids.mActive.clone();
+			mSweepDue = false;
+			mSinceSweep = 0;
+			mDrift = 0;
+		}
+		else
+		{
+			double shift = 0;
+			for (int j : centroids.mActive)
+			{
+				shift = Math.max(shift, GeoMath.Distance(mX[j], mY[j], mZ[j], centroids.mX[j], centroids.mY[j], centroids.mZ[j]));
+			}
+			mDrift += shift;
+		}
+		mX = centroids.mX;
+		mY = centroids.mY;
+		mZ = centroids.mZ;
+		mSinceSweep++;
+	}
+
+	/**
+	 * @return true if the current assignment step scans every datapoint
+	 */
+	boolean isSweep()
+	{
+		return mSweep;
+	}
+
+	/**
+	 * Make the next assignment step a sweep.
+	 */
+	void requestSweep()
+	{
+		mSweepDue = true;
+	}
+
+	/**
+	 * @return true if the datapoint is rescanned between sweeps
+	 */
+	boolean isActive(int index)
+	{
+		return (mGap[index] - 2 * mDrift) < mMarginKm;
+	}
+
+	/**
+	 * @return distance in Kilometers of the datapoint from its closest centroid at its last scan
+	 */
+	double getDistance(int index)
+	{
+		return mDistance[index];
+	}
+
+	/**
+	 * Record the distances of the closest and second closest centroids of a scanned datapoint.
+	 */
+	void update(int index, double closestKm, double secondKm)
+	{
+		mGap[index] = (secondKm - closestKm) + 2 * mDrift;
+		mDistance[index] = (float) closestKm;
+	}
+}
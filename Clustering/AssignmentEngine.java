@@ -0,0 +1,857 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*************************************************************************************
+ * Assignment step of K-Means run on a fork-join pool.
+ * The datapoints are split in contiguous ranges; every worker finds the closest centroid
+ * for the datapoints of its range and returns its partial sum of distances. The result
+ * does not depend on the number of threads.
+ *************************************************************************************/
+public class AssignmentEngine
+{
+	/** Ranges smaller than this are never split further. */
+	private static final int MIN_CHUNK = 4096;
+
+	/** Vector API kernel, compiled from the vector source root with --add-modules jdk.incubator.vector. */
+	private static final String VECTOR_KERNEL_CLASS = "Clustering.VectorKernel";
+
+	/** Margin in Kilometers of the candidate centroids of a tile, above the rounding of float unit vectors. */
+	private static final double TILE_SLACK_KM = 0.01;
+
+	/** Largest difference in Kilometers between the distance of a chosen centroid and the least Haversine distance. */
+	static final double VECTOR_KERNEL_TOLERANCE_KM = 1e-6;
+
+	/** Datapoints and centroids of the check of the vector kernel. */
+	private static final int VECTOR_CHECK_POINTS = 4099;
+	private static final int VECTOR_CHECK_CLUSTERS = 37;
+
+	/** Number of worker threads. */
+	private final int mThreadCount;
+
+	/** Pool running the workers, null when single-threaded. */
+	private final ForkJoinPool mPool;
+
+	/** True if the pool was created by this engine and is shut down with it. */
+	private final boolean mOwnsPool;
+
+	/** Bounds used to skip distance evaluations, null for brute-force assignment. */
+	private final DistanceBounds mBounds;
+
+	/** True to search the closest centroid in a k-d tree instead of scanning all clusters. */
+	private final boolean mUseIndex;
+
+	/** Kernel of the brute-force assignment over unit vectors, null for the scalar loop. */
+	private final AssignmentKernel mKernel;
+
+	/** Datapoints rescanned between full sweeps, null to scan every datapoint. */
+	private final ActiveSet mActiveSet;
+
+	/**
+	 * Instantiates a new assignment engine.
+	 *
+	 * @param threadCount number of worker threads, 1 runs on the calling thread
+	 * @param useBounds true to skip centroids that cannot be closer using distance bounds
+	 * @param useIndex true to find the closest centroid with a k-d tree rebuilt every iteration
+	 */
+	public AssignmentEngine(int threadCount, boolean useBounds, boolean useIndex)
+	{
+		mThreadCount = Math.max(1, threadCount);
+		mPool = (mThreadCount > 1) ? new ForkJoinPool(mThreadCount) : null;
+		mOwnsPool = true;
+		mBounds = useBounds ? new DistanceBounds() : null;
+		mUseIndex = useIndex;
+		mKernel = null;
+		mActiveSet = null;
+	}
+
+	/**
+	 * Instantiates a new assignment engine on a pool shared with other engines.
+	 *
+	 * @param pool the shared pool, null runs on the calling thread
+	 * @param useBounds true to skip centroids that cannot be closer using distance bounds
+	 * @param useIndex true to find the closest centroid with a k-d tree rebuilt every iteration
+	 */
+	public AssignmentEngine(ForkJoinPool pool, boolean useBounds, boolean useIndex)
+	{
+		this(pool, useBounds, useIndex, false);
+	}
+
+	/**
+	 * Instantiates a new assignment engine on a pool shared with other engines.
+	 *
+	 * @param pool the shared pool, null runs on the calling thread
+	 * @param useBounds true to skip centroids that cannot be closer using distance bounds
+	 * @param useIndex true to find the closest centroid with a k-d tree rebuilt every iteration
+	 * @param useVectorKernel true to scan the centroids with the Vector API kernel when it is available
+	 */
+	public AssignmentEngine(ForkJoinPool pool, boolean useBounds, boolean useIndex, boolean useVectorKernel)
+	{
+		this(pool, useBounds, useIndex, useVectorKernel, null);
+	}
+
+	/**
+	 * Instantiates an assignment engine on a pool shared with other engines, whose steps
+	 * between full sweeps only scan an active set of datapoints. The active set replaces
+	 * the distance bounds, the k-d tree, the tiles and the vector kernel.
+	 *
+	 * @param pool the shared pool, null runs on the calling thread
+	 * @param useBounds true to skip centroids that cannot be closer using distance bounds
+	 * @param useIndex true to find the closest centroid with a k-d tree rebuilt every iteration
+	 * @param useVectorKernel true to scan the centroids with the Vector API kernel when it is available
+	 * @param activeSet active set of the steps, null to scan every datapoint
+	 */
+	AssignmentEngine(ForkJoinPool pool, boolean useBounds, boolean useIndex, boolean useVectorKernel, ActiveSet activeSet)
+	{
+		mThreadCount = (pool == null) ? 1 : pool.getParallelism();
+		mPool = pool;
+		mOwnsPool = false;
+		mActiveSet = activeSet;
+		mBounds = (useBounds && (activeSet == null)) ? new DistanceBounds() : null;
+		mUseIndex = useIndex && (activeSet == null);
+		mKernel = (useVectorKernel && (activeSet == null)) ? VectorKernelHolder.KERNEL : null;
+	}
+
+	/**
+	 * @return number of worker threads
+	 */
+	public int getThreadCount()
+	{
+		return mThreadCount;
+	}
+
+	/**
+	 * @return name of the kernel scanning the centroids over unit vectors
+	 */
+	public String getKernelName()
+	{
+		return (mKernel != null) ? mKernel.name() : "scalar";
+	}
+
+	/**
+	 * @return name of the Vector API kernel, or why the scalar loop is used instead
+	 */
+	public static String VectorKernelStatus()
+	{
+		AssignmentKernel kernel = VectorKernelHolder.KERNEL;
+		return (kernel != null) ? kernel.name() : "scalar, Vector API kernel " + VectorKernelHolder.PROBLEM;
+	}
+
+	/*************************************************************************************
+	 * For each datapoint, find which cluster is closest and store it as the new cluster id.
+	 * When the point store holds unit vectors, the closest centroid is the one with the
+	 * largest dot product and no trigonometric function is evaluated per pair. When the
+	 * point store has tiles (see PointTiles), the datapoints of a tile only scan its
+	 * candidate centroids. With an active set, the steps between full sweeps only scan the
+	 * active datapoints (see ActiveSet).
+	 *
+	 * @param points the point store
+	 * @param centroids centroids of the current iteration
+	 * @return sums of distances and distance evaluations over all datapoints
+	 *************************************************************************************/
+	AssignmentResult assign(PointStore points, CentroidTable centroids)
+	{
+		int n = points.size();
+		if (mBounds != null)
+		{
+			mBounds.prepare(n, centroids, points.hasUnitVectors());
+		}
+		if (mActiveSet != null)
+		{
+			mActiveSet.prepare(n, centroids);
+		}
+		CentroidIndex index = mUseIndex ? new CentroidIndex(centroids, centroids.mActive) : null;
+		AssignmentResult result;
+		if (mPool == null)
+		{
+			result = assignRange(points, 0, n, centroids, mBounds, index, mKernel, mActiveSet);
+		}
+		else
+		{
+			int chunk = Math.max(MIN_CHUNK, n / (mThreadCount * 4));
+			AssignTask task = new AssignTask(points, 0, n, chunk, centroids, mBounds, index, mKernel, mActiveSet);
+			// Called from a task of the shared pool, fork from the current worker
+			result = (ForkJoinTask.getPool() == mPool) ? task.invoke() : mPool.invoke(task);
+		}
+		result.mPartial = (mActiveSet != null) && !mActiveSet.isSweep();
+		return result;
+	}
+
+	/*************************************************************************************
+	 * A datapoint was moved to another cluster outside the assignment step (merge or split),
+	 * so its bound is no longer valid.
+	 *
+	 * @param index index of datapoint in the point store
+	 *************************************************************************************/
+	public void invalidateBound(int index)
+	{
+		if (mBounds != null)
+		{
+			mBounds.invalidate(index);
+		}
+		if (mActiveSet != null)
+		{
+			mActiveSet.requestSweep();
+		}
+	}
+
+	/*************************************************************************************
+	 * Make the next assignment step scan every datapoint, when the engine has an active
+	 * set; every step does otherwise.
+	 *************************************************************************************/
+	public void requestSweep()
+	{
+		if (mActiveSet != null)
+		{
+			mActiveSet.requestSweep();
+		}
+	}
+
+	/*************************************************************************************
+	 * The labels of the datapoints are a clustering already (see DistanceBounds.seed()):
+	 * the first assignment step only scans the datapoints near the boundaries of their
+	 * clusters and those whose bound is invalidated afterwards.
+	 *
+	 * @param pointCount number of datapoints
+	 * @return false if the engine has no distance bounds, every datapoint is then scanned
+	 *************************************************************************************/
+	public boolean seedBounds(int pointCount)
+	{
+		if (mBounds == null)
+		{
+			return false;
+		}
+		mBounds.seed(pointCount);
+		return true;
+	}
+
+	/*************************************************************************************
+	 * Release the worker threads.
+	 *************************************************************************************/
+	public void shutdown()
+	{
+		if ((mPool != null) && mOwnsPool)
+		{
+			mPool.shutdown();
+		}
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) to their closest centroid.
+	 *
+	 * @param kernel kernel of the brute-force scan over unit vectors, null for the scalar loop
+	 * @param active active set of the step, null to scan every datapoint
+	 * @return partial sums of the range
+	 *************************************************************************************/
+	static AssignmentResult assignRange(PointStore points, int from, int to, CentroidTable centroids, DistanceBounds bounds, CentroidIndex index, AssignmentKernel kernel, ActiveSet active)
+	{
+		AssignmentResult result = new AssignmentResult(centroids.size());
+		result.mBruteForceEvaluations = (long) (to - from) * centroids.mActive.length;
+		if (active != null)
+		{
+			assignRangeActive(points, from, to, centroids, active, result);
+		}
+		else if (bounds != null)
+		{
+			assignRangeBounded(points, from, to, centroids, bounds, index, result);
+		}
+		else if (index != null)
+		{
+			assignRangeIndexed(points, from, to, index, result);
+		}
+		else if (points.getTiles() != null)
+		{
+			assignRangeTiled(points, from, to, centroids, points.getTiles(), result);
+		}
+		else if (points.hasUnitVectors())
+		{
+			result.mTotalDistance = (kernel != null) ? kernel.assignRange(points, from, to, centroids, result.mClusterCost)
+					: assignRangeUnitVectors(points, from, to, centroids, result.mClusterCost);
+			result.mDistanceEvaluations = result.mBruteForceEvaluations;
+		}
+		else
+		{
+			result.mTotalDistance = assignRangeHaversine(points, from, to, centroids, result.mClusterCost);
+			result.mDistanceEvaluations = result.mBruteForceEvaluations;
+		}
+		return result;
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) to the centroid with the least Haversine distance.
+	 *
+	 * @param clusterCost receives the distances added to each cluster, in meters
+	 * @return partial sum of distances of the range
+	 *************************************************************************************/
+	static long assignRangeHaversine(PointStore points, int from, int to, CentroidTable centroids, long[] clusterCost)
+	{
+
+		int[] activeClusters = centroids.mActive;
+		double[] centroidLat = centroids.mLat;
+		double[] centroidLan = centroids.mLan;
+		long TotalDistance = 0;
+		for (int i = from; i < to; i++)
+		{
+			double lat = points.getLatitude(i);
+			double lan = points.getLongitude(i);
+			double closestDistance = Double.MAX_VALUE;
+			int currentBestCluster = -1;
+
+			for (int j : activeClusters)
+			{
+				double currentDist = GetGeoClusters.GreatCircleDistUsingHaverSine(lat, lan, centroidLat[j], centroidLan[j]);
+				if (currentDist < closestDistance)
+				{
+					closestDistance = currentDist;
+					currentBestCluster = j;
+				}
+			}
+
+			points.setNewClusterId(i, currentBestCluster);
+			int weight = points.getWeight(i);
+			TotalDistance += closestDistance * weight;
+			if (currentBestCluster != -1)
+			{
+				clusterCost[currentBestCluster] += weight * AssignmentResult.Meters(closestDistance);
+			}
+		}
+		return TotalDistance;
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) to the centroid with the largest dot product.
+	 * The distance is only computed for the chosen centroid.
+	 *
+	 * @param clusterCost receives the distances added to each cluster, in meters
+	 * @return partial sum of distances of the range
+	 *************************************************************************************/
+	static long assignRangeUnitVectors(PointStore points, int from, int to, CentroidTable centroids, long[] clusterCost)
+	{
+		int[] activeClusters = centroids.mActive;
+		double[] cx = centroids.mX;
+		double[] cy = centroids.mY;
+		double[] cz = centroids.mZ;
+		long TotalDistance = 0;
+		for (int i = from; i < to; i++)
+		{
+			double x = points.getX(i);
+			double y = points.getY(i);
+			double z = points.getZ(i);
+			double bestDot = Double.NEGATIVE_INFINITY;
+			int currentBestCluster = -1;
+
+			for (int j : activeClusters)
+			{
+				double dot = x * cx[j] + y * cy[j] + z * cz[j];
+				if (dot > bestDot)
+				{
+					bestDot = dot;
+					currentBestCluster = j;
+				}
+			}
+
+			points.setNewClusterId(i, currentBestCluster);
+			if (currentBestCluster == -1)
+			{
+				TotalDistance += Double.MAX_VALUE;
+			}
+			else
+			{
+				double distance = GeoMath.Distance(x, y, z, cx[currentBestCluster], cy[currentBestCluster], cz[currentBestCluster]);
+				int weight = points.getWeight(i);
+				TotalDistance += distance * weight;
+				clusterCost[currentBestCluster] += weight * AssignmentResult.Meters(distance);
+			}
+		}
+		return TotalDistance;
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) of an active set step. A sweep scans every datapoint
+	 * for its closest and second closest centroids; a step between sweeps only scans the
+	 * active datapoints, the others keep their cluster and the distance of their last scan.
+	 * The closest centroid is the one found by scanning all centroids.
+	 *
+	 * @param active the active set
+	 * @param result receives the sums and the distance evaluations of the range
+	 *************************************************************************************/
+	static void assignRangeActive(PointStore points, int from, int to, CentroidTable centroids, ActiveSet active, AssignmentResult result)
+	{
+		boolean sweep = active.isSweep();
+		int[] activeClusters = centroids.mActive;
+		boolean unitVectors = points.hasUnitVectors();
+		long TotalDistance = 0;
+		long scanned = 0;
+		for (int i = from; i < to; i++)
+		{
+			if (!sweep && !active.isActive(i))
+			{
+				int current = points.getNewClusterId(i);
+				if (current != -1)
+				{
+					double dist = active.getDistance(i);
+					int weight = points.getWeight(i);
+					TotalDistance += dist * weight;
+					result.mClusterCost[current] += weight * AssignmentResult.Meters(dist);
+				}
+				continue;
+			}
+			scanned++;
+			int best = -1;
+			int second = -1;
+			double bestDist;
+			double secondDist;
+			if (unitVectors)
+			{
+				double x = points.getX(i);
+				double y = points.getY(i);
+				double z = points.getZ(i);
+				double bestDot = Double.NEGATIVE_INFINITY;
+				double secondDot = Double.NEGATIVE_INFINITY;
+				for (int j : activeClusters)
+				{
+					double dot = x * centroids.mX[j] + y * centroids.mY[j] + z * centroids.mZ[j];
+					if (dot > bestDot)
+					{
+						secondDot = bestDot;
+						second = best;
+						bestDot = dot;
+						best = j;
+					}
+					else if (dot > secondDot)
+					{
+						secondDot = dot;
+						second = j;
+					}
+				}
+				bestDist = (best == -1) ? Double.MAX_VALUE : GeoMath.Distance(x, y, z, centroids.mX[best], centroids.mY[best], centroids.mZ[best]);
+				secondDist = (second == -1) ? Double.MAX_VALUE : GeoMath.Distance(x, y, z, centroids.mX[second], centroids.mY[second], centroids.mZ[second]);
+			}
+			else
+			{
+				double lat = points.getLatitude(i);
+				double lan = points.getLongitude(i);
+				bestDist = Double.MAX_VALUE;
+				secondDist = Double.MAX_VALUE;
+				for (int j : activeClusters)
+				{
+					double currentDist = GetGeoClusters.GreatCircleDistUsingHaverSine(lat, lan, centroids.mLat[j], centroids.mLan[j]);
+					if (currentDist < bestDist)
+					{
+						secondDist = bestDist;
+						bestDist = currentDist;
+						best = j;
+					}
+					else if (currentDist < secondDist)
+					{
+						secondDist = currentDist;
+					}
+				}
+			}
+
+			points.setNewClusterId(i, best);
+			int weight = points.getWeight(i);
+			TotalDistance += bestDist * weight;
+			if (best != -1)
+			{
+				long cost = weight * AssignmentResult.Meters(bestDist);
+				result.mClusterCost[best] += cost;
+				active.update(i, bestDist, secondDist);
+			}
+		}
+		result.mTotalDistance = TotalDistance;
+		result.mDistanceEvaluations = scanned * activeClusters.length;
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) scanning only the candidate centroids of their tile
+	 * (see PointTiles): the centroids within the distance of the closest centroid from the
+	 * center of the tile plus twice its radius. The closest centroid is the one found by
+	 * scanning all centroids, with unit vectors or Haversine as the point store allows.
+	 *
+	 * @param tiles tiles of the point store
+	 * @param result receives the sums and the distance evaluations of the range
+	 *************************************************************************************/
+	static void assignRangeTiled(PointStore points, int from, int to, CentroidTable centroids, PointTiles tiles, AssignmentResult result)
+	{
+		int[] activeClusters = centroids.mActive;
+		double[] tileDistance = new double[centroids.size()];
+		int[] candidates = new int[activeClusters.length];
+		boolean unitVectors = points.hasUnitVectors();
+		long TotalDistance = 0;
+		long evaluations = 0;
+		for (int t = from / tiles.mTileSize; (t * tiles.mTileSize) < to; t++)
+		{
+			// Candidate centroids of the part of the tile in the range
+			double closest = Double.MAX_VALUE;
+			for (int j : activeClusters)
+			{
+				tileDistance[j] = GeoMath.Distance(tiles.mX[t], tiles.mY[t], tiles.mZ[t], centroids.mX[j], centroids.mY[j], centroids.mZ[j]);
+				closest = Math.min(closest, tileDistance[j]);
+			}
+			double reach = closest + (2 * tiles.mRadius[t]) + TILE_SLACK_KM;
+			int candidateCount = 0;
+			for (int j : activeClusters)
+			{
+				if (tileDistance[j] <= reach)
+				{
+					candidates[candidateCount++] = j;
+				}
+			}
+			int start = Math.max(from, t * tiles.mTileSize);
+			int end = Math.min(to, (t + 1) * tiles.mTileSize);
+			evaluations += activeClusters.length + (long) (end - start) * candidateCount;
+
+			for (int i = start; i < end; i++)
+			{
+				int currentBestCluster = -1;
+				double closestDistance;
+				if (unitVectors)
+				{
+					double x = points.getX(i);
+					double y = points.getY(i);
+					double z = points.getZ(i);
+					double bestDot = Double.NEGATIVE_INFINITY;
+					for (int c = 0; c < candidateCount; c++)
+					{
+						int j = candidates[c];
+						double dot = x * centroids.mX[j] + y * centroids.mY[j] + z * centroids.mZ[j];
+						if (dot > bestDot)
+						{
+							bestDot = dot;
+							currentBestCluster = j;
+						}
+					}
+					closestDistance = (currentBestCluster == -1) ? Double.MAX_VALUE
+							: GeoMath.Distance(x, y, z, centroids.mX[currentBestCluster], centroids.mY[currentBestCluster], centroids.mZ[currentBestCluster]);
+				}
+				else
+				{
+					double lat = points.getLatitude(i);
+					double lan = points.getLongitude(i);
+					closestDistance = Double.MAX_VALUE;
+					for (int c = 0; c < candidateCount; c++)
+					{
+						int j = candidates[c];
+						double currentDist = GetGeoClusters.GreatCircleDistUsingHaverSine(lat, lan, centroids.mLat[j], centroids.mLan[j]);
+						if (currentDist < closestDistance)
+						{
+							closestDistance = currentDist;
+							currentBestCluster = j;
+						}
+					}
+				}
+
+				points.setNewClusterId(i, currentBestCluster);
+				int weight = points.getWeight(i);
+				TotalDistance += closestDistance * weight;
+				if (currentBestCluster != -1)
+				{
+					result.mClusterCost[currentBestCluster] += weight * AssignmentResult.Meters(closestDistance);
+				}
+			}
+		}
+		result.mTotalDistance = TotalDistance;
+		result.mDistanceEvaluations = evaluations;
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) to the closest centroid found in the k-d tree.
+	 *************************************************************************************/
+	static void assignRangeIndexed(PointStore points, int from, int to, CentroidIndex index, AssignmentResult result)
+	{
+		CentroidIndex.Search search = new CentroidIndex.Search();
+		long TotalDistance = 0;
+		for (int i = from; i < to; i++)
+		{
+			index.nearestCentroid(points, i, search);
+			points.setNewClusterId(i, search.mBest);
+			int weight = points.getWeight(i);
+			TotalDistance += search.mBestDist * weight;
+			if (search.mBest != -1)
+			{
+				result.mClusterCost[search.mBest] += weight * AssignmentResult.Meters(search.mBestDist);
+			}
+		}
+		result.mTotalDistance = TotalDistance;
+		result.mDistanceEvaluations = search.evaluations();
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) using the distance bounds.
+	 * The distance to the current centroid is computed (it is reported) unless the datapoint
+	 * has no valid bound. The other centroids are only scanned when the bounds cannot prove
+	 * that the current centroid is strictly the closest; the scan is then the same as the
+	 * brute-force path, or the k-d tree search when an index is given.
+	 *************************************************************************************/
+	static void assignRangeBounded(PointStore points, int from, int to, CentroidTable centroids, DistanceBounds bounds, CentroidIndex index, AssignmentResult result)
+	{
+		CentroidIndex.Search search = (index != null) ? new CentroidIndex.Search() : null;
+		boolean unitVectors = points.hasUnitVectors();
+		int[] activeClusters = centroids.mActive;
+		long TotalDistance = 0;
+		long evaluations = 0;
+		for (int i = from; i < to; i++)
+		{
+			int current = points.getClusterId(i);
+			double lower = bounds.lower(i, current);
+			if (lower != Double.NEGATIVE_INFINITY)
+			{
+				double currentDist = DistanceToCentroid(points, i, centroids, current, unitVectors);
+				evaluations++;
+				if (currentDist < Math.max(bounds.mHalfGap[current], lower) - DistanceBounds.EPSILON_KM)
+				{
+					points.setNewClusterId(i, current);
+					bounds.setLower(i, lower);
+					int weight = points.getWeight(i);
+					TotalDistance += currentDist * weight;
+					result.mClusterCost[current] += weight * AssignmentResult.Meters(currentDist);
+					continue;
+				}
+			}
+
+			// Full scan, best and second best centroid
+			int best = -1;
+			int second = -1;
+			double bestDist = Double.MAX_VALUE;
+			double secondDist = Double.MAX_VALUE;
+			if (search != null)
+			{
+				long before = search.evaluations();
+				index.nearestCentroid(points, i, search);
+				best = search.mBest;
+				bestDist = search.mBestDist;
+				secondDist = search.mSecondDist;
+				evaluations += search.evaluations() - before;
+			}
+			else if (unitVectors)
+			{
+				double x = points.getX(i);
+				double y = points.getY(i);
+				double z = points.getZ(i);
+				double bestDot = Double.NEGATIVE_INFINITY;
+				double secondDot = Double.NEGATIVE_INFINITY;
+				for (int j : activeClusters)
+				{
+					double dot = x * centroids.mX[j] + y * centroids.mY[j] + z * centroids.mZ[j];
+					if (dot > bestDot)
+					{
+						secondDot = bestDot;
+						second = best;
+						bestDot = dot;
+						best = j;
+					}
+					else if (dot > secondDot)
+					{
+						secondDot = dot;
+						second = j;
+					}
+				}
+				if (best != -1)
+				{
+					bestDist = DistanceToCentroid(points, i, centroids, best, true);
+				}
+				if (second != -1)
+				{
+					secondDist = DistanceToCentroid(points, i, centroids, second, true);
+				}
+			}
+			else
+			{
+				double lat = points.getLatitude(i);
+				double lan = points.getLongitude(i);
+				for (int j : activeClusters)
+				{
+					double dist = GetGeoClusters.GreatCircleDistUsingHaverSine(lat, lan, centroids.mLat[j], centroids.mLan[j]);
+					if (dist < bestDist)
+					{
+						secondDist = bestDist;
+						second = best;
+						bestDist = dist;
+						best = j;
+					}
+					else if (dist < secondDist)
+					{
+						secondDist = dist;
+						second = j;
+					}
+				}
+			}
+			if (search == null)
+			{
+				evaluations += activeClusters.length;
+			}
+
+			points.setNewClusterId(i, best);
+			int weight = points.getWeight(i);
+			TotalDistance += bestDist * weight;
+			bounds.setLower(i, secondDist);
+			if (best != -1)
+			{
+				result.mClusterCost[best] += weight * AssignmentResult.Meters(bestDist);
+			}
+		}
+		result.mTotalDistance = TotalDistance;
+		result.mDistanceEvaluations = evaluations;
+	}
+
+	/**
+	 * @return distance in Kilometers of a datapoint from a centroid of the table
+	 */
+	private static double DistanceToCentroid(PointStore points, int index, CentroidTable centroids, int clusterId, boolean unitVectors)
+	{
+		if (unitVectors)
+		{
+			return GeoMath.Distance(points.getX(index), points.getY(index), points.getZ(index), centroids.mX[clusterId], centroids.mY[clusterId], centroids.mZ[clusterId]);
+		}
+		return GetGeoClusters.GreatCircleDistUsingHaverSine(points.getLatitude(index), points.getLongitude(index), centroids.mLat[clusterId], centroids.mLan[clusterId]);
+	}
+
+	/*************************************************************************************
+	 * The Vector API kernel, loaded and checked once. The kernel is only used if its class
+	 * is on the class path, the jdk.incubator.vector module is present (--add-modules
+	 * jdk.incubator.vector) and it passes the check; otherwise PROBLEM tells why and the
+	 * scalar loop is used.
+	 *************************************************************************************/
+	private static final class VectorKernelHolder
+	{
+		static final AssignmentKernel KERNEL;
+		static final String PROBLEM;
+
+		static
+		{
+			AssignmentKernel kernel = null;
+			String problem;
+			try
+			{
+				kernel = (AssignmentKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+				problem = CheckKernel(kernel);
+			}
+			catch (ReflectiveOperationException | LinkageError e)
+			{
+				problem = "not available : " + e;
+			}
+			KERNEL = (problem == null) ? kernel : null;
+			PROBLEM = problem;
+		}
+	}
+
+	/*************************************************************************************
+	 * Check a kernel on synthetic datapoints, against the scalar loop and against
+	 * GetGeoClusters.GreatCircleDistUsingHaverSine(): every datapoint must get the cluster
+	 * the scalar loop gives it, with the same sums, and the Haversine distance of that
+	 * cluster must be the least one within VECTOR_KERNEL_TOLERANCE_KM.
+	 *
+	 * @return the first difference found, null if the kernel passes
+	 *************************************************************************************/
+	static String CheckKernel(AssignmentKernel kernel)
+	{
+		try
+		{
+			PointStore points = new DatasetGenerator(1).points(VECTOR_CHECK_POINTS);
+			points.computeUnitVectors();
+			PointStore scalar = points.shareCoordinates();
+			GetGeoClusters.Cluster[] clusters = new GetGeoClusters.Cluster[VECTOR_CHECK_CLUSTERS];
+			int[] active = new int[VECTOR_CHECK_CLUSTERS - 1];
+			for (int j = 0; j < VECTOR_CHECK_CLUSTERS; j++)
+			{
+				clusters[j] = new GetGeoClusters.Cluster();
+				int dp = (j * 97) % VECTOR_CHECK_POINTS;
+				clusters[j].SetCentroid(points.getLatitude(dp), points.getLongitude(dp));
+				// The last cluster is inactive and must never be chosen
+				if (j < active.length)
+				{
+					active[j] = j;
+				}
+			}
+			CentroidTable centroids = new CentroidTable(clusters, active);
+
+			long[] cost = new long[VECTOR_CHECK_CLUSTERS];
+			long[] scalarCost = new long[VECTOR_CHECK_CLUSTERS];
+			// Two ranges, so that the kernel is checked on a range not starting at 0
+			long total = kernel.assignRange(points, 0, 1000, centroids, cost) + kernel.assignRange(points, 1000, VECTOR_CHECK_POINTS, centroids, cost);
+			long scalarTotal = assignRangeUnitVectors(scalar, 0, 1000, centroids, scalarCost) + assignRangeUnitVectors(scalar, 1000, VECTOR_CHECK_POINTS, centroids, scalarCost);
+			if ((total != scalarTotal) || !Arrays.equals(cost, scalarCost))
+			{
+				return "sums differ from the scalar loop";
+			}
+			for (int i = 0; i < VECTOR_CHECK_POINTS; i++)
+			{
+				int chosen = points.getNewClusterId(i);
+				if (chosen != scalar.getNewClusterId(i))
+				{
+					return "datapoint " + i + " assigned to " + chosen + " instead of " + scalar.getNewClusterId(i);
+				}
+				double least = Double.MAX_VALUE;
+				for (int j : active)
+				{
+					least = Math.min(least, GetGeoClusters.GreatCircleDistUsingHaverSine(points.getLatitude(i), points.getLongitude(i), centroids.mLat[j], centroids.mLan[j]));
+				}
+				double distance = GetGeoClusters.GreatCircleDistUsingHaverSine(points.getLatitude(i), points.getLongitude(i), centroids.mLat[chosen], centroids.mLan[chosen]);
+				if (distance - least > VECTOR_KERNEL_TOLERANCE_KM)
+				{
+					return "datapoint " + i + " is " + (distance - least) + " Km farther from its centroid than the Haversine distance allows";
+				}
+			}
+			return null;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			return "check failed : " + e;
+		}
+	}
+
+	/*************************************************************************************
+	 * Worker splitting its range in halves until it is small enough.
+	 *************************************************************************************/
+	@SuppressWarnings("serial")
+	private static class AssignTask extends RecursiveTask<AssignmentResult>
+	{
+		private final PointStore mPoints;
+		private final int mFrom;
+		private final int mTo;
+		private final int mChunk;
+		private final CentroidTable mCentroids;
+		private final DistanceBounds mBounds;
+		private final CentroidIndex mIndex;
+		private final AssignmentKernel mKernel;
+		private final ActiveSet mActive;
+
+		AssignTask(PointStore points, int from, int to, int chunk, CentroidTable centroids, DistanceBounds bounds, CentroidIndex index, AssignmentKernel kernel, ActiveSet active)
+		{
+			mPoints = points;
+			mFrom = from;
+			mTo = to;
+			mChunk = chunk;
+			mCentroids = centroids;
+			mBounds = bounds;
+			mIndex = index;
+			mKernel = kernel;
+			mActive = active;
+		}
+
+		@Override
+		protected AssignmentResult compute()
+		{
+			if (mTo - mFrom <= mChunk)
+			{
+				return assignRange(mPoints, mFrom, mTo, mCentroids, mBounds, mIndex, mKernel, mActive);
+			}
+			int mid = (mFrom + mTo) >>> 1;
+			AssignTask left = new AssignTask(mPoints, mFrom, mid, mChunk, mCentroids, mBounds, mIndex, mKernel, mActive);
+			AssignTask right = new AssignTask(mPoints, mid, mTo, mChunk, mCentroids, mBounds, mIndex, mKernel, mActive);
+			left.fork();
+			AssignmentResult rightResult = right.compute();
+			return left.join().merge(rightResult);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+/*************************************************************************************
+ * Brute-force assignment of a range of datapoints held as unit vectors, as
+ * AssignmentEngine.assignRangeUnitVectors() does it. Implemented by kernels that are
+ * loaded at run time, such as the Vector API kernel.
+ *************************************************************************************/
+interface AssignmentKernel
+{
+	/**
+	 * @return name of the kernel for the log
+	 */
+	String name();
+
+	/*************************************************************************************
+	 * Assign the datapoints [from, to) to the centroid with the largest dot product, the
+	 * first one on ties, and store it as their new cluster id.
+	 *
+	 * @param clusterCost receives the distances added to each cluster, in meters, times the weight of the datapoints
+	 * @return partial sum of distances of the range, times the weight of the datapoints
+	 *************************************************************************************/
+	long assignRange(PointStore points, int from, int to, CentroidTable centroids, long[] clusterCost);
+}
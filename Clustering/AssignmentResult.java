@@ -0,0 +1,69 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+/*************************************************************************************
+ * Partial sums of one assignment step. Every worker fills its own instance for its
+ * range of datapoints and the instances are merged when the workers join. The distance
+ * of a weighted datapoint counts once per user it stands for.
+ *************************************************************************************/
+final class AssignmentResult
+{
+	/** Sum of distances to the closest centroid, each truncated to whole Kilometers. */
+	long mTotalDistance;
+
+	/** Number of datapoint/centroid distances that were evaluated. */
+	long mDistanceEvaluations;
+
+	/** Number of datapoint/centroid distances a brute-force scan evaluates. */
+	long mBruteForceEvaluations;
+
+	/** Sum of distances of the datapoints assigned to each cluster, in meters. */
+	final long[] mClusterCost;
+
+	/** True if only the active datapoints were scanned, the others adding the distance of their last scan (see ActiveSet). */
+	boolean mPartial;
+
+	/**
+	 * Instantiates empty partial sums.
+	 *
+	 * @param clusterCount number of clusters
+	 */
+	AssignmentResult(int clusterCount)
+	{
+		mClusterCost = new long[clusterCount];
+	}
+
+	/**
+	 * Distance rounded to meters. Costs are summed as whole meters so that the sum does not
+	 * depend on the order of the additions.
+	 *
+	 * @param km distance in Kilometers
+	 * @return distance in meters
+	 */
+	static long Meters(double km)
+	{
+		return Math.round(km * 1000);
+	}
+
+	/**
+	 * Add the partial sums of another worker.
+	 *
+	 * @param other result of another range
+	 * @return this
+	 */
+	AssignmentResult merge(AssignmentResult other)
+	{
+		mTotalDistance += other.mTotalDistance;
+		mDistanceEvaluations += other.mDistanceEvaluations;
+		mBruteForceEvaluations += other.mBruteForceEvaluations;
+		for (int j = 0; j < mClusterCost.length; j++)
+		{
+			mClusterCost[j] += other.mClusterCost[j];
+		}
+		return this;
+	}
+}
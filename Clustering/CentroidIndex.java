@@ -0,0 +1,391 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.util.Arrays;
+
+/*************************************************************************************
+ * k-d tree over the unit vectors of the centroids.
+ * The straight line (chord) distance between two unit vectors grows with their great
+ * circle distance, so the nearest centroid in 3D is also the nearest on the sphere.
+ * The tree is rebuilt once per iteration and answers nearest and k-nearest queries in
+ * about O(log K) instead of the O(K) scan over all clusters.
+ *
+ * The tree is stored implicitly: the node of a range [lo, hi) of mIds is its middle element
+ * and its children are the two halves around it.
+ *************************************************************************************/
+final class CentroidIndex
+{
+	/** Chord slack inside which two centroids are treated as a tie and resolved by the caller. */
+	static final double TIE_CHORD = 1e-7;
+
+	/** Centroids the tree is built on. */
+	private final CentroidTable mCentroids;
+
+	/** Unit vector of centroid of every cluster, indexed by cluster id. */
+	private final double[] mX;
+	private final double[] mY;
+	private final double[] mZ;
+
+	/** Cluster ids in tree order. */
+	private final int[] mIds;
+
+	/** Splitting axis (0=x, 1=y, 2=z) of the node stored at each position. */
+	private final byte[] mAxis;
+
+	/**
+	 * Build the tree over the given clusters.
+	 *
+	 * @param centroids centroids of the current iteration
+	 * @param clusterIds ids of the clusters to index
+	 */
+	CentroidIndex(CentroidTable centroids, int[] clusterIds)
+	{
+		mCentroids = centroids;
+		mX = centroids.mX;
+		mY = centroids.mY;
+		mZ = centroids.mZ;
+		mIds = Arrays.copyOf(clusterIds, clusterIds.length);
+		mAxis = new byte[mIds.length];
+		build(0, mIds.length);
+	}
+
+	/**
+	 * @return number of indexed clusters
+	 */
+	int size()
+	{
+		return mIds.length;
+	}
+
+	private void build(int lo, int hi)
+	{
+		if (hi - lo <= 1)
+		{
+			return;
+		}
+
+		// Split along the axis with the largest spread
+		double[] min = { Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+		double[] max = { -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+		for (int i = lo; i < hi; i++)
+		{
+			int id = mIds[i];
+			min[0] = Math.min(min[0], mX[id]);
+			max[0] = Math.max(max[0], mX[id]);
+			min[1] = Math.min(min[1], mY[id]);
+			max[1] = Math.max(max[1], mY[id]);
+			min[2] = Math.min(min[2], mZ[id]);
+			max[2] = Math.max(max[2], mZ[id]);
+		}
+		byte axis = 0;
+		for (byte a = 1; a < 3; a++)
+		{
+			if (max[a] - min[a] > max[axis] - min[axis])
+			{
+				axis = a;
+			}
+		}
+
+		int mid = (lo + hi) >>> 1;
+		select(lo, hi - 1, mid, coordinates(axis));
+		mAxis[mid] = axis;
+		build(lo, mid);
+		build(mid + 1, hi);
+	}
+
+	private double[] coordinates(int axis)
+	{
+		return (axis == 0) ? mX : ((axis == 1) ? mY : mZ);
+	}
+
+	/**
+	 * Quickselect: reorder mIds[lo..hi] so that position k holds the element of rank k along
+	 * the given coordinates, smaller ones before it and larger ones after it.
+	 */
+	private void select(int lo, int hi, int k, double[] key)
+	{
+		while (lo < hi)
+		{
+			double pivot = key[mIds[(lo + hi) >>> 1]];
+			int i = lo;
+			int j = hi;
+			while (i <= j)
+			{
+				while (key[mIds[i]] < pivot)
+				{
+					i++;
+				}
+				while (key[mIds[j]] > pivot)
+				{
+					j--;
+				}
+				if (i <= j)
+				{
+					int t = mIds[i];
+					mIds[i] = mIds[j];
+					mIds[j] = t;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j)
+			{
+				hi = j;
+			}
+			else if (k >= i)
+			{
+				lo = i;
+			}
+			else
+			{
+				return;
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * Find the k nearest centroids of a unit vector. Equal distances are ordered by cluster id.
+	 *
+	 * @param query holds k, receives the result and counts evaluated distances
+	 *************************************************************************************/
+	void nearest(double x, double y, double z, Query query)
+	{
+		query.mCount = 0;
+		search(0, mIds.length, x, y, z, query);
+	}
+
+	private void search(int lo, int hi, double x, double y, double z, Query query)
+	{
+		if (lo >= hi)
+		{
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		int id = mIds[mid];
+		double dx = x - mX[id];
+		double dy = y - mY[id];
+		double dz = z - mZ[id];
+		query.offer(id, dx * dx + dy * dy + dz * dz);
+		query.mEvaluations++;
+
+		double diff = (mAxis[mid] == 0) ? dx : ((mAxis[mid] == 1) ? dy : dz);
+		boolean leftFirst = diff < 0;
+		search(leftFirst ? lo : mid + 1, leftFirst ? mid : hi, x, y, z, query);
+		if (diff * diff <= query.worst())
+		{
+			search(leftFirst ? mid + 1 : lo, leftFirst ? hi : mid, x, y, z, query);
+		}
+	}
+
+	/*************************************************************************************
+	 * Find the centroid closest to a datapoint, and the distance to the second closest one.
+	 * Candidates whose chord distances are within TIE_CHORD of the nearest one are compared
+	 * with the same formula and the same tie-breaking (lowest cluster id) as the linear
+	 * scan, so the result is always the cluster the linear scan would choose.
+	 *
+	 * @param points the point store
+	 * @param index index of datapoint in the point store
+	 * @param search receives the result
+	 *************************************************************************************/
+	void nearestCentroid(PointStore points, int index, Search search)
+	{
+		boolean unitVectors = points.hasUnitVectors();
+		double x, y, z;
+		if (unitVectors)
+		{
+			x = points.getX(index);
+			y = points.getY(index);
+			z = points.getZ(index);
+		}
+		else
+		{
+			x = GeoMath.unitX(points.getLatitude(index), points.getLongitude(index));
+			y = GeoMath.unitY(points.getLatitude(index), points.getLongitude(index));
+			z = GeoMath.unitZ(points.getLatitude(index));
+		}
+
+		Query near = search.mNear;
+		nearest(x, y, z, near);
+		search.mBest = -1;
+		search.mBestDist = Double.MAX_VALUE;
+		search.mSecondDist = Double.MAX_VALUE;
+		if (near.mCount == 0)
+		{
+			return;
+		}
+
+		int best = near.mIds[0];
+		int second = (near.mCount > 1) ? near.mIds[1] : -1;
+		if ((second != -1) && (Math.sqrt(near.mDist2[1]) - Math.sqrt(near.mDist2[0]) <= TIE_CHORD))
+		{
+			// Near tie, resolve it like the linear scan
+			Query tie = search.mTie;
+			withinRadius(x, y, z, Math.sqrt(near.mDist2[0]) + TIE_CHORD, tie);
+			double bestCloseness = Double.NEGATIVE_INFINITY;
+			for (int t = 0; t < tie.mCount; t++)
+			{
+				int j = tie.mIds[t];
+				double closeness = unitVectors ? (x * mX[j] + y * mY[j] + z * mZ[j])
+						: -GetGeoClusters.GreatCircleDistUsingHaverSine(points.getLatitude(index), points.getLongitude(index), mCentroids.mLat[j], mCentroids.mLan[j]);
+				if ((closeness > bestCloseness) || ((closeness == bestCloseness) && (j < best)))
+				{
+					bestCloseness = closeness;
+					best = j;
+				}
+			}
+			second = (best == near.mIds[0]) ? near.mIds[1] : near.mIds[0];
+		}
+
+		search.mBest = best;
+		if (unitVectors)
+		{
+			search.mBestDist = GeoMath.Distance(x, y, z, mX[best], mY[best], mZ[best]);
+		}
+		else
+		{
+			search.mBestDist = GetGeoClusters.GreatCircleDistUsingHaverSine(points.getLatitude(index), points.getLongitude(index), mCentroids.mLat[best], mCentroids.mLan[best]);
+		}
+		if (second != -1)
+		{
+			search.mSecondDist = GeoMath.Distance(x, y, z, mX[second], mY[second], mZ[second]);
+		}
+	}
+
+	/*************************************************************************************
+	 * Collect all centroids whose chord distance from a unit vector is at most the radius.
+	 *
+	 * @param query receives the cluster ids in mIds of the query, in no particular order
+	 *************************************************************************************/
+	void withinRadius(double x, double y, double z, double radius, Query query)
+	{
+		query.mCount = 0;
+		collect(0, mIds.length, x, y, z, radius * radius, query);
+	}
+
+	private void collect(int lo, int hi, double x, double y, double z, double radius2, Query query)
+	{
+		if (lo >= hi)
+		{
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		int id = mIds[mid];
+		double dx = x - mX[id];
+		double dy = y - mY[id];
+		double dz = z - mZ[id];
+		double d2 = dx * dx + dy * dy + dz * dz;
+		query.mEvaluations++;
+		if (d2 <= radius2)
+		{
+			query.append(id, d2);
+		}
+
+		double diff = (mAxis[mid] == 0) ? dx : ((mAxis[mid] == 1) ? dy : dz);
+		if ((diff <= 0) || (diff * diff <= radius2))
+		{
+			collect(lo, mid, x, y, z, radius2, query);
+		}
+		if ((diff >= 0) || (diff * diff <= radius2))
+		{
+			collect(mid + 1, hi, x, y, z, radius2, query);
+		}
+	}
+
+	/*************************************************************************************
+	 * Reusable state and result of nearestCentroid() for one thread.
+	 *************************************************************************************/
+	static final class Search
+	{
+		final Query mNear = new Query(2);
+		final Query mTie = new Query(2);
+
+		/** Closest cluster, -1 if the tree is empty. */
+		int mBest;
+
+		/** Distance in Kilometers to the closest centroid. */
+		double mBestDist;
+
+		/** Distance in Kilometers to the second closest centroid, Double.MAX_VALUE if none. */
+		double mSecondDist;
+
+		/**
+		 * @return number of centroid distances evaluated so far
+		 */
+		long evaluations()
+		{
+			return mNear.mEvaluations + mTie.mEvaluations;
+		}
+	}
+
+	/*************************************************************************************
+	 * Reusable query state of one thread: the k best candidates found so far, sorted by
+	 * squared chord distance.
+	 *************************************************************************************/
+	static final class Query
+	{
+		/** Number of neighbours to find. */
+		final int mK;
+
+		/** Cluster ids of the result. */
+		int[] mIds;
+
+		/** Squared chord distances of the result. */
+		double[] mDist2;
+
+		/** Number of valid entries in the result. */
+		int mCount;
+
+		/** Number of centroid distances evaluated by this query object. */
+		long mEvaluations;
+
+		Query(int k)
+		{
+			mK = k;
+			mIds = new int[Math.max(k, 8)];
+			mDist2 = new double[mIds.length];
+		}
+
+		double worst()
+		{
+			return (mCount < mK) ? Double.MAX_VALUE : mDist2[mK - 1];
+		}
+
+		void offer(int id, double d2)
+		{
+			if ((mCount == mK) && !before(d2, id, mDist2[mK - 1], mIds[mK - 1]))
+			{
+				return;
+			}
+			int pos = (mCount < mK) ? mCount++ : mK - 1;
+			while ((pos > 0) && before(d2, id, mDist2[pos - 1], mIds[pos - 1]))
+			{
+				mDist2[pos] = mDist2[pos - 1];
+				mIds[pos] = mIds[pos - 1];
+				pos--;
+			}
+			mDist2[pos] = d2;
+			mIds[pos] = id;
+		}
+
+		void append(int id, double d2)
+		{
+			if (mCount == mIds.length)
+			{
+				mIds = Arrays.copyOf(mIds, mCount * 2);
+				mDist2 = Arrays.copyOf(mDist2, mCount * 2);
+			}
+			mIds[mCount] = id;
+			mDist2[mCount] = d2;
+			mCount++;
+		}
+
+		private static boolean before(double d2, int id, double otherD2, int otherId)
+		{
+			return (d2 < otherD2) || ((d2 == otherD2) && (id < otherId));
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+/*************************************************************************************
+ * Snapshot of the cluster centroids taken once per iteration for the assignment step.
+ * Centroids are kept both as latitude/longitude and as unit vectors.
+ *************************************************************************************/
+final class CentroidTable
+{
+	/** Latitude of centroid of every cluster */
+	final double[] mLat;
+
+	/** Longitude of centroid of every cluster */
+	final double[] mLan;
+
+	/** Unit vector of centroid of every cluster */
+	final double[] mX;
+	final double[] mY;
+	final double[] mZ;
+
+	/** Ids of the clusters that may receive datapoints, in increasing order. */
+	final int[] mActive;
+
+	/**
+	 * Take a snapshot of the given centroids.
+	 *
+	 * @param clusters all clusters
+	 * @param active ids of the clusters that may receive datapoints, in increasing order
+	 */
+	CentroidTable(GetGeoClusters.Cluster[] clusters, int[] active)
+	{
+		int k = clusters.length;
+		mLat = new double[k];
+		mLan = new double[k];
+		mX = new double[k];
+		mY = new double[k];
+		mZ = new double[k];
+		for (int j = 0; j < k; j++)
+		{
+			mLat[j] = clusters[j].mCx;
+			mLan[j] = clusters[j].mCy;
+			mX[j] = clusters[j].mUx;
+			mY[j] = clusters[j].mUy;
+			mZ[j] = clusters[j].mUz;
+		}
+		mActive = active;
+	}
+
+	/**
+	 * @return number of clusters in the table
+	 */
+	int size()
+	{
+		return mLat.length;
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/*************************************************************************************
+ * Reads the cluster of every user back from a users file written by ClusterOutputWriter,
+ * in any of its formats, which is recognized from the content of the file.
+ *************************************************************************************/
+final class ClusterOutputReader
+{
+	/** Datapoints read at a time from a binary users file. */
+	private static final int BLOCK = 1 << 18;
+
+	private ClusterOutputReader()
+	{
+		// Prevents instantiation
+	}
+
+	/*************************************************************************************
+	 * Find the cluster of the datapoints in a users file, by user id. A user id found more
+	 * than once in the file takes its last cluster.
+	 *
+	 * @param usersFile the users file
+	 * @param points the datapoints
+	 * @return cluster of every datapoint, -1 for the users not in the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	static int[] ReadClusters(String usersFile, PointStore points) throws IOException
+	{
+		UserIdIndex index = new UserIdIndex(points);
+		int[] clusters = new int[points.size()];
+		Arrays.fill(clusters, -1);
+
+		byte[] magic = new byte[ClusterOutputWriter.MAGIC.length];
+		try (RandomAccessFile file = new RandomAccessFile(usersFile, "r"))
+		{
+			file.readFully(magic, 0, (int) Math.min(magic.length, file.length()));
+		}
+		if (Arrays.equals(magic, ClusterOutputWriter.MAGIC))
+		{
+			readBinary(usersFile, index, clusters);
+		}
+		else
+		{
+			InputStream in = new BufferedInputStream(new FileInputStream(usersFile), 1 << 20);
+			if (((magic[0] & 0xff) == 0x1f) && ((magic[1] & 0xff) == 0x8b))
+			{
+				in = new GZIPInputStream(in, 1 << 20);
+			}
+			readText(in, usersFile, index, clusters);
+		}
+		return clusters;
+	}
+
+	/**
+	 * Give the cluster to every datapoint of a user id.
+	 */
+	private static void assign(UserIdIndex index, int[] clusters, int uid, int clusterId)
+	{
+		for (int i = index.first(uid); i != -1; i = index.next(i))
+		{
+			clusters[i] = clusterId;
+		}
+	}
+
+	/*************************************************************************************
+	 * Read the user id and cluster columns of a tab-separated users file.
+	 *************************************************************************************/
+	private static void readText(InputStream stream, String usersFile, UserIdIndex index, int[] clusters) throws IOException
+	{
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(stream, Charset.defaultCharset())))
+		{
+			String line;
+			long lineNumber = 0;
+			while ((line = in.readLine()) != null)
+			{
+				lineNumber++;
+				if (line.isEmpty() || (line.charAt(0) == '#'))
+				{
+					continue;
+				}
+				// UserId \t Latitude \t Longitude \t NearestCluster \t ClusterDistance
+				int tab1 = line.indexOf('\t');
+				int tab2 = (tab1 < 0) ? -1 : line.indexOf('\t', tab1 + 1);
+				int tab3 = (tab2 < 0) ? -1 : line.indexOf('\t', tab2 + 1);
+				int tab4 = (tab3 < 0) ? -1 : line.indexOf('\t', tab3 + 1);
+				if (tab4 < 0)
+				{
+					throw new IOException("Malformed line " + lineNumber + " of users file " + usersFile);
+				}
+				try
+				{
+					assign(index, clusters, Integer.parseInt(line.substring(0, tab1)), Integer.parseInt(line.substring(tab3 + 1, tab4)));
+				}
+				catch (NumberFormatException e)
+				{
+					throw new IOException("Malformed line " + lineNumber + " of users file " + usersFile, e);
+				}
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * Read the user id and cluster columns of a binary users file.
+	 *************************************************************************************/
+	private static void readBinary(String usersFile, UserIdIndex index, int[] clusters) throws IOException
+	{
+		try (RandomAccessFile file = new RandomAccessFile(usersFile, "r"); FileChannel channel = file.getChannel())
+		{
+			ByteBuffer header = ByteBuffer.allocate(ClusterOutputWriter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, header, 0);
+			header.position(ClusterOutputWriter.MAGIC.length);
+			if ((header.getInt() != ClusterOutputWriter.VERSION) || (header.getInt() != ClusterOutputWriter.HEADER_SIZE))
+			{
+				throw new IOException("Unsupported users file " + usersFile);
+			}
+			long n = header.getLong();
+			long idColumn = ClusterOutputWriter.HEADER_SIZE + (16 * n);
+			long clusterColumn = idColumn + (4 * n);
+			if (channel.size() < clusterColumn + (12 * n))
+			{
+				throw new IOException("Truncated users file " + usersFile);
+			}
+
+			ByteBuffer ids = ByteBuffer.allocateDirect(4 * BLOCK).order(ByteOrder.LITTLE_ENDIAN);
+			ByteBuffer clusterIds = ByteBuffer.allocateDirect(4 * BLOCK).order(ByteOrder.LITTLE_ENDIAN);
+			for (long start = 0; start < n; start += BLOCK)
+			{
+				int count = (int) Math.min(BLOCK, n - start);
+				ids.clear().limit(4 * count);
+				clusterIds.clear().limit(4 * count);
+				readFully(channel, ids, idColumn + (4 * start));
+				readFully(channel, clusterIds, clusterColumn + (4 * start));
+				for (int k = 0; k < count; k++)
+				{
+					assign(index, clusters, ids.getInt(4 * k), clusterIds.getInt(4 * k));
+				}
+			}
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException
+	{
+		while (buf.hasRemaining())
+		{
+			if (channel.read(buf, position + buf.position()) < 0)
+			{
+				throw new IOException("Unexpected end of file");
+			}
+		}
+	}
+}
@@ -0,0 +1,479 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Writes the users file of a clustering: every datapoint with its cluster and its distance
+ * from the replica of the cluster, cluster by cluster.
+ *
+ * The datapoints are cut into shards of SHARD_SIZE that are formatted on the pool while
+ * earlier shards are written, in order, so the file is the same for any number of threads.
+ * The trigonometry of the replicas is computed once per cluster. A clustering whose
+ * datapoints are not all held in memory writes its users file part by part through an
+ * Appender.
+ *
+ * Formats (globalConstants.OUTPUT_*):
+ *   TSV      : the tab-separated layout written by DecimalFormat, byte for byte
+ *   TSV_GZIP : the same text compressed, in usersFile + ".gz"
+ *   BINARY   : columnar little-endian file in usersFile + ".bin":
+ *                0 : magic "GEOUSERS"
+ *                8 : int version, int header size (64)
+ *               16 : long number of datapoints N
+ *               24 : int number of clusters, int reserved
+ *               32 : double total distance in Kilometers
+ *               40 : 24 bytes reserved
+ *               64 : N doubles latitude, N doubles longitude, N ints user id,
+ *                    N ints cluster, N doubles distance in Kilometers
+ *             The first three columns follow the layout of PointFile.
+ *************************************************************************************/
+final class ClusterOutputWriter
+{
+	static final byte[] MAGIC = "GEOUSERS".getBytes(StandardCharsets.US_ASCII);
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+
+	/** Datapoints formatted by one task. */
+	private static final int SHARD_SIZE = 1 << 16;
+
+	/** Bytes reserved per line of a shard; the encoder grows for longer lines. */
+	private static final int LINE_SIZE = 48;
+
+	/** Size of the write buffers. */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private final ForkJoinPool mPool;
+	private final int mFormat;
+
+	/**
+	 * Instantiates a new writer.
+	 *
+	 * @param pool pool formatting the shards, null formats on the calling thread
+	 * @param format one of globalConstants.OUTPUT_*
+	 */
+	ClusterOutputWriter(ForkJoinPool pool, int format)
+	{
+		mPool = pool;
+		mFormat = format;
+	}
+
+	/**
+	 * @return the file written for the users file name
+	 */
+	static String UsersFileName(String usersFile, int format)
+	{
+		if (format == globalConstants.OUTPUT_TSV_GZIP)
+		{
+			return usersFile + ".gz";
+		}
+		if (format == globalConstants.OUTPUT_BINARY)
+		{
+			return usersFile + ".bin";
+		}
+		return usersFile;
+	}
+
+	/*************************************************************************************
+	 * Write the users file.
+	 *
+	 * @param points the datapoints and their clusters
+	 * @param order datapoints ordered by cluster (see PointStore.orderByCluster())
+	 * @param replicaLat latitude of the replica of every cluster
+	 * @param replicaLan longitude of the replica of every cluster
+	 * @param usersFile the users file name
+	 * @return total distance of the datapoints from the replicas of their clusters, summed in order
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	double write(PointStore points, int[] order, double[] replicaLat, double[] replicaLan, String usersFile) throws IOException
+	{
+		try (Appender out = new Appender(usersFile, replicaLat, replicaLan, order.length))
+		{
+			out.append(points, order);
+			return out.getTotalDistance();
+		}
+	}
+
+	/*************************************************************************************
+	 * Write the clusters file: the replica of every cluster and the distances of the users.
+	 *
+	 * @param clustersFile the clusters file name
+	 * @param replicaLat latitude of the replica of every cluster
+	 * @param replicaLan longitude of the replica of every cluster
+	 * @param TotalDistance total distance of the datapoints from the replicas of their clusters
+	 * @param UsersCount number of datapoints
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	static void WriteClusters(String clustersFile, double[] replicaLat, double[] replicaLan, double TotalDistance, long UsersCount) throws IOException
+	{
+		NumberFormat formatter = new DecimalFormat("#0.00");
+		try (BufferedWriter out_c = new BufferedWriter(new FileWriter(clustersFile)))
+		{
+			out_c.write("#ClusterId" + "\t" + "Latitude" + "\t" + "Longitude" + "\n");
+			for (int i = 0; i < replicaLat.length; i++)
+			{
+				out_c.write(i + "\t" + formatter.format(replicaLat[i]) + "\t" + formatter.format(replicaLan[i]) + "\n");
+			}
+			out_c.write("\n\nAverage Distance of a datapoint = " + formatter.format(TotalDistance / UsersCount) + " Kilometer");
+			out_c.write("\nTotal Distance of datapoints = " + formatter.format(TotalDistance) + " Kilometer");
+		}
+	}
+
+	/*************************************************************************************
+	 * Writes a users file part by part, in the order of the parts. The number of
+	 * datapoints of all parts is given up front, so that a binary file can place every part
+	 * in its columns.
+	 *************************************************************************************/
+	final class Appender implements Closeable
+	{
+		private final String mFileName;
+		private final long mPointCount;
+		private final int mClusterCount;
+		private final double[] mRadLat;
+		private final double[] mRadLan;
+		private final double[] mCosLat;
+
+		/** Output of a text file, null for binary. */
+		private OutputStream mText;
+
+		/** Output of a binary file, null for text. */
+		private RandomAccessFile mFile;
+		private FileChannel mChannel;
+		private ByteBuffer mBuffer;
+
+		/** Datapoints written so far. */
+		private long mWritten;
+
+		/** Distances of the datapoints written so far, summed in order. */
+		private double mTotalDistance;
+
+		/**
+		 * Create the users file and write its header.
+		 *
+		 * @param usersFile the users file name
+		 * @param replicaLat latitude of the replica of every cluster
+		 * @param replicaLan longitude of the replica of every cluster
+		 * @param pointCount number of datapoints of all parts
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		Appender(String usersFile, double[] replicaLat, double[] replicaLan, long pointCount) throws IOException
+		{
+			mFileName = UsersFileName(usersFile, mFormat);
+			mPointCount = pointCount;
+			mClusterCount = replicaLat.length;
+			mRadLat = new double[mClusterCount];
+			mRadLan = new double[mClusterCount];
+			mCosLat = new double[mClusterCount];
+			for (int c = 0; c < mClusterCount; c++)
+			{
+				mRadLat[c] = Math.toRadians(replicaLat[c]);
+				mRadLan[c] = Math.toRadians(replicaLan[c]);
+				mCosLat[c] = Math.cos(mRadLat[c]);
+			}
+
+			if (mFormat == globalConstants.OUTPUT_BINARY)
+			{
+				mFile = new RandomAccessFile(mFileName, "rw");
+				mChannel = mFile.getChannel();
+				mFile.setLength(0);
+				mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+				return;
+			}
+			OutputStream out = new FileOutputStream(mFileName);
+			if (mFormat == globalConstants.OUTPUT_TSV_GZIP)
+			{
+				out = new GZIPOutputStream(out, BUFFER_SIZE);
+			}
+			mText = new BufferedOutputStream(out, BUFFER_SIZE);
+			TextEncoder header = new TextEncoder(64);
+			header.append("#UserId" + "\t" + "Latitude" + "\t" + "Longitude" + "\t" + "NearestCluster" + "\t" + "ClusterDistance" + "\n");
+			mText.write(header.buffer(), 0, header.length());
+		}
+
+		/**
+		 * Write the next part of the datapoints.
+		 *
+		 * @param points the datapoints and their clusters
+		 * @param order datapoints of the part, in the order they are written
+		 * @return total distance of the datapoints of the part from the replicas of their clusters
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		double append(PointStore points, int[] order) throws IOException
+		{
+			if (mWritten + order.length > mPointCount)
+			{
+				throw new IOException("More than " + mPointCount + " datapoints written to " + mFileName);
+			}
+			Shards shards = new Shards(points, order, mRadLat, mRadLan, mCosLat, mText != null);
+			shards.run(mText);
+			double distance = sum(shards.mDistance);
+			if (mText == null)
+			{
+				writeColumns(points, order, shards.mDistance);
+			}
+			mWritten += order.length;
+			mTotalDistance += distance;
+			return distance;
+		}
+
+		/**
+		 * @return total distance of the datapoints written so far, summed in order
+		 */
+		double getTotalDistance()
+		{
+			return mTotalDistance;
+		}
+
+		/**
+		 * Write the slices of the five columns of a part of a binary file.
+		 */
+		private void writeColumns(PointStore points, int[] order, double[] distance) throws IOException
+		{
+			long n = mPointCount;
+			long[] columnStart = { HEADER_SIZE, HEADER_SIZE + (8 * n), HEADER_SIZE + (16 * n), HEADER_SIZE + (20 * n), HEADER_SIZE + (24 * n) };
+			int[] width = { 8, 8, 4, 4, 8 };
+			for (int column = 0; column < 5; column++)
+			{
+				long position = columnStart[column] + (width[column] * mWritten);
+				for (int k = 0; k < order.length; k++)
+				{
+					if (mBuffer.remaining() < 8)
+					{
+						position = drain(mChannel, mBuffer, position);
+					}
+					int dp = order[k];
+					switch (column)
+					{
+					case 0:
+						mBuffer.putDouble(points.getLatitude(dp));
+						break;
+					case 1:
+						mBuffer.putDouble(points.getLongitude(dp));
+						break;
+					case 2:
+						mBuffer.putInt(points.getId(dp));
+						break;
+					case 3:
+						mBuffer.putInt(points.getClusterId(dp));
+						break;
+					default:
+						mBuffer.putDouble(distance[k]);
+						break;
+					}
+				}
+				drain(mChannel, mBuffer, position);
+			}
+		}
+
+		/**
+		 * Finish the file; the header of a binary file is written last with the total distance.
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			if (mText != null)
+			{
+				mText.close();
+				return;
+			}
+			try
+			{
+				if (mWritten != mPointCount)
+				{
+					throw new IOException(mWritten + " of " + mPointCount + " datapoints written to " + mFileName);
+				}
+				mBuffer.put(MAGIC).putInt(VERSION).putInt(HEADER_SIZE).putLong(mPointCount).putInt(mClusterCount).putInt(0).putDouble(mTotalDistance);
+				while (mBuffer.position() < HEADER_SIZE)
+				{
+					mBuffer.put((byte) 0);
+				}
+				drain(mChannel, mBuffer, 0);
+			}
+			finally
+			{
+				mFile.close();
+			}
+		}
+	}
+
+	/**
+	 * @return sum of the distances in order, as the datapoints are written
+	 */
+	private static double sum(double[] distance)
+	{
+		double TotalDistance = 0;
+		for (int k = 0; k < distance.length; k++)
+		{
+			TotalDistance += distance[k];
+		}
+		return TotalDistance;
+	}
+
+	/**
+	 * Write the buffer at a position of the file.
+	 *
+	 * @return position after the written bytes
+	 */
+	private static long drain(FileChannel channel, ByteBuffer buf, long position) throws IOException
+	{
+		buf.flip();
+		while (buf.hasRemaining())
+		{
+			position += channel.write(buf, position);
+		}
+		buf.clear();
+		return position;
+	}
+
+	/*************************************************************************************
+	 * Computes the distances of the datapoints and, for text, formats their lines shard by
+	 * shard. A window of shards is in flight on the pool; their encoders are reused once
+	 * written.
+	 *************************************************************************************/
+	private final class Shards
+	{
+		private final PointStore mPoints;
+		private final int[] mOrder;
+		private final double[] mRadLat;
+		private final double[] mRadLan;
+		private final double[] mCosLat;
+		private final boolean mText;
+
+		/** Distance of every datapoint from its replica, by position in order. */
+		final double[] mDistance;
+
+		Shards(PointStore points, int[] order, double[] radLat, double[] radLan, double[] cosLat, boolean text)
+		{
+			mPoints = points;
+			mOrder = order;
+			mRadLat = radLat;
+			mRadLan = radLan;
+			mCosLat = cosLat;
+			mText = text;
+			mDistance = new double[order.length];
+		}
+
+		/**
+		 * Process all shards and write their lines to out in order; out is null for binary.
+		 */
+		void run(OutputStream out) throws IOException
+		{
+			int shardCount = (mOrder.length + SHARD_SIZE - 1) / SHARD_SIZE;
+			int window = (mPool == null) ? 1 : Math.min(shardCount, mPool.getParallelism() * 2);
+			TextEncoder[] encoders = new TextEncoder[Math.max(window, 1)];
+			if (mPool == null)
+			{
+				for (int s = 0; s < shardCount; s++)
+				{
+					TextEncoder encoder = shard(s, encoders, 0);
+					if (encoder != null)
+					{
+						out.write(encoder.buffer(), 0, encoder.length());
+					}
+				}
+				return;
+			}
+
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			Future<TextEncoder>[] inFlight = new Future[window];
+			try
+			{
+				for (int s = 0; s < Math.min(window, shardCount); s++)
+				{
+					inFlight[s] = submit(s, encoders, s);
+				}
+				for (int s = 0; s < shardCount; s++)
+				{
+					int slot = s % window;
+					TextEncoder encoder = inFlight[slot].get();
+					if (encoder != null)
+					{
+						out.write(encoder.buffer(), 0, encoder.length());
+					}
+					if (s + window < shardCount)
+					{
+						inFlight[slot] = submit(s + window, encoders, slot);
+					}
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while writing output", e);
+			}
+			catch (ExecutionException e)
+			{
+				throw new IOException("Writing output failed", e.getCause());
+			}
+		}
+
+		private Future<TextEncoder> submit(final int s, final TextEncoder[] encoders, final int slot)
+		{
+			return mPool.submit(() -> shard(s, encoders, slot));
+		}
+
+		/**
+		 * Compute the distances of a shard and format its lines into the encoder of a slot.
+		 *
+		 * @return the encoder, null for binary
+		 */
+		private TextEncoder shard(int s, TextEncoder[] encoders, int slot)
+		{
+			int from = s * SHARD_SIZE;
+			int to = Math.min(from + SHARD_SIZE, mOrder.length);
+			TextEncoder encoder = null;
+			if (mText)
+			{
+				if (encoders[slot] == null)
+				{
+					encoders[slot] = new TextEncoder(SHARD_SIZE * LINE_SIZE);
+				}
+				encoder = encoders[slot];
+				encoder.reset();
+			}
+			for (int k = from; k < to; k++)
+			{
+				int dp = mOrder[k];
+				int c = mPoints.getClusterId(dp);
+				double lat = mPoints.getLatitude(dp);
+				double lan = mPoints.getLongitude(dp);
+
+				// GreatCircleDistUsingHaverSine with the replica terms computed once per cluster
+				double x1 = Math.toRadians(lat);
+				double y1 = Math.toRadians(lan);
+				double a = Math.pow(Math.sin((mRadLat[c] - x1) / 2), 2) + (Math.cos(x1) * mCosLat[c] * Math.pow(Math.sin((mRadLan[c] - y1) / 2), 2));
+				double Distance = 2 * Math.asin(Math.min(1, Math.sqrt(a))) * 6372.8;
+				mDistance[k] = Distance;
+
+				if (encoder != null)
+				{
+					encoder.append(mPoints.getId(dp)).append('\t').appendFixed2(lat).append('\t').appendFixed2(lan).append('\t').append(c).append('\t')
+							.appendFixed2(Distance).append('\n');
+				}
+			}
+			return encoder;
+		}
+	}
+}
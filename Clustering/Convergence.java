@@ -0,0 +1,81 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.text.DecimalFormat;
+
+/*************************************************************************************
+ * Stopping rules of the iterations of a run besides no datapoint changing cluster: the
+ * fraction of the users whose datapoint changed cluster, the largest distance a centroid
+ * moved in the last centroid update and the relative improvement of the total distance
+ * since the previous iteration. A rule set to 0 is off; the iterations stop as soon as
+ * one rule is met.
+ *************************************************************************************/
+final class Convergence
+{
+	private final double mMovedFraction;
+	private final double mShiftKm;
+	private final double mImprovement;
+
+	/** Total distance of the previous iteration in meters, -1 before the first one. */
+	private long mPreviousCost = -1;
+
+	/**
+	 * Instantiates the rules of a configuration.
+	 *
+	 * @param config settings of the clustering
+	 */
+	Convergence(GeoKMeansConfig config)
+	{
+		mMovedFraction = config.mConvergeMovedFraction;
+		mShiftKm = config.mConvergeShiftKm;
+		mImprovement = config.mConvergeImprovement;
+	}
+
+	/**
+	 * @return true if any rule is on
+	 */
+	boolean isEnabled()
+	{
+		return (mMovedFraction > 0) || (mShiftKm > 0) || (mImprovement > 0);
+	}
+
+	/**
+	 * Forget the total distance of the previous iteration, when the iterations start again.
+	 */
+	void reset()
+	{
+		mPreviousCost = -1;
+	}
+
+	/*************************************************************************************
+	 * Check the rules after the assignment step of an iteration.
+	 *
+	 * @param movedUsers number of users whose datapoint changed cluster
+	 * @param users number of users
+	 * @param shiftKm largest distance a centroid moved in the last centroid update, in Kilometers
+	 * @param cost total distance of the assignment step, in meters
+	 * @return the rule met, null if the iterations continue
+	 *************************************************************************************/
+	String check(long movedUsers, long users, double shiftKm, long cost)
+	{
+		long previous = mPreviousCost;
+		mPreviousCost = cost;
+		if ((mMovedFraction > 0) && (movedUsers <= (mMovedFraction * users)))
+		{
+			return movedUsers + " of " + users + " users changed cluster";
+		}
+		if ((mShiftKm > 0) && (shiftKm <= mShiftKm))
+		{
+			return "centroids moved at most " + new DecimalFormat("#0.000").format(shiftKm) + " Km";
+		}
+		if ((mImprovement > 0) && (previous > 0) && ((previous - cost) <= (mImprovement * previous)))
+		{
+			return "total distance improved by " + new DecimalFormat("#0.000000").format((double) (previous - cost) / previous);
+		}
+		return null;
+	}
+}
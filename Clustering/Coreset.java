@@ -0,0 +1,292 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*************************************************************************************
+ * A coreset of the datapoints: a weighted sample of them whose total distance to any
+ * centroids is close to that of all the datapoints, so that the iterations of a clustering
+ * can run on the sample only.
+ *
+ * The sample is drawn by sensitivity sampling with the Haversine distance. A rough
+ * solution is seeded by k-means++ on a regular subsample; the first parallel pass assigns
+ * every datapoint to its closest rough centroid, the second draws every datapoint
+ * independently with a probability that is half its share of the rough total distance and
+ * half its share of its rough cluster, so that far datapoints and small clusters are kept.
+ * A datapoint drawn with probability p stands for 1/p times its weight.
+ *
+ * The draw of a datapoint depends on the seed and its index only, so the sample does not
+ * depend on the number of threads.
+ *************************************************************************************/
+final class Coreset
+{
+	/** Ranges smaller than this are never split further. */
+	private static final int MIN_CHUNK = 4096;
+
+	/** The weighted sample. */
+	private final PointStore mPoints;
+
+	/** Total distance of the datapoints from the rough centroids, in Kilometers. */
+	private final double mRoughDistance;
+
+	private Coreset(PointStore points, double roughDistance)
+	{
+		mPoints = points;
+		mRoughDistance = roughDistance;
+	}
+
+	/*************************************************************************************
+	 * Draw a coreset of the datapoints.
+	 *
+	 * @param points the datapoints, weighted or not
+	 * @param size expected number of datapoints of the coreset
+	 * @param clusterCount number of centroids of the rough solution
+	 * @param pool pool of the parallel passes, null runs on the calling thread
+	 * @param seed seed of the random choices
+	 * @param compact true for compact columns of the coreset (see PointStore)
+	 * @return the coreset
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	static Coreset build(PointStore points, int size, int clusterCount, ForkJoinPool pool, long seed, boolean compact) throws IOException
+	{
+		int n = points.size();
+		GetGeoClusters.Cluster[] rough = roughCentroids(points, Math.min(size, n), clusterCount, pool, seed);
+
+		// First pass : closest rough centroid and rough cost of every cluster
+		PointStore labels = points.shareCoordinates(clusterCount);
+		int[] active = new int[clusterCount];
+		for (int j = 0; j < clusterCount; j++)
+		{
+			active[j] = j;
+		}
+		CentroidTable centroids = new CentroidTable(rough, active);
+		AssignmentResult assigned = new AssignmentEngine(pool, false, false).assign(labels, centroids);
+		long roughCost = 0;
+		for (int j = 0; j < clusterCount; j++)
+		{
+			roughCost += assigned.mClusterCost[j];
+		}
+		long[] clusterWeight = new long[clusterCount];
+		for (int i = 0; i < n; i++)
+		{
+			clusterWeight[labels.getNewClusterId(i)] += points.getWeight(i);
+		}
+		int nonEmpty = 0;
+		for (int j = 0; j < clusterCount; j++)
+		{
+			nonEmpty += (clusterWeight[j] > 0) ? 1 : 0;
+		}
+		// With every datapoint on a rough centroid the draw only depends on the clusters
+		double clusterPart = (roughCost > 0) ? 0.5 : 1.0;
+		double[] clusterShare = new double[clusterCount];
+		for (int j = 0; j < clusterCount; j++)
+		{
+			clusterShare[j] = (clusterWeight[j] > 0) ? clusterPart / ((double) nonEmpty * clusterWeight[j]) : 0;
+		}
+
+		// Second pass : independent draw of every datapoint
+		double distanceShare = (roughCost > 0) ? 0.5 / (roughCost / 1000.0) : 0;
+		SampleTask task = new SampleTask(labels, 0, n, chunkOf(n, pool), centroids, clusterShare, distanceShare, size, seed);
+		Sample sample;
+		if (pool == null)
+		{
+			sample = task.compute();
+		}
+		else
+		{
+			sample = (ForkJoinTask.getPool() == pool) ? task.invoke() : pool.invoke(task);
+		}
+
+		PointStore coreset = PointStore.allocate(sample.mCount, compact);
+		IntColumn.Heap weights = new IntColumn.Heap(Math.max(sample.mCount, 1));
+		for (int s = 0; s < sample.mCount; s++)
+		{
+			int dp = sample.mIndex[s];
+			coreset.set(s, points.getLatitude(dp), points.getLongitude(dp), points.getId(dp));
+			weights.set(s, sample.mWeight[s]);
+		}
+		coreset.setWeights(weights);
+		return new Coreset(coreset, roughCost / 1000.0);
+	}
+
+	/**
+	 * @return the centroids of k-means++ on every (n / size)-th datapoint, from a random offset
+	 */
+	private static GetGeoClusters.Cluster[] roughCentroids(PointStore points, int size, int clusterCount, ForkJoinPool pool, long seed)
+	{
+		int n = points.size();
+		double stride = (double) n / size;
+		double offset = Uniform(seed, -1) * stride;
+		PointStore subsample = PointStore.allocate(size, false);
+		for (int s = 0; s < size; s++)
+		{
+			int dp = Math.min(n - 1, (int) (offset + (s * stride)));
+			subsample.set(s, points.getLatitude(dp), points.getLongitude(dp), points.getId(dp));
+		}
+		Seeding seeding = new Seeding(pool, seed);
+		int[] seeds;
+		try
+		{
+			seeds = seeding.KMeansPlusPlus(subsample, clusterCount);
+		}
+		finally
+		{
+			seeding.shutdown();
+		}
+		GetGeoClusters.Cluster[] rough = new GetGeoClusters.Cluster[clusterCount];
+		for (int j = 0; j < clusterCount; j++)
+		{
+			rough[j] = new GetGeoClusters.Cluster();
+			rough[j].SetCentroid(subsample.getLatitude(seeds[j]), subsample.getLongitude(seeds[j]));
+		}
+		return rough;
+	}
+
+	private static int chunkOf(int n, ForkJoinPool pool)
+	{
+		return (pool == null) ? n : Math.max(MIN_CHUNK, n / (pool.getParallelism() * 4));
+	}
+
+	/**
+	 * @return a number in [0, 1) depending on the seed and the index only (SplitMix64)
+	 */
+	private static double Uniform(long seed, int index)
+	{
+		long z = seed + ((index + 1L) * 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @return the weighted sample
+	 */
+	PointStore getPoints()
+	{
+		return mPoints;
+	}
+
+	/**
+	 * @return total distance of the datapoints from the centroids of the rough solution, in Kilometers
+	 */
+	double getRoughDistance()
+	{
+		return mRoughDistance;
+	}
+
+	/*************************************************************************************
+	 * Datapoints drawn from a range, in index order, with their weights in the coreset.
+	 * Samples of consecutive ranges are merged when the workers join.
+	 *************************************************************************************/
+	private static final class Sample
+	{
+		int[] mIndex = new int[16];
+		int[] mWeight = new int[16];
+		int mCount;
+
+		void add(int index, int weight)
+		{
+			if (mCount == mIndex.length)
+			{
+				mIndex = Arrays.copyOf(mIndex, mCount * 2);
+				mWeight = Arrays.copyOf(mWeight, mCount * 2);
+			}
+			mIndex[mCount] = index;
+			mWeight[mCount] = weight;
+			mCount++;
+		}
+
+		Sample merge(Sample next)
+		{
+			if (mCount + next.mCount > mIndex.length)
+			{
+				mIndex = Arrays.copyOf(mIndex, mCount + next.mCount);
+				mWeight = Arrays.copyOf(mWeight, mCount + next.mCount);
+			}
+			System.arraycopy(next.mIndex, 0, mIndex, mCount, next.mCount);
+			System.arraycopy(next.mWeight, 0, mWeight, mCount, next.mCount);
+			mCount += next.mCount;
+			return this;
+		}
+	}
+
+	/*************************************************************************************
+	 * Worker drawing the datapoints of its range, splitting it in halves until it is small
+	 * enough.
+	 *************************************************************************************/
+	@SuppressWarnings("serial")
+	private static final class SampleTask extends RecursiveTask<Sample>
+	{
+		private final PointStore mPoints;
+		private final int mFrom;
+		private final int mTo;
+		private final int mChunk;
+		private final CentroidTable mCentroids;
+		private final double[] mClusterShare;
+		private final double mDistanceShare;
+		private final int mSize;
+		private final long mSeed;
+
+		SampleTask(PointStore points, int from, int to, int chunk, CentroidTable centroids, double[] clusterShare, double distanceShare, int size, long seed)
+		{
+			mPoints = points;
+			mFrom = from;
+			mTo = to;
+			mChunk = chunk;
+			mCentroids = centroids;
+			mClusterShare = clusterShare;
+			mDistanceShare = distanceShare;
+			mSize = size;
+			mSeed = seed;
+		}
+
+		@Override
+		protected Sample compute()
+		{
+			if (mTo - mFrom <= mChunk)
+			{
+				return drawRange();
+			}
+			int mid = (mFrom + mTo) >>> 1;
+			SampleTask left = new SampleTask(mPoints, mFrom, mid, mChunk, mCentroids, mClusterShare, mDistanceShare, mSize, mSeed);
+			SampleTask right = new SampleTask(mPoints, mid, mTo, mChunk, mCentroids, mClusterShare, mDistanceShare, mSize, mSeed);
+			left.fork();
+			Sample rightSample = right.compute();
+			return left.join().merge(rightSample);
+		}
+
+		private Sample drawRange()
+		{
+			Sample sample = new Sample();
+			for (int i = mFrom; i < mTo; i++)
+			{
+				int cid = mPoints.getNewClusterId(i);
+				double distance;
+				if (mPoints.hasUnitVectors())
+				{
+					distance = GeoMath.Distance(mPoints.getX(i), mPoints.getY(i), mPoints.getZ(i), mCentroids.mX[cid], mCentroids.mY[cid], mCentroids.mZ[cid]);
+				}
+				else
+				{
+					distance = GetGeoClusters.GreatCircleDistUsingHaverSine(mPoints.getLatitude(i), mPoints.getLongitude(i), mCentroids.mLat[cid], mCentroids.mLan[cid]);
+				}
+				int weight = mPoints.getWeight(i);
+				double probability = Math.min(1, mSize * weight * ((distance * mDistanceShare) + mClusterShare[cid]));
+				if (Uniform(mSeed, i) < probability)
+				{
+					sample.add(i, (int) Math.min(Integer.MAX_VALUE, Math.round(weight / probability)));
+				}
+			}
+			return sample;
+		}
+	}
+}
@@ -0,0 +1,389 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import Defination.RunLogger;
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Writes synthetic user location files for scale tests, in the UserId \t Latitude \t
+ * Longitude format of the loader and, for large sizes, as a point file (see PointFile).
+ *
+ * The users live in cities placed in rough land regions, so that oceans stay empty. City
+ * sizes follow a Zipf law and a city has a dense core and a wider suburb. Some regions
+ * cross the dateline, a few users are rural, spread over the regions, and a few are near
+ * the poles. Coordinates have 6 decimals; the text and the point file hold the same values.
+ *
+ * The rows are generated in blocks of BLOCK_SIZE, each from its own random stream derived
+ * from the seed, on a pool while earlier blocks are written in order. The files depend only
+ * on the number of rows and the seed, not on the number of threads.
+ *
+ * Usage : DatasetGenerator rows [output.txt|output.bin [seed [threads]]]
+ * Defaults to globalConstants.fin_SyntheticUserLoc, gSeed and gThreadCount. From
+ * gSyntheticBinaryRows rows the point file fin_SyntheticUserLocBinary (the text file
+ * name with .bin) is written as well; an output ending with .bin writes only the point file.
+ *************************************************************************************/
+public final class DatasetGenerator
+{
+	/** Rows generated by one task. */
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	/** Bytes reserved per line of a block; the encoder grows for longer lines. */
+	private static final int LINE_SIZE = 40;
+
+	/** Size of the write buffer of the text file. */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/** Coordinates are multiples of 1 / SCALE degrees. */
+	private static final int DECIMALS = 6;
+	private static final double SCALE = 1e6;
+
+	/** Number of cities. */
+	private static final int CITY_COUNT = 4000;
+
+	/** Fraction of the users spread over the regions instead of living in a city. */
+	private static final double RURAL = 0.08;
+
+	/** Fraction of the users at latitudes beyond 75 degrees. */
+	private static final double POLAR = 0.002;
+
+	/** Fraction of the users of a city living in its suburb. */
+	private static final double SUBURB = 0.3;
+
+	/**
+	 * Rough land regions: latitude from, to, longitude from, to (may exceed 180 to cross
+	 * the dateline) and share of the cities.
+	 */
+	private static final double[][] REGIONS = {
+			{ 25, 60, -125, -70, 0.15 }, // North America
+			{ 8, 25, -110, -80, 0.04 }, // Central America
+			{ -40, 5, -80, -35, 0.08 }, // South America
+			{ 36, 60, -10, 40, 0.15 }, // Europe
+			{ 15, 36, -10, 60, 0.06 }, // North Africa and Middle East
+			{ -35, 15, -15, 50, 0.10 }, // Africa
+			{ 5, 35, 65, 90, 0.14 }, // South Asia
+			{ 20, 45, 100, 145, 0.16 }, // East Asia
+			{ -10, 20, 95, 125, 0.06 }, // South-East Asia
+			{ -38, -12, 113, 153, 0.04 }, // Australia
+			{ -22, -12, 174, 186, 0.01 }, // Fiji and Tonga, across the dateline
+			{ 60, 68, 172, 198, 0.01 }, // Chukotka and Alaska, across the dateline
+	};
+
+	private final long mSeed;
+
+	/** Cumulative shares of the regions. */
+	private final double[] mRegionWeight = new double[REGIONS.length];
+
+	private final double[] mCityLat = new double[CITY_COUNT];
+	private final double[] mCityLan = new double[CITY_COUNT];
+	private final double[] mCitySpread = new double[CITY_COUNT];
+
+	/** Cumulative sizes of the cities. */
+	private final double[] mCityWeight = new double[CITY_COUNT];
+
+	/*************************************************************************************
+	 * Instantiates a generator and places its cities.
+	 *
+	 * @param seed seed of the dataset
+	 *************************************************************************************/
+	public DatasetGenerator(long seed)
+	{
+		mSeed = seed;
+		double total = 0;
+		for (int r = 0; r < REGIONS.length; r++)
+		{
+			total += REGIONS[r][4];
+			mRegionWeight[r] = total;
+		}
+
+		SplittableRandom random = new SplittableRandom(seed);
+		total = 0;
+		for (int c = 0; c < CITY_COUNT; c++)
+		{
+			double[] region = REGIONS[pick(mRegionWeight, random.nextDouble() * mRegionWeight[REGIONS.length - 1])];
+			mCityLat[c] = region[0] + ((region[1] - region[0]) * random.nextDouble());
+			mCityLan[c] = region[2] + ((region[3] - region[2]) * random.nextDouble());
+			// Core of 5 to 40 Km
+			mCitySpread[c] = 0.05 + (0.3 * random.nextDouble());
+			// Ranks are drawn so that big cities are anywhere
+			total += 1.0 / (1 + random.nextInt(CITY_COUNT));
+			mCityWeight[c] = total;
+		}
+	}
+
+	/*************************************************************************************
+	 * The main method.
+	 *
+	 * @param args number of rows, output file, seed and number of threads
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static void main(String args[]) throws IOException
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage : DatasetGenerator rows [output.txt|output.bin [seed [threads]]]");
+			return;
+		}
+		long rows = Long.parseLong(args[0]);
+		String output = (args.length > 1) ? args[1] : globalConstants.fin_SyntheticUserLoc;
+		long seed = (args.length > 2) ? Long.parseLong(args[2]) : globalConstants.gSeed;
+		int threads = (args.length > 3) ? Integer.parseInt(args[3]) : globalConstants.gThreadCount;
+
+		String textFile = output;
+		String pointFile = null;
+		if (output.endsWith(".bin"))
+		{
+			textFile = null;
+			pointFile = output;
+		}
+		else if (rows >= globalConstants.gSyntheticBinaryRows)
+		{
+			pointFile = output.equals(globalConstants.fin_SyntheticUserLoc) ? globalConstants.fin_SyntheticUserLocBinary : output.replaceFirst("(\\.[^./\\\\]*)?$", ".bin");
+		}
+
+		// Logs to the console only, the output and log folders of the last clustering are kept
+		RunLogger logger = new RunLogger(null, true);
+		logger.logAndPrint("DatasetGenerator started at " + new Date().toString() + " : " + rows + " rows, seed " + seed + " -> "
+				+ ((textFile == null) ? "" : textFile + " ") + ((pointFile == null) ? "" : pointFile));
+		long start = System.currentTimeMillis();
+		new DatasetGenerator(seed).generate(rows, threads, textFile, pointFile);
+		logger.logAndPrint("DatasetGenerator finished in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/*************************************************************************************
+	 * Write the rows to a text file, a point file or both.
+	 *
+	 * @param rows number of users, numbered from 1
+	 * @param threads number of threads generating the blocks
+	 * @param textFile the user location file, null to write none
+	 * @param pointFile the point file, null to write none
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public void generate(long rows, int threads, String textFile, String pointFile) throws IOException
+	{
+		if ((rows < 0) || (rows > Integer.MAX_VALUE))
+		{
+			throw new IllegalArgumentException("rows must be between 0 and " + Integer.MAX_VALUE + " : " + rows);
+		}
+		int blockCount = (int) ((rows + BLOCK_SIZE - 1) / BLOCK_SIZE);
+		ForkJoinPool pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+		int window = (pool == null) ? 1 : Math.max(1, Math.min(blockCount, threads * 2));
+		Block[] blocks = new Block[window];
+		for (int slot = 0; slot < window; slot++)
+		{
+			blocks[slot] = new Block(textFile != null);
+		}
+
+		try (OutputStream text = (textFile == null) ? null : new BufferedOutputStream(new FileOutputStream(textFile), BUFFER_SIZE);
+				PointFile.Writer points = (pointFile == null) ? null : new PointFile.Writer(pointFile, rows))
+		{
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			Future<Block>[] inFlight = new Future[window];
+			for (int b = 0; (pool != null) && (b < Math.min(window, blockCount)); b++)
+			{
+				inFlight[b] = submit(pool, blocks[b], b, rows);
+			}
+			for (int b = 0; b < blockCount; b++)
+			{
+				int slot = b % window;
+				Block block = (pool == null) ? blocks[slot].fill(b, rows) : inFlight[slot].get();
+				if (text != null)
+				{
+					text.write(block.mText.buffer(), 0, block.mText.length());
+				}
+				if (points != null)
+				{
+					for (int i = 0; i < block.mCount; i++)
+					{
+						points.add(block.mLat[i] / SCALE, block.mLan[i] / SCALE, block.mId + i);
+					}
+				}
+				if ((pool != null) && (b + window < blockCount))
+				{
+					inFlight[slot] = submit(pool, block, b + window, rows);
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while generating datapoints", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException("Generating datapoints failed", e.getCause());
+		}
+		finally
+		{
+			if (pool != null)
+			{
+				pool.shutdown();
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * Generate the rows in memory, as generate() writes them.
+	 *
+	 * @param rows number of users, numbered from 1
+	 * @return the datapoints
+	 *************************************************************************************/
+	public PointStore points(int rows)
+	{
+		PointStore store = PointStore.allocate(rows, false);
+		Block block = new Block(false);
+		for (int b = 0; (long) b * BLOCK_SIZE < rows; b++)
+		{
+			block.fill(b, rows);
+			for (int i = 0; i < block.mCount; i++)
+			{
+				store.set(block.mId - 1 + i, block.mLat[i] / SCALE, block.mLan[i] / SCALE, block.mId + i);
+			}
+		}
+		return store;
+	}
+
+	private Future<Block> submit(ForkJoinPool pool, final Block block, final int b, final long rows)
+	{
+		return pool.submit(() -> block.fill(b, rows));
+	}
+
+	/*************************************************************************************
+	 * The rows of a block and their text, reused for every block of a slot.
+	 *************************************************************************************/
+	private final class Block
+	{
+		/** Coordinates in millionths of degrees. */
+		final int[] mLat = new int[BLOCK_SIZE];
+		final int[] mLan = new int[BLOCK_SIZE];
+		final TextEncoder mText;
+		int mCount;
+
+		/** User id of the first row. */
+		int mId;
+
+		Block(boolean text)
+		{
+			mText = text ? new TextEncoder(BLOCK_SIZE * LINE_SIZE) : null;
+		}
+
+		/**
+		 * Generate block b and format its lines.
+		 */
+		Block fill(int b, long rows)
+		{
+			long first = (long) b * BLOCK_SIZE;
+			mCount = (int) Math.min(BLOCK_SIZE, rows - first);
+			mId = (int) (first + 1);
+			// A stream of its own, so that blocks do not depend on each other
+			SplittableRandom random = new SplittableRandom(new SplittableRandom(mSeed ^ b).nextLong());
+			for (int i = 0; i < mCount; i++)
+			{
+				point(random, i);
+			}
+			if (mText != null)
+			{
+				mText.reset();
+				for (int i = 0; i < mCount; i++)
+				{
+					mText.append(mId + i).append('\t').appendScaled(mLat[i], DECIMALS).append('\t').appendScaled(mLan[i], DECIMALS).append('\n');
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Generate row i.
+		 */
+		private void point(SplittableRandom random, int i)
+		{
+			double lat, lan;
+			double u = random.nextDouble();
+			if (u < POLAR)
+			{
+				// Stations and settlements of the Arctic and the Antarctic
+				lat = 75 + (15 * Math.sqrt(random.nextDouble()));
+				lat = (random.nextDouble() < 0.5) ? lat : -lat;
+				lan = -180 + (360 * random.nextDouble());
+			}
+			else if (u < POLAR + RURAL)
+			{
+				double[] region = REGIONS[pick(mRegionWeight, random.nextDouble() * mRegionWeight[REGIONS.length - 1])];
+				lat = region[0] + ((region[1] - region[0]) * random.nextDouble());
+				lan = region[2] + ((region[3] - region[2]) * random.nextDouble());
+			}
+			else
+			{
+				int c = pick(mCityWeight, random.nextDouble() * mCityWeight[CITY_COUNT - 1]);
+				double spread = mCitySpread[c] * ((random.nextDouble() < SUBURB) ? 4 : 1);
+				lat = mCityLat[c] + (spread * gaussian(random));
+				lan = mCityLan[c] + ((spread * gaussian(random)) / Math.max(0.1, Math.cos(Math.toRadians(mCityLat[c]))));
+			}
+
+			// Over a pole to the other side of the earth
+			if (lat > 90)
+			{
+				lat = 180 - lat;
+				lan += 180;
+			}
+			else if (lat < -90)
+			{
+				lat = -180 - lat;
+				lan += 180;
+			}
+			int latMicro = (int) Math.round(lat * SCALE);
+			long lanMicro = Math.round(lan * SCALE) % (long) (360 * SCALE);
+			if (lanMicro < -180 * SCALE)
+			{
+				lanMicro += 360 * SCALE;
+			}
+			else if (lanMicro >= 180 * SCALE)
+			{
+				lanMicro -= 360 * SCALE;
+			}
+			mLat[i] = latMicro;
+			mLan[i] = (int) lanMicro;
+		}
+	}
+
+	/**
+	 * @return first index whose cumulative weight reaches u
+	 */
+	private static int pick(double[] cumulative, double u)
+	{
+		int low = 0, high = cumulative.length - 1;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (cumulative[mid] < u)
+			{
+				low = mid + 1;
+			}
+			else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static double gaussian(SplittableRandom random)
+	{
+		// Box-Muller, so that the datasets do not depend on the Java version
+		double u = 1.0 - random.nextDouble();
+		return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.util.Arrays;
+
+/*************************************************************************************
+ * Hamerly style bounds for the assignment step on the sphere.
+ * Great circle distance is a metric, so the triangle inequality gives for every datapoint
+ * a lower bound on the distance to every centroid other than its own. A datapoint whose
+ * distance to its own centroid is below that bound, or below half the gap to the nearest
+ * other centroid, cannot change cluster and the other centroids are not evaluated.
+ *
+ * Bounds only decide when a full scan may be skipped; every datapoint that is scanned is
+ * scanned exactly like the brute-force path, so assignments are identical.
+ *************************************************************************************/
+final class DistanceBounds
+{
+	/** Slack in Kilometers covering the rounding error of the distance formulas. */
+	static final double EPSILON_KM = 1e-3;
+
+	/** Lower bound of the distance of every datapoint to any centroid other than its own. */
+	private double[] mLower;
+
+	/** Half of the distance of every centroid to its nearest other centroid. */
+	double[] mHalfGap;
+
+	/** Centroids used by the previous assignment step, null before the first one. */
+	private CentroidTable mPrevious;
+
+	/** Largest and second largest centroid drift since the previous step. */
+	private double mMaxDrift;
+	private double mSecondMaxDrift;
+	private int mMaxDriftCluster;
+
+	/*************************************************************************************
+	 * Prepare the bounds for an assignment step with the given centroids.
+	 * Computes how far every centroid moved since the previous step and the half gaps.
+	 *
+	 * @param pointCount number of datapoints
+	 * @param centroids centroids of this step
+	 * @param unitVectors true to measure distances with unit vectors
+	 *************************************************************************************/
+	void prepare(int pointCount, CentroidTable centroids, boolean unitVectors)
+	{
+		if ((mLower == null) || (mLower.length != pointCount) || ((mPrevious != null) && gainedClusters(centroids)))
+		{
+			// A cluster that was not part of the previous scan is not covered by the lower bounds
+			mLower = new double[pointCount];
+			Arrays.fill(mLower, Double.NEGATIVE_INFINITY);
+			mMaxDrift = 0;
+			mSecondMaxDrift = 0;
+			mMaxDriftCluster = -1;
+		}
+		else if (mPrevious != null)
+		{
+			// Drift of every centroid since the previous step; seeded bounds (see seed()) have none yet
+			mMaxDrift = 0;
+			mSecondMaxDrift = 0;
+			mMaxDriftCluster = -1;
+			for (int j : centroids.mActive)
+			{
+				double drift = CentroidDistance(mPrevious, j, centroids, j, unitVectors);
+				if (drift > mMaxDrift)
+				{
+					mSecondMaxDrift = mMaxDrift;
+					mMaxDrift = drift;
+					mMaxDriftCluster = j;
+				}
+				else if (drift > mSecondMaxDrift)
+				{
+					mSecondMaxDrift = drift;
+				}
+			}
+		}
+
+		mHalfGap = new double[centroids.size()];
+		for (int j : centroids.mActive)
+		{
+			double nearest = Double.MAX_VALUE;
+			for (int k : centroids.mActive)
+			{
+				if (k != j)
+				{
+					nearest = Math.min(nearest, CentroidDistance(centroids, j, centroids, k, unitVectors));
+				}
+			}
+			mHalfGap[j] = nearest / 2;
+		}
+		mPrevious = centroids;
+	}
+
+	/*************************************************************************************
+	 * Start from labels that are already a clustering, before the first assignment step.
+	 * Zero is a valid lower bound, so a datapoint closer to its own centroid than half the
+	 * gap to the nearest other centroid is not scanned; invalidate() the datapoints whose
+	 * label is not known to be close.
+	 *
+	 * @param pointCount number of datapoints
+	 *************************************************************************************/
+	void seed(int pointCount)
+	{
+		mLower = new double[pointCount];
+		mPrevious = null;
+		mMaxDrift = 0;
+		mSecondMaxDrift = 0;
+		mMaxDriftCluster = -1;
+	}
+
+	/**
+	 * @return true if a cluster is active now but was not active in the previous step
+	 */
+	private boolean gainedClusters(CentroidTable centroids)
+	{
+		boolean[] before = new boolean[centroids.size()];
+		for (int j : mPrevious.mActive)
+		{
+			before[j] = true;
+		}
+		for (int j : centroids.mActive)
+		{
+			if (!before[j])
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Lower bound of a datapoint, moved back by the drift of the other centroids.
+	 *
+	 * @param index index of datapoint in the point store
+	 * @param clusterId current cluster of the datapoint
+	 */
+	double lower(int index, int clusterId)
+	{
+		double drift = (clusterId == mMaxDriftCluster) ? mSecondMaxDrift : mMaxDrift;
+		return mLower[index] - drift;
+	}
+
+	void setLower(int index, double lower)
+	{
+		mLower[index] = lower;
+	}
+
+	/**
+	 * Forget the bound of a datapoint that was moved outside the assignment step.
+	 *
+	 * @param index index of datapoint in the point store
+	 */
+	void invalidate(int index)
+	{
+		if (mLower != null)
+		{
+			mLower[index] = Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	private static double CentroidDistance(CentroidTable a, int i, CentroidTable b, int j, boolean unitVectors)
+	{
+		if (unitVectors)
+		{
+			return GeoMath.Distance(a.mX[i], a.mY[i], a.mZ[i], b.mX[j], b.mY[j], b.mZ[j]);
+		}
+		return GetGeoClusters.GreatCircleDistUsingHaverSine(a.mLat[i], a.mLan[i], b.mLat[j], b.mLan[j]);
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*************************************************************************************
+ * A column of doubles of the point store, either in a heap array or in memory-mapped
+ * segments (off-heap).
+ *************************************************************************************/
+abstract class DoubleColumn
+{
+	abstract double get(int index);
+
+	abstract void set(int index, double value);
+
+	/**
+	 * @return bytes held per value
+	 */
+	abstract int width();
+
+	/**
+	 * @return number of values the column can hold; columns on the heap only
+	 */
+	int capacity()
+	{
+		throw new UnsupportedOperationException("Column is not on the heap");
+	}
+
+	/**
+	 * Change the number of values the column can hold; columns on the heap only.
+	 */
+	void resize(int capacity)
+	{
+		throw new UnsupportedOperationException("Column is not on the heap");
+	}
+
+	/**
+	 * Copy a range of values to another position; columns on the heap only.
+	 */
+	void move(int from, int to, int length)
+	{
+		throw new UnsupportedOperationException("Column is not on the heap");
+	}
+
+	/*************************************************************************************
+	 * Column held in a double[] on the heap.
+	 *************************************************************************************/
+	static final class Heap extends DoubleColumn
+	{
+		double[] mValues;
+
+		Heap(int capacity)
+		{
+			mValues = new double[capacity];
+		}
+
+		@Override
+		double get(int index)
+		{
+			return mValues[index];
+		}
+
+		@Override
+		void set(int index, double value)
+		{
+			mValues[index] = value;
+		}
+
+		@Override
+		int width()
+		{
+			return 8;
+		}
+
+		@Override
+		int capacity()
+		{
+			return mValues.length;
+		}
+
+		@Override
+		void resize(int capacity)
+		{
+			mValues = Arrays.copyOf(mValues, capacity);
+		}
+
+		@Override
+		void move(int from, int to, int length)
+		{
+			System.arraycopy(mValues, from, mValues, to, length);
+		}
+	}
+
+	/*************************************************************************************
+	 * Column of coordinates in degrees held as ints in units of 1 / SCALE degree (about
+	 * 1 cm on earth). Values of up to 7 decimals, as geotags are written, read back as the
+	 * same doubles. Holds values of magnitude up to 214 degrees.
+	 *************************************************************************************/
+	static final class Fixed extends DoubleColumn
+	{
+		static final double SCALE = 1e7;
+
+		int[] mValues;
+
+		Fixed(int capacity)
+		{
+			mValues = new int[capacity];
+		}
+
+		@Override
+		double get(int index)
+		{
+			return mValues[index] / SCALE;
+		}
+
+		@Override
+		void set(int index, double value)
+		{
+			mValues[index] = (int) Math.round(value * SCALE);
+		}
+
+		@Override
+		int width()
+		{
+			return 4;
+		}
+
+		@Override
+		int capacity()
+		{
+			return mValues.length;
+		}
+
+		@Override
+		void resize(int capacity)
+		{
+			mValues = Arrays.copyOf(mValues, capacity);
+		}
+
+		@Override
+		void move(int from, int to, int length)
+		{
+			System.arraycopy(mValues, from, mValues, to, length);
+		}
+	}
+
+	/*************************************************************************************
+	 * Column held in a float[] on the heap; values are read back as doubles, so that the
+	 * arithmetic on them stays in double.
+	 *************************************************************************************/
+	static final class Single extends DoubleColumn
+	{
+		float[] mValues;
+
+		Single(int capacity)
+		{
+			mValues = new float[capacity];
+		}
+
+		@Override
+		double get(int index)
+		{
+			return mValues[index];
+		}
+
+		@Override
+		void set(int index, double value)
+		{
+			mValues[index] = (float) value;
+		}
+
+		@Override
+		int width()
+		{
+			return 4;
+		}
+
+		@Override
+		int capacity()
+		{
+			return mValues.length;
+		}
+
+		@Override
+		void resize(int capacity)
+		{
+			mValues = Arrays.copyOf(mValues, capacity);
+		}
+
+		@Override
+		void move(int from, int to, int length)
+		{
+			System.arraycopy(mValues, from, mValues, to, length);
+		}
+	}
+
+	/*************************************************************************************
+	 * Column of little-endian doubles in memory-mapped segments of 2^SEGMENT_SHIFT values.
+	 *************************************************************************************/
+	static final class Mapped extends DoubleColumn
+	{
+		static final int SEGMENT_SHIFT = 27;
+		private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+		private final ByteBuffer[] mSegments;
+
+		Mapped(ByteBuffer[] segments)
+		{
+			mSegments = segments;
+		}
+
+		@Override
+		double get(int index)
+		{
+			return mSegments[index >>> SEGMENT_SHIFT].getDouble((index & SEGMENT_MASK) << 3);
+		}
+
+		@Override
+		void set(int index, double value)
+		{
+			mSegments[index >>> SEGMENT_SHIFT].putDouble((index & SEGMENT_MASK) << 3, value);
+		}
+
+		@Override
+		int width()
+		{
+			return 8;
+		}
+	}
+}
@@ -0,0 +1,759 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * K-Means clustering engine of geographical coordinates.
+ * An engine holds its configuration and thread pool and no global state, so several
+ * engines, or several calls of cluster() on one engine, can cluster datapoints at the same
+ * time in one process. The clustered point store is never modified: every clustering works
+ * on its own labels over the shared coordinates.
+ * The metrics of the runs of a clustering are exposed as JMX MBeans
+ * "Clustering:type=KMeansRun,job=n,run=name" while the clustering is in progress, and
+ * written as CSV and JSON timelines when it is over.
+ *
+ * <pre>
+ * GeoKMeans engine = new GeoKMeans(GeoKMeansConfig.builder().clusterCount(20).build());
+ * GeoKMeansResult result = engine.cluster(latitudes, longitudes, null);
+ * engine.shutdown();
+ * </pre>
+ *************************************************************************************/
+public class GeoKMeans
+{
+	/** Settings of the clusterings. */
+	private final GeoKMeansConfig mConfig;
+
+	/** Pool shared by the parallel steps, null when single-threaded. */
+	private final ForkJoinPool mPool;
+
+	/** Number of clusterings started in this process, to name their MBeans. */
+	private static final AtomicInteger gJobs = new AtomicInteger();
+
+	/**
+	 * Instantiates a new engine.
+	 *
+	 * @param config settings of the clusterings
+	 */
+	public GeoKMeans(GeoKMeansConfig config)
+	{
+		mConfig = config;
+		mPool = (config.mThreadCount > 1) ? new ForkJoinPool(config.mThreadCount) : null;
+	}
+
+	/**
+	 * @return settings of the clusterings
+	 */
+	public GeoKMeansConfig getConfig()
+	{
+		return mConfig;
+	}
+
+	/**
+	 * @return number of threads of the parallel steps
+	 */
+	public int getParallelism()
+	{
+		return (mPool == null) ? 1 : mPool.getParallelism();
+	}
+
+	/*************************************************************************************
+	 * Load datapoints from a point file or a text file of user locations.
+	 *
+	 * @param file the input file
+	 * @param threads number of threads parsing a text file
+	 * @param report receives the counts and the bounding box of the load
+	 * @return the datapoints
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static PointStore loadPoints(String file, int threads, UserLocationLoader.LoadReport report) throws IOException
+	{
+		return loadPoints(file, threads, report, false);
+	}
+
+	/*************************************************************************************
+	 * Load datapoints from a point file or a text file of user locations.
+	 * A point file is mapped off-heap as it is; compact applies to a text file.
+	 *
+	 * @param file the input file
+	 * @param threads number of threads parsing a text file
+	 * @param report receives the counts and the bounding box of the load
+	 * @param compact true to load a text file into compact columns (see PointStore)
+	 * @return the datapoints
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static PointStore loadPoints(String file, int threads, UserLocationLoader.LoadReport report, boolean compact) throws IOException
+	{
+		if (PointFile.isPointFile(file))
+		{
+			return PointFile.open(file, report);
+		}
+		return UserLocationLoader.load(file, threads, report, compact);
+	}
+
+	/*************************************************************************************
+	 * Load the clusters of a previous clustering from its users file, in any output format.
+	 *
+	 * @param usersFile the users file of the previous clustering
+	 * @param points the datapoints of the previous clustering
+	 * @return cluster of every datapoint found by user id, -1 for the users not in the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static int[] loadClusters(String usersFile, PointStore points) throws IOException
+	{
+		return ClusterOutputReader.ReadClusters(usersFile, points);
+	}
+
+	/*************************************************************************************
+	 * Cluster in-memory datapoints.
+	 *
+	 * @param latitude latitude of every datapoint
+	 * @param longitude longitude of every datapoint
+	 * @param ids user id of every datapoint, null to number the datapoints from 0
+	 * @return the result
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public GeoKMeansResult cluster(double[] latitude, double[] longitude, int[] ids) throws IOException
+	{
+		return cluster(PointStore.of(latitude, longitude, ids, mConfig.mCompactPoints));
+	}
+
+	/*************************************************************************************
+	 * Cluster the datapoints.
+	 * With a sweep configured the clustering at the elbow of the sweep is returned, with
+	 * restarts the run with the lowest total distance; the output and summary files set
+	 * in the configuration are written. With deduplication configured the runs cluster
+	 * weighted datapoints (see WeightedPoints) and the result and users file have the
+	 * cluster of every datapoint. With spatial order configured the runs cluster a copy of
+	 * the datapoints sorted along a space-filling curve (see SpatialOrder); the result and
+	 * users file keep the order of the datapoints. With a coreset size configured, the
+	 * iterations run on a coreset of the datapoints and all the datapoints are assigned
+	 * once at the end.
+	 *
+	 * @param points the datapoints
+	 * @return the result
+	 * @throws IllegalArgumentException if there are too few datapoints for the clusters
+	 * @throws IllegalStateException if a small cluster cannot be merged
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public GeoKMeansResult cluster(PointStore points) throws IOException
+	{
+		int clusterCount = mConfig.getMaxClusterCount();
+		if (points.size() < (clusterCount * mConfig.mMinClusterSize))
+		{
+			throw new IllegalArgumentException("The number of clusters with minimum datapoints criteria canot be met : " + points.size() + " datapoints for " + clusterCount
+					+ " clusters of at least " + mConfig.mMinClusterSize + " datapoints");
+		}
+
+		WeightedPoints weighted = null;
+		PointStore clustered = points;
+		if (mConfig.mDeduplicate)
+		{
+			long start = System.currentTimeMillis();
+			weighted = WeightedPoints.collapse(points, mConfig.mDedupResolution, mConfig.mCompactPoints);
+			mConfig.mLogger.logAndPrint("Deduplication : " + points.size() + " datapoints collapsed into " + weighted.getPoints().size() + " weighted datapoints"
+					+ ((mConfig.mDedupResolution > 0) ? " of " + mConfig.mDedupResolution + " degree cells" : "") + " in " + (System.currentTimeMillis() - start) + " ms");
+			if (weighted.getPoints().size() == points.size())
+			{
+				// Nothing collapsed, the datapoints are clustered as they are
+				weighted = null;
+			}
+			else
+			{
+				clustered = weighted.getPoints();
+			}
+			if (clustered.size() < clusterCount)
+			{
+				throw new IllegalArgumentException("The datapoints have " + clustered.size() + " distinct locations for " + clusterCount + " clusters");
+			}
+		}
+
+		if (mConfig.mSpatialOrder)
+		{
+			long start = System.currentTimeMillis();
+			WeightedPoints source = (weighted == null) ? WeightedPoints.of(points) : weighted;
+			weighted = source.reorder(SpatialOrder.HilbertOrder(clustered), mConfig.mCompactPoints);
+			clustered = weighted.getPoints();
+			mConfig.mLogger.logAndPrint("Spatial order : " + clustered.size() + " datapoints sorted along Hilbert curves of the cube faces in " + (System.currentTimeMillis() - start) + " ms");
+		}
+
+		PointStore view = clustered.shareCoordinates(clusterCount);
+		if (mConfig.mUseUnitVectors && !view.hasUnitVectors())
+		{
+			view.computeUnitVectors();
+		}
+		if (mConfig.mTileSize > 0)
+		{
+			view.computeTiles(mConfig.mTileSize);
+		}
+		if (mConfig.mUseVectorKernel)
+		{
+			mConfig.mLogger.logAndPrint("Assignment kernel : " + AssignmentEngine.VectorKernelStatus());
+		}
+		double[] bounds = boundingBox(view);
+
+		Job job = new Job();
+		try
+		{
+			KMeansRun best;
+			if ((mConfig.mCoresetSize > 0) && (view.size() > mConfig.mCoresetSize))
+			{
+				best = runCoreset(job, view, bounds);
+			}
+			else
+			{
+				best = runConfigured(job, view, bounds);
+			}
+			best.setWeightedPoints(weighted);
+			if ((mConfig.mUsersFile != null) && (mConfig.mClustersFile != null))
+			{
+				best.WriteOutput(mConfig.mUsersFile, mConfig.mClustersFile);
+			}
+			job.writeMetrics();
+			return best.result();
+		}
+		finally
+		{
+			job.close();
+		}
+	}
+
+	/*************************************************************************************
+	 * Cluster the datapoints as configured: a sweep, restarts or a single run.
+	 *
+	 * @param job the clustering
+	 * @param view the datapoints
+	 * @param bounds bounding box of the datapoints
+	 * @return the clustering at the elbow of the sweep, the best run or the single run
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	private KMeansRun runConfigured(Job job, PointStore view, double[] bounds) throws IOException
+	{
+		if (mConfig.mSweepMaxK > 0)
+		{
+			return runSweep(job, view, bounds);
+		}
+		if (mConfig.mRestarts <= 1)
+		{
+			KMeansRun run = job.newRun(view, mConfig.mClusterCount, mConfig.mSeeding, mConfig.mSeed, "");
+			run.run(bounds[0], bounds[1], bounds[2], bounds[3]);
+			return run;
+		}
+		return runRestarts(job, view, bounds);
+	}
+
+	/*************************************************************************************
+	 * Cluster a coreset of the datapoints as configured (see Coreset), then assign all the
+	 * datapoints to its centroids in one parallel assignment step. The total distance of
+	 * the datapoints is logged against the estimate of the coreset and, with
+	 * coreset comparison configured, against a run of the same seeding on all datapoints.
+	 *
+	 * @param job the clustering
+	 * @param view the datapoints
+	 * @param bounds bounding box of the datapoints
+	 * @return the assignment of all the datapoints
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	@SuppressWarnings("boxing")
+	private KMeansRun runCoreset(Job job, PointStore view, double[] bounds) throws IOException
+	{
+		long start = System.currentTimeMillis();
+		Coreset coreset = Coreset.build(view, mConfig.mCoresetSize, mConfig.getMaxClusterCount(), mPool, mConfig.mSeed, mConfig.mCompactPoints);
+		PointStore sample = coreset.getPoints().shareCoordinates(mConfig.getMaxClusterCount());
+		if (view.hasUnitVectors())
+		{
+			sample.computeUnitVectors();
+		}
+		if (mConfig.mTileSize > 0)
+		{
+			sample.computeTiles(mConfig.mTileSize);
+		}
+		NumberFormat formatter = new DecimalFormat("#0.00");
+		mConfig.mLogger.logAndPrint("Coreset : " + view.size() + " datapoints sampled into " + sample.size() + " weighted datapoints standing for " + sample.totalWeight() + " users in "
+				+ (System.currentTimeMillis() - start) + " ms, rough total distance " + formatter.format(coreset.getRoughDistance()) + " Km");
+		if (sample.size() < mConfig.getMaxClusterCount())
+		{
+			throw new IllegalArgumentException("The coreset has " + sample.size() + " datapoints for " + mConfig.getMaxClusterCount() + " clusters, use a larger coreset size");
+		}
+
+		KMeansRun fitted = runConfigured(job, sample, boundingBox(sample));
+		int clusterCount = fitted.getClusterCount();
+		KMeansRun assigned = job.newRun(view.shareCoordinates(clusterCount), clusterCount, mConfig.mSeeding, mConfig.mSeed, "[All] ");
+		assigned.assignFrom(fitted);
+		long time = System.currentTimeMillis() - start;
+		double cost = assigned.TotalDistance();
+		long users = view.totalWeight();
+		mConfig.mLogger.logAndPrint("Coreset : total distance " + formatter.format(cost) + " Km (" + formatter.format(cost / users) + " Km per user) in " + time + " ms, estimated "
+				+ formatter.format(fitted.TotalDistance()) + " Km on the coreset");
+
+		if (mConfig.mCoresetCompare)
+		{
+			start = System.currentTimeMillis();
+			KMeansRun full = job.newRun(view.shareCoordinates(clusterCount), clusterCount, mConfig.mSeeding, mConfig.mSeed, "[Full data] ");
+			full.run(bounds[0], bounds[1], bounds[2], bounds[3]);
+			double fullCost = full.TotalDistance();
+			mConfig.mLogger.logAndPrint("Full data : total distance " + formatter.format(fullCost) + " Km (" + formatter.format(fullCost / users) + " Km per user) in "
+					+ (System.currentTimeMillis() - start) + " ms, coreset cost ratio " + new DecimalFormat("#0.0000").format(cost / fullCost));
+		}
+		return assigned;
+	}
+
+	/*************************************************************************************
+	 * Cluster the datapoints of a point file or a text file of user locations without
+	 * loading them: mini-batch K-Means reads the file batch by batch (see StreamingKMeans),
+	 * so the memory used does not grow with the file. The number of clusters is that of the
+	 * configuration; restarts and sweep do not apply. The output files set in the
+	 * configuration are written, the users in the order of the file.
+	 *
+	 * @param file the input file
+	 * @param report receives the counts and the bounding box of the datapoints read
+	 * @return the result, without the cluster of every datapoint
+	 * @throws IllegalArgumentException if the first batch has fewer datapoints than clusters
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public GeoKMeansResult clusterStream(String file, UserLocationLoader.LoadReport report) throws IOException
+	{
+		if (mConfig.mUseVectorKernel)
+		{
+			mConfig.mLogger.logAndPrint("Assignment kernel : " + AssignmentEngine.VectorKernelStatus());
+		}
+		try (LocationBatchReader in = LocationBatchReader.open(file, report))
+		{
+			return new StreamingKMeans(mConfig, mPool).run(in);
+		}
+	}
+
+	/*************************************************************************************
+	 * Re-cluster a previous clustering after changes of the user locations.
+	 * The clusters of the previous clustering continue from their centroids (see
+	 * KMeansRun.resume()) with distance bounds and without active set, so the first iteration
+	 * only scans the added and moved datapoints and those near the boundaries of their clusters. The number of
+	 * clusters is that of the previous clustering; seeding, restarts and sweep do not apply.
+	 * The output files set in the configuration are written, the changes file with the
+	 * users whose cluster changed.
+	 *
+	 * @param points the datapoints of the previous clustering
+	 * @param previousClusters cluster of every datapoint in the previous clustering, -1 if unknown (see loadClusters())
+	 * @param delta changes of the user locations since the previous clustering
+	 * @return the result, over the changed datapoints: the kept ones in their order, then the added ones
+	 * @throws IllegalArgumentException if there are too few datapoints for the clusters or no previous clusters
+	 * @throws IllegalStateException if a small cluster cannot be merged
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public GeoKMeansResult recluster(PointStore points, int[] previousClusters, LocationDelta delta) throws IOException
+	{
+		int clusterCount = 0;
+		for (int i = 0; i < previousClusters.length; i++)
+		{
+			clusterCount = Math.max(clusterCount, previousClusters[i] + 1);
+		}
+		if (clusterCount == 0)
+		{
+			throw new IllegalArgumentException("No datapoint has a previous cluster");
+		}
+
+		LocationDelta.Applied applied = delta.apply(points, previousClusters, mConfig.mCompactPoints);
+		mConfig.mLogger.logAndPrint("Changes : " + applied.mAdded + " added, " + applied.mMoved + " moved, " + applied.mRemoved + " removed datapoints, " + applied.mUnknown
+				+ " removed users not found, " + applied.mUnlabelled + " datapoints without previous cluster");
+		PointStore changed = applied.mPoints;
+		if (changed.size() < (clusterCount * mConfig.mMinClusterSize))
+		{
+			throw new IllegalArgumentException("The number of clusters with minimum datapoints criteria canot be met : " + changed.size() + " datapoints for " + clusterCount
+					+ " clusters of at least " + mConfig.mMinClusterSize + " datapoints");
+		}
+
+		PointStore view = changed.shareCoordinates(clusterCount);
+		if (mConfig.mUseUnitVectors)
+		{
+			view.computeUnitVectors();
+		}
+		if (mConfig.mUseVectorKernel)
+		{
+			mConfig.mLogger.logAndPrint("Assignment kernel : " + AssignmentEngine.VectorKernelStatus());
+		}
+		GeoKMeansConfig config = mConfig;
+		if (!config.mUseDistanceBounds || (config.mActiveSetMarginKm > 0))
+		{
+			if (config.mActiveSetMarginKm > 0)
+			{
+				// The active set would replace the bounds and sweep every datapoint in the first iteration
+				mConfig.mLogger.logAndPrint("Re-clustering : active set off, the distance bounds select the datapoints to scan");
+			}
+			config = config.toBuilder().useDistanceBounds(true).activeSet(0, config.mActiveSetSweep).build();
+		}
+
+		Job job = new Job();
+		try
+		{
+			KMeansRun run = job.newRun(config, view, clusterCount, mConfig.mSeeding, mConfig.mSeed, "");
+			run.resume(applied.mPreviousCluster, applied.mStale);
+			if ((mConfig.mUsersFile != null) && (mConfig.mClustersFile != null))
+			{
+				run.WriteOutput(mConfig.mUsersFile, mConfig.mClustersFile);
+			}
+			if (mConfig.mChangesFile != null)
+			{
+				run.WriteChanges(mConfig.mChangesFile, applied);
+			}
+			job.writeMetrics();
+			return run.result();
+		}
+		finally
+		{
+			job.close();
+		}
+	}
+
+	/*************************************************************************************
+	 * Stop the threads of the engine. The engine cannot cluster afterwards.
+	 *************************************************************************************/
+	public void shutdown()
+	{
+		if (mPool != null)
+		{
+			mPool.shutdown();
+		}
+	}
+
+	/**
+	 * @return smallest latitude, smallest longitude, largest latitude and largest longitude of the datapoints
+	 */
+	private static double[] boundingBox(PointStore points)
+	{
+		double[] bounds = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+		for (int i = 0; i < points.size(); i++)
+		{
+			double lat = points.getLatitude(i);
+			double lan = points.getLongitude(i);
+			bounds[0] = Math.min(bounds[0], lat);
+			bounds[1] = Math.min(bounds[1], lan);
+			bounds[2] = Math.max(bounds[2], lat);
+			bounds[3] = Math.max(bounds[3], lan);
+		}
+		return bounds;
+	}
+
+	/*************************************************************************************
+	 * Run the configured number of independent clusterings concurrently on the pool, log and
+	 * write a summary of every run and return the run with the lowest total distance.
+	 * Uniform seeding has no random choice, so runs after the first use k-means++ then.
+	 *
+	 * @param job the clustering
+	 * @param points the datapoints
+	 * @param bounds bounding box of the datapoints
+	 * @return the best run
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	@SuppressWarnings("boxing")
+	private KMeansRun runRestarts(Job job, PointStore points, final double[] bounds) throws IOException
+	{
+		final int runCount = mConfig.mRestarts;
+		final KMeansRun[] runs = new KMeansRun[runCount];
+		final double[] cost = new double[runCount];
+		final long[] time = new long[runCount];
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int r = 0; r < runCount; r++)
+		{
+			int seeding = ((r > 0) && (mConfig.mSeeding == globalConstants.SEED_UNIFORM)) ? globalConstants.SEED_KMEANS_PP : mConfig.mSeeding;
+			runs[r] = job.newRun(points.shareCoordinates(mConfig.mClusterCount), mConfig.mClusterCount, seeding, mConfig.mSeed + r, "[Run " + r + "] ");
+			final int run = r;
+			tasks.add(() -> {
+				long start = System.currentTimeMillis();
+				runs[run].run(bounds[0], bounds[1], bounds[2], bounds[3]);
+				cost[run] = runs[run].TotalDistance();
+				time[run] = System.currentTimeMillis() - start;
+				return null;
+			});
+		}
+
+		try
+		{
+			if (mPool == null)
+			{
+				for (Callable<Void> task : tasks)
+				{
+					task.call();
+				}
+			}
+			else
+			{
+				for (Future<Void> f : mPool.invokeAll(tasks))
+				{
+					f.get();
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while clustering", e);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException("Clustering run failed", e.getCause());
+		}
+		catch (IOException | RuntimeException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Clustering run failed", e);
+		}
+
+		int best = 0;
+		for (int r = 1; r < runCount; r++)
+		{
+			if (cost[r] < cost[best])
+			{
+				best = r;
+			}
+		}
+
+		NumberFormat formatter = new DecimalFormat("#0.00");
+		BufferedWriter out_r = (mConfig.mRunsFile == null) ? null : new BufferedWriter(new FileWriter(mConfig.mRunsFile)); // Output file containing summary of runs
+		if (out_r != null)
+		{
+			out_r.write("#Run" + "\t" + "Seeding" + "\t" + "Seed" + "\t" + "Iterations" + "\t" + "Converged" + "\t" + "TotalDistance" + "\t" + "AverageDistance" + "\t" + "TimeMs" + "\n");
+		}
+		long users = points.totalWeight();
+		mConfig.mLogger.logAndPrint("\nRun\tSeeding\tSeed\tIterations\tConverged\tTotal Distance (Km)\tAverage Distance (Km)\tTime (ms)");
+		for (int r = 0; r < runCount; r++)
+		{
+			String line = r + "\t" + Seeding.Name(runs[r].getSeeding()) + "\t" + runs[r].getSeed() + "\t" + runs[r].getIterations() + "\t" + runs[r].isConverged() + "\t"
+					+ formatter.format(cost[r]) + "\t" + formatter.format(cost[r] / users) + "\t" + time[r];
+			mConfig.mLogger.logAndPrint(line);
+			if (out_r != null)
+			{
+				out_r.write(line + "\n");
+			}
+		}
+		if (out_r != null)
+		{
+			out_r.close();
+		}
+		mConfig.mLogger.logAndPrint("Best run is " + best + " with a total distance of " + formatter.format(cost[best]) + " Kilometer");
+		return runs[best];
+	}
+
+	/*************************************************************************************
+	 * Cluster the datapoints for every number of clusters of the sweep.
+	 * The first K is clustered as configured; every next K warm-starts from the clusters of
+	 * the previous K by splitting its worst cluster. The total distance against K is logged
+	 * and written, the elbow of the curve is detected and the clustering at the elbow is
+	 * returned.
+	 *
+	 * @param job the clustering
+	 * @param points the datapoints
+	 * @param bounds bounding box of the datapoints
+	 * @return the clustering at the elbow
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	@SuppressWarnings("boxing")
+	private KMeansRun runSweep(Job job, PointStore points, double[] bounds) throws IOException
+	{
+		int minK = Math.max(1, Math.min(mConfig.mSweepMinK, mConfig.mSweepMaxK));
+		int maxK = mConfig.mSweepMaxK;
+		int count = maxK - minK + 1;
+		double[] cost = new double[count];
+		int[] iterations = new int[count];
+		long[] time = new long[count];
+		double[][] centroidLat = new double[count][];
+		double[][] centroidLan = new double[count][];
+
+		KMeansRun sweep = job.newRun(points, minK, mConfig.mSeeding, mConfig.mSeed, "[K=" + minK + "] ");
+		for (int k = minK; k <= maxK; k++)
+		{
+			long start = System.currentTimeMillis();
+			if (k == minK)
+			{
+				sweep.run(bounds[0], bounds[1], bounds[2], bounds[3]);
+			}
+			else
+			{
+				sweep.setLogPrefix("[K=" + k + "] ");
+				sweep.AddCluster();
+			}
+			int s = k - minK;
+			time[s] = System.currentTimeMillis() - start;
+			cost[s] = sweep.TotalDistance();
+			iterations[s] = sweep.getIterations();
+			centroidLat[s] = new double[k];
+			centroidLan[s] = new double[k];
+			for (int i = 0; i < k; i++)
+			{
+				centroidLat[s][i] = sweep.getCentroidLatitude(i);
+				centroidLan[s][i] = sweep.getCentroidLongitude(i);
+			}
+		}
+
+		int elbow = FindElbow(cost);
+		NumberFormat formatter = new DecimalFormat("#0.00");
+		BufferedWriter out_s = (mConfig.mSweepFile == null) ? null : new BufferedWriter(new FileWriter(mConfig.mSweepFile)); // Output file containing total distance against K
+		if (out_s != null)
+		{
+			out_s.write("#K" + "\t" + "TotalDistance" + "\t" + "AverageDistance" + "\t" + "Iterations" + "\t" + "TimeMs" + "\n");
+		}
+		long users = points.totalWeight();
+		mConfig.mLogger.logAndPrint("\nK\tTotal Distance (Km)\tAverage Distance (Km)\tIterations\tTime (ms)");
+		for (int s = 0; s < count; s++)
+		{
+			String line = (minK + s) + "\t" + formatter.format(cost[s]) + "\t" + formatter.format(cost[s] / users) + "\t" + iterations[s] + "\t" + time[s];
+			mConfig.mLogger.logAndPrint(line);
+			if (out_s != null)
+			{
+				out_s.write(line + "\n");
+			}
+		}
+		if (out_s != null)
+		{
+			out_s.write("\n\nElbow at K = " + (minK + elbow));
+			out_s.close();
+		}
+		mConfig.mLogger.logAndPrint("Elbow at K = " + (minK + elbow));
+
+		// Labels of the sweep belong to the last K, cluster again from the centroids of the elbow
+		KMeansRun best = job.newRun(points.shareCoordinates(minK + elbow), minK + elbow, mConfig.mSeeding, mConfig.mSeed, "[K=" + (minK + elbow) + "] ");
+		best.runFrom(centroidLat[elbow], centroidLan[elbow]);
+		return best;
+	}
+
+	/*************************************************************************************
+	 * The runs of one call of cluster(): registers their metrics as MBeans while the
+	 * clustering is in progress and writes their timelines at the end.
+	 *************************************************************************************/
+	private final class Job
+	{
+		private final int mJob = gJobs.incrementAndGet();
+		private final List<RunMetrics> mMetrics = new ArrayList<>();
+		private final List<ObjectName> mNames = new ArrayList<>();
+
+		/**
+		 * Instantiates a run of this clustering and registers its metrics.
+		 */
+		KMeansRun newRun(PointStore points, int clusterCount, int seeding, long seed, String logPrefix)
+		{
+			return newRun(mConfig, points, clusterCount, seeding, seed, logPrefix);
+		}
+
+		/**
+		 * Instantiates a run of this clustering with its own settings and registers its metrics.
+		 */
+		KMeansRun newRun(GeoKMeansConfig config, PointStore points, int clusterCount, int seeding, long seed, String logPrefix)
+		{
+			KMeansRun run = new KMeansRun(config, points, clusterCount, mPool, seeding, seed, logPrefix);
+			RunMetrics metrics = run.getMetrics();
+			mMetrics.add(metrics);
+			if (mConfig.mMetricsJmx)
+			{
+				try
+				{
+					ObjectName name = new ObjectName("Clustering:type=KMeansRun,job=" + mJob + ",run=" + ObjectName.quote(metrics.getRun()));
+					ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+					mNames.add(name);
+				}
+				catch (JMException e)
+				{
+					mConfig.mLogger.log(globalConstants.LL_ERROR, "GeoKMeans : metrics of " + metrics.getRun() + " not registered : " + e);
+				}
+			}
+			return run;
+		}
+
+		/**
+		 * Write the timelines of the runs to the metrics files of the configuration.
+		 */
+		void writeMetrics() throws IOException
+		{
+			if (mConfig.mMetricsCsvFile != null)
+			{
+				RunMetrics.WriteCsv(mMetrics, mConfig.mMetricsCsvFile);
+			}
+			if (mConfig.mMetricsJsonFile != null)
+			{
+				RunMetrics.WriteJson(mMetrics, mConfig.mMetricsJsonFile);
+			}
+		}
+
+		/**
+		 * Unregister the MBeans of the runs.
+		 */
+		void close()
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			for (ObjectName name : mNames)
+			{
+				try
+				{
+					server.unregisterMBean(name);
+				}
+				catch (JMException e)
+				{
+					mConfig.mLogger.log(globalConstants.LL_ERROR, "GeoKMeans : " + name + " not unregistered : " + e);
+				}
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * Find the elbow of a decreasing cost curve: the point farthest from the straight line
+	 * joining the first and last points, after both axes are scaled to [0,1].
+	 *
+	 * @param cost cost of consecutive numbers of clusters
+	 * @return index of the elbow in cost
+	 *************************************************************************************/
+	static int FindElbow(double[] cost)
+	{
+		int n = cost.length;
+		if (n < 3)
+		{
+			return n - 1;
+		}
+		double range = cost[0] - cost[n - 1];
+		if (range <= 0)
+		{
+			return 0;
+		}
+		int elbow = 0;
+		double farthest = 0;
+		for (int s = 1; s < n - 1; s++)
+		{
+			// Distance below the chord, both axes in [0,1]
+			double x = (double) s / (n - 1);
+			double y = (cost[s] - cost[n - 1]) / range;
+			double below = (1 - x) - y;
+			if (below > farthest)
+			{
+				farthest = below;
+				elbow = s;
+			}
+		}
+		return elbow;
+	}
+}
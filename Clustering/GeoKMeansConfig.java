@@ -0,0 +1,542 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import Defination.RunLogger;
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Settings of a GeoKMeans engine. Instances are immutable and made with a Builder, whose
+ * defaults are the values of globalConstants except for the output files, which are not
+ * written unless set.
+ *************************************************************************************/
+public final class GeoKMeansConfig
+{
+	final int mClusterCount;
+	final int mIterCount;
+	final int mMinClusterSize;
+	final int mSeeding;
+	final long mSeed;
+	final int mSeedingRounds;
+	final double mSeedingOversampling;
+	final int mRestarts;
+	final int mSweepMinK;
+	final int mSweepMaxK;
+	final int mThreadCount;
+	final boolean mUseUnitVectors;
+	final boolean mUseDistanceBounds;
+	final boolean mUseCentroidIndex;
+	final boolean mUseVectorKernel;
+	final boolean mCompactPoints;
+	final boolean mDeduplicate;
+	final double mDedupResolution;
+	final boolean mSpatialOrder;
+	final int mTileSize;
+	final int mCoresetSize;
+	final boolean mCoresetCompare;
+	final int mFullUpdateInterval;
+	final double mConvergeMovedFraction;
+	final double mConvergeShiftKm;
+	final double mConvergeImprovement;
+	final double mActiveSetMarginKm;
+	final int mActiveSetSweep;
+	final int mMiniBatchSize;
+	final int mMiniBatchPasses;
+	final String mUsersFile;
+	final String mClustersFile;
+	final String mChangesFile;
+	final String mRunsFile;
+	final String mSweepFile;
+	final int mOutputFormat;
+	final String mMetricsCsvFile;
+	final String mMetricsJsonFile;
+	final boolean mMetricsJmx;
+	final RunLogger mLogger;
+
+	private GeoKMeansConfig(Builder b)
+	{
+		mClusterCount = b.mClusterCount;
+		mIterCount = b.mIterCount;
+		mMinClusterSize = b.mMinClusterSize;
+		mSeeding = b.mSeeding;
+		mSeed = b.mSeed;
+		mSeedingRounds = b.mSeedingRounds;
+		mSeedingOversampling = b.mSeedingOversampling;
+		mRestarts = b.mRestarts;
+		mSweepMinK = b.mSweepMinK;
+		mSweepMaxK = b.mSweepMaxK;
+		mThreadCount = b.mThreadCount;
+		// The vector kernel works on unit vectors
+		mUseUnitVectors = b.mUseUnitVectors || b.mUseVectorKernel;
+		mUseDistanceBounds = b.mUseDistanceBounds;
+		mUseCentroidIndex = b.mUseCentroidIndex;
+		mUseVectorKernel = b.mUseVectorKernel;
+		mCompactPoints = b.mCompactPoints;
+		mDeduplicate = b.mDeduplicate;
+		mDedupResolution = b.mDedupResolution;
+		mSpatialOrder = b.mSpatialOrder;
+		mTileSize = b.mTileSize;
+		mCoresetSize = b.mCoresetSize;
+		mCoresetCompare = b.mCoresetCompare;
+		mFullUpdateInterval = b.mFullUpdateInterval;
+		mConvergeMovedFraction = b.mConvergeMovedFraction;
+		mConvergeShiftKm = b.mConvergeShiftKm;
+		mConvergeImprovement = b.mConvergeImprovement;
+		mActiveSetMarginKm = b.mActiveSetMarginKm;
+		mActiveSetSweep = b.mActiveSetSweep;
+		mMiniBatchSize = b.mMiniBatchSize;
+		mMiniBatchPasses = b.mMiniBatchPasses;
+		mUsersFile = b.mUsersFile;
+		mClustersFile = b.mClustersFile;
+		mChangesFile = b.mChangesFile;
+		mRunsFile = b.mRunsFile;
+		mSweepFile = b.mSweepFile;
+		mOutputFormat = b.mOutputFormat;
+		mMetricsCsvFile = b.mMetricsCsvFile;
+		mMetricsJsonFile = b.mMetricsJsonFile;
+		mMetricsJmx = b.mMetricsJmx;
+		mLogger = b.mLogger;
+	}
+
+	/**
+	 * @return a builder initialized from globalConstants
+	 */
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+
+	/**
+	 * @return a builder initialized from this configuration
+	 */
+	public Builder toBuilder()
+	{
+		Builder b = new Builder();
+		b.mClusterCount = mClusterCount;
+		b.mIterCount = mIterCount;
+		b.mMinClusterSize = mMinClusterSize;
+		b.mSeeding = mSeeding;
+		b.mSeed = mSeed;
+		b.mSeedingRounds = mSeedingRounds;
+		b.mSeedingOversampling = mSeedingOversampling;
+		b.mRestarts = mRestarts;
+		b.mSweepMinK = mSweepMinK;
+		b.mSweepMaxK = mSweepMaxK;
+		b.mThreadCount = mThreadCount;
+		b.mUseUnitVectors = mUseUnitVectors;
+		b.mUseDistanceBounds = mUseDistanceBounds;
+		b.mUseCentroidIndex = mUseCentroidIndex;
+		b.mUseVectorKernel = mUseVectorKernel;
+		b.mCompactPoints = mCompactPoints;
+		b.mDeduplicate = mDeduplicate;
+		b.mDedupResolution = mDedupResolution;
+		b.mSpatialOrder = mSpatialOrder;
+		b.mTileSize = mTileSize;
+		b.mCoresetSize = mCoresetSize;
+		b.mCoresetCompare = mCoresetCompare;
+		b.mFullUpdateInterval = mFullUpdateInterval;
+		b.mConvergeMovedFraction = mConvergeMovedFraction;
+		b.mConvergeShiftKm = mConvergeShiftKm;
+		b.mConvergeImprovement = mConvergeImprovement;
+		b.mActiveSetMarginKm = mActiveSetMarginKm;
+		b.mActiveSetSweep = mActiveSetSweep;
+		b.mMiniBatchSize = mMiniBatchSize;
+		b.mMiniBatchPasses = mMiniBatchPasses;
+		b.mUsersFile = mUsersFile;
+		b.mClustersFile = mClustersFile;
+		b.mChangesFile = mChangesFile;
+		b.mRunsFile = mRunsFile;
+		b.mSweepFile = mSweepFile;
+		b.mOutputFormat = mOutputFormat;
+		b.mMetricsCsvFile = mMetricsCsvFile;
+		b.mMetricsJsonFile = mMetricsJsonFile;
+		b.mMetricsJmx = mMetricsJmx;
+		b.mLogger = mLogger;
+		return b;
+	}
+
+	/**
+	 * @return largest number of clusters a clustering with this configuration produces
+	 */
+	public int getMaxClusterCount()
+	{
+		return (mSweepMaxK > 0) ? mSweepMaxK : mClusterCount;
+	}
+
+	public int getClusterCount()
+	{
+		return mClusterCount;
+	}
+
+	public int getIterCount()
+	{
+		return mIterCount;
+	}
+
+	public int getMinClusterSize()
+	{
+		return mMinClusterSize;
+	}
+
+	public int getSeeding()
+	{
+		return mSeeding;
+	}
+
+	public long getSeed()
+	{
+		return mSeed;
+	}
+
+	public int getRestarts()
+	{
+		return mRestarts;
+	}
+
+	public int getThreadCount()
+	{
+		return mThreadCount;
+	}
+
+	public RunLogger getLogger()
+	{
+		return mLogger;
+	}
+
+	/*************************************************************************************
+	 * Builder of GeoKMeansConfig.
+	 *************************************************************************************/
+	public static final class Builder
+	{
+		private int mClusterCount = globalConstants.gClusterCount;
+		private int mIterCount = globalConstants.gIterCount;
+		private int mMinClusterSize = globalConstants.MinClusterSize;
+		private int mSeeding = globalConstants.gSeeding;
+		private long mSeed = globalConstants.gSeed;
+		private int mSeedingRounds = globalConstants.gSeedingRounds;
+		private double mSeedingOversampling = globalConstants.gSeedingOversampling;
+		private int mRestarts = globalConstants.gRestarts;
+		private int mSweepMinK = globalConstants.gSweepMinK;
+		private int mSweepMaxK = globalConstants.gSweepMaxK;
+		private int mThreadCount = globalConstants.gThreadCount;
+		private boolean mUseUnitVectors = globalConstants.gUseUnitVectors;
+		private boolean mUseDistanceBounds = globalConstants.gUseDistanceBounds;
+		private boolean mUseCentroidIndex = globalConstants.gUseCentroidIndex;
+		private boolean mUseVectorKernel = globalConstants.gUseVectorKernel;
+		private boolean mCompactPoints = globalConstants.gCompactPoints;
+		private boolean mDeduplicate = globalConstants.gDeduplicate;
+		private double mDedupResolution = globalConstants.gDedupResolution;
+		private boolean mSpatialOrder = globalConstants.gSpatialOrder;
+		private int mTileSize = globalConstants.gTileSize;
+		private int mCoresetSize = globalConstants.gCoresetSize;
+		private boolean mCoresetCompare = globalConstants.gCoresetCompare;
+		private int mFullUpdateInterval = globalConstants.gFullUpdateInterval;
+		private double mConvergeMovedFraction = globalConstants.gConvergeMovedFraction;
+		private double mConvergeShiftKm = globalConstants.gConvergeShiftKm;
+		private double mConvergeImprovement = globalConstants.gConvergeImprovement;
+		private double mActiveSetMarginKm = globalConstants.gActiveSetMarginKm;
+		private int mActiveSetSweep = globalConstants.gActiveSetSweep;
+		private int mMiniBatchSize = globalConstants.gMiniBatchSize;
+		private int mMiniBatchPasses = globalConstants.gMiniBatchPasses;
+		private String mUsersFile;
+		private String mClustersFile;
+		private String mChangesFile;
+		private String mRunsFile;
+		private String mSweepFile;
+		private int mOutputFormat = globalConstants.gOutputFormat;
+		private String mMetricsCsvFile;
+		private String mMetricsJsonFile;
+		private boolean mMetricsJmx = globalConstants.gMetricsJmx;
+		private RunLogger mLogger = RunLogger.NONE;
+
+		private Builder()
+		{
+		}
+
+		/** Number of clusters. */
+		public Builder clusterCount(int clusterCount)
+		{
+			mClusterCount = clusterCount;
+			return this;
+		}
+
+		/** Largest number of iterations of a run. */
+		public Builder iterCount(int iterCount)
+		{
+			mIterCount = iterCount;
+			return this;
+		}
+
+		/** Minimum number of datapoints in a cluster; smaller clusters are merged. */
+		public Builder minClusterSize(int minClusterSize)
+		{
+			mMinClusterSize = minClusterSize;
+			return this;
+		}
+
+		/** Seeding strategy, one of globalConstants.SEED_*. */
+		public Builder seeding(int seeding)
+		{
+			mSeeding = seeding;
+			return this;
+		}
+
+		/** Seed of the random choices of seeding. */
+		public Builder seed(long seed)
+		{
+			mSeed = seed;
+			return this;
+		}
+
+		/** k-means|| : number of oversampling rounds and candidates per round as a multiple of the number of clusters. */
+		public Builder seedingRounds(int rounds, double oversampling)
+		{
+			mSeedingRounds = rounds;
+			mSeedingOversampling = oversampling;
+			return this;
+		}
+
+		/** Number of independent runs; the run with the lowest total distance is kept. */
+		public Builder restarts(int restarts)
+		{
+			mRestarts = restarts;
+			return this;
+		}
+
+		/** Sweep the number of clusters from minK to maxK. maxK = 0 disables the sweep. */
+		public Builder sweep(int minK, int maxK)
+		{
+			mSweepMinK = minK;
+			mSweepMaxK = maxK;
+			return this;
+		}
+
+		/** Number of threads of the parallel steps. 1 = single threaded. */
+		public Builder threadCount(int threadCount)
+		{
+			mThreadCount = threadCount;
+			return this;
+		}
+
+		/** Find nearest centroids with precomputed unit vectors. */
+		public Builder useUnitVectors(boolean useUnitVectors)
+		{
+			mUseUnitVectors = useUnitVectors;
+			return this;
+		}
+
+		/** Skip centroids that cannot be closer using distance bounds. */
+		public Builder useDistanceBounds(boolean useDistanceBounds)
+		{
+			mUseDistanceBounds = useDistanceBounds;
+			return this;
+		}
+
+		/** Find nearest centroids with a k-d tree over centroids. */
+		public Builder useCentroidIndex(boolean useCentroidIndex)
+		{
+			mUseCentroidIndex = useCentroidIndex;
+			return this;
+		}
+
+		/** Assign with unit vectors on the Vector API when it is available; turns on unit vectors. */
+		public Builder useVectorKernel(boolean useVectorKernel)
+		{
+			mUseVectorKernel = useVectorKernel;
+			return this;
+		}
+
+		/** Keep the datapoints in compact columns (see PointStore). */
+		public Builder compactPoints(boolean compactPoints)
+		{
+			mCompactPoints = compactPoints;
+			return this;
+		}
+
+		/**
+		 * Collapse the users at identical coordinates, or in one grid cell, into weighted
+		 * datapoints before clustering (see WeightedPoints). Each weighted datapoint counts
+		 * for all of its users, and the users file still lists every user.
+		 *
+		 * @param deduplicate true to collapse the users
+		 * @param resolution size of a grid cell in degrees, 0 for identical coordinates only
+		 */
+		public Builder deduplicate(boolean deduplicate, double resolution)
+		{
+			mDeduplicate = deduplicate;
+			mDedupResolution = resolution;
+			return this;
+		}
+
+		/**
+		 * Sort the datapoints along Hilbert curves on the faces of a cube before clustering
+		 * (see SpatialOrder), so that neighbours in the store are neighbours on the ground.
+		 * The datapoints are still dealt to the initial clusters in input order, and the
+		 * users file keeps the input order. Tiles of consecutive datapoints share candidate
+		 * centroids in the assignment step instead of scanning all centroids (see
+		 * PointTiles); they pay off once the datapoints are sorted.
+		 *
+		 * @param spatialOrder true to sort the datapoints
+		 * @param tileSize datapoints per tile, 0 for no tiles
+		 */
+		public Builder spatialOrder(boolean spatialOrder, int tileSize)
+		{
+			mSpatialOrder = spatialOrder;
+			mTileSize = tileSize;
+			return this;
+		}
+
+		/** Iterate on a coreset of about size weighted datapoints, 0 for all datapoints (see Coreset); compare to also cluster all datapoints. */
+		public Builder coreset(int size, boolean compare)
+		{
+			mCoresetSize = size;
+			mCoresetCompare = compare;
+			return this;
+		}
+
+		/** Recompute the cluster sums from all datapoints every n centroid updates. */
+		public Builder fullUpdateInterval(int fullUpdateInterval)
+		{
+			mFullUpdateInterval = fullUpdateInterval;
+			return this;
+		}
+
+		/** Stop when at most movedFraction of the users changed cluster, no centroid moved more than shiftKm or the total distance improved by at most improvement; 0 turns a rule off (see Convergence). */
+		public Builder convergence(double movedFraction, double shiftKm, double improvement)
+		{
+			mConvergeMovedFraction = movedFraction;
+			mConvergeShiftKm = shiftKm;
+			mConvergeImprovement = improvement;
+			return this;
+		}
+
+		/**
+		 * Between full sweeps, rescan only the datapoints whose second closest centroid was
+		 * within marginKm of the closest, or whose gap the moves of the centroids may have
+		 * closed since (see ActiveSet). A sweep also runs before a run accepts convergence.
+		 * The active set replaces the distance bounds, the centroid index, the tiles and the
+		 * vector kernel, and is off when re-clustering (see GeoKMeans.recluster()).
+		 *
+		 * @param marginKm gap in Kilometers below which a datapoint is rescanned, 0 for no active set
+		 * @param sweepInterval number of assignment steps between two full sweeps
+		 */
+		public Builder activeSet(double marginKm, int sweepInterval)
+		{
+			mActiveSetMarginKm = marginKm;
+			mActiveSetSweep = sweepInterval;
+			return this;
+		}
+
+		/** Streaming : datapoints per batch and passes over the input updating the centroids. */
+		public Builder miniBatch(int batchSize, int passes)
+		{
+			mMiniBatchSize = batchSize;
+			mMiniBatchPasses = passes;
+			return this;
+		}
+
+		/** Output files of users and clusters, null to write none. */
+		public Builder outputFiles(String usersFile, String clustersFile)
+		{
+			mUsersFile = usersFile;
+			mClustersFile = clustersFile;
+			return this;
+		}
+
+		/** Output file of the users whose cluster changed in a re-clustering, null to write none. */
+		public Builder changesFile(String changesFile)
+		{
+			mChangesFile = changesFile;
+			return this;
+		}
+
+		/** Format of the users file, one of globalConstants.OUTPUT_*. */
+		public Builder outputFormat(int outputFormat)
+		{
+			mOutputFormat = outputFormat;
+			return this;
+		}
+
+		/** Summary files of restarts and of the sweep, null to write none. */
+		public Builder summaryFiles(String runsFile, String sweepFile)
+		{
+			mRunsFile = runsFile;
+			mSweepFile = sweepFile;
+			return this;
+		}
+
+		/** Timeline files of the metrics of every iteration as CSV and JSON, null to write none. */
+		public Builder metricsFiles(String csvFile, String jsonFile)
+		{
+			mMetricsCsvFile = csvFile;
+			mMetricsJsonFile = jsonFile;
+			return this;
+		}
+
+		/** Expose the metrics of the runs in progress as JMX MBeans. */
+		public Builder metricsJmx(boolean metricsJmx)
+		{
+			mMetricsJmx = metricsJmx;
+			return this;
+		}
+
+		/** Logger of the engine, RunLogger.NONE to log nothing. */
+		public Builder logger(RunLogger logger)
+		{
+			mLogger = (logger == null) ? RunLogger.NONE : logger;
+			return this;
+		}
+
+		/**
+		 * @return the configuration
+		 * @throws IllegalArgumentException if a setting is out of range
+		 */
+		public GeoKMeansConfig build()
+		{
+			if (mClusterCount < 1)
+			{
+				throw new IllegalArgumentException("clusterCount must be at least 1 : " + mClusterCount);
+			}
+			if ((mIterCount < 0) || (mMinClusterSize < 0) || (mRestarts < 1) || (mThreadCount < 1) || (mFullUpdateInterval < 1))
+			{
+				throw new IllegalArgumentException("iterCount, minClusterSize must be >= 0 and restarts, threadCount, fullUpdateInterval >= 1");
+			}
+			if (!(mDedupResolution >= 0))
+			{
+				throw new IllegalArgumentException("dedupResolution must be >= 0 : " + mDedupResolution);
+			}
+			if (!(mConvergeMovedFraction >= 0) || !(mConvergeShiftKm >= 0) || !(mConvergeImprovement >= 0))
+			{
+				throw new IllegalArgumentException("convergence rules must be >= 0 : " + mConvergeMovedFraction + ", " + mConvergeShiftKm + ", " + mConvergeImprovement);
+			}
+			if (!(mActiveSetMarginKm >= 0) || (mActiveSetSweep < 1))
+			{
+				throw new IllegalArgumentException("activeSet margin must be >= 0 and sweep interval >= 1 : " + mActiveSetMarginKm + ", " + mActiveSetSweep);
+			}
+			if (mTileSize < 0)
+			{
+				throw new IllegalArgumentException("tileSize must be >= 0 : " + mTileSize);
+			}
+			if (mCoresetSize < 0)
+			{
+				throw new IllegalArgumentException("coresetSize must be >= 0 : " + mCoresetSize);
+			}
+			if ((mMiniBatchSize < 1) || (mMiniBatchPasses < 1))
+			{
+				throw new IllegalArgumentException("miniBatch size and passes must be at least 1 : " + mMiniBatchSize + ", " + mMiniBatchPasses);
+			}
+			if ((mSeeding != globalConstants.SEED_UNIFORM) && (mSeeding != globalConstants.SEED_KMEANS_PP) && (mSeeding != globalConstants.SEED_KMEANS_PARALLEL))
+			{
+				throw new IllegalArgumentException("Unknown seeding strategy " + mSeeding);
+			}
+			if ((mOutputFormat != globalConstants.OUTPUT_TSV) && (mOutputFormat != globalConstants.OUTPUT_TSV_GZIP) && (mOutputFormat != globalConstants.OUTPUT_BINARY))
+			{
+				throw new IllegalArgumentException("Unknown output format " + mOutputFormat);
+			}
+			return new GeoKMeansConfig(this);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+/*************************************************************************************
+ * Result of a clustering by GeoKMeans: the centroid and the replica (datapoint nearest to
+ * the centroid) of every cluster, the cluster of every datapoint and the total distance
+ * of the datapoints from the replicas of their clusters. A streamed clustering does not
+ * hold the cluster of every datapoint, which is in its users file.
+ *************************************************************************************/
+public final class GeoKMeansResult
+{
+	private final double[] mCentroidLat;
+	private final double[] mCentroidLan;
+	private final double[] mReplicaLat;
+	private final double[] mReplicaLan;
+	private final int[] mClusterSizes;
+	private final int[] mAssignments;
+	private final long mPointCount;
+	private final double mTotalDistance;
+	private final int mIterations;
+	private final boolean mConverged;
+
+	GeoKMeansResult(double[] centroidLat, double[] centroidLan, double[] replicaLat, double[] replicaLan, int[] clusterSizes, int[] assignments, double totalDistance, int iterations, boolean converged)
+	{
+		this(centroidLat, centroidLan, replicaLat, replicaLan, clusterSizes, assignments, assignments.length, totalDistance, iterations, converged);
+	}
+
+	/**
+	 * Instantiates the result of a clustering whose datapoints were not all held, with the
+	 * clusters of the datapoints held, if any.
+	 */
+	GeoKMeansResult(double[] centroidLat, double[] centroidLan, double[] replicaLat, double[] replicaLan, int[] clusterSizes, int[] assignments, long pointCount, double totalDistance, int iterations,
+			boolean converged)
+	{
+		mCentroidLat = centroidLat;
+		mCentroidLan = centroidLan;
+		mReplicaLat = replicaLat;
+		mReplicaLan = replicaLan;
+		mClusterSizes = clusterSizes;
+		mAssignments = assignments;
+		mPointCount = pointCount;
+		mTotalDistance = totalDistance;
+		mIterations = iterations;
+		mConverged = converged;
+	}
+
+	/**
+	 * @return number of clusters
+	 */
+	public int getClusterCount()
+	{
+		return mCentroidLat.length;
+	}
+
+	/**
+	 * @return latitude of the centroid of a cluster
+	 */
+	public double getCentroidLatitude(int ClusterId)
+	{
+		return mCentroidLat[ClusterId];
+	}
+
+	/**
+	 * @return longitude of the centroid of a cluster
+	 */
+	public double getCentroidLongitude(int ClusterId)
+	{
+		return mCentroidLan[ClusterId];
+	}
+
+	/**
+	 * @return latitude of the replica of a cluster, 0 for an empty cluster
+	 */
+	public double getReplicaLatitude(int ClusterId)
+	{
+		return mReplicaLat[ClusterId];
+	}
+
+	/**
+	 * @return longitude of the replica of a cluster, 0 for an empty cluster
+	 */
+	public double getReplicaLongitude(int ClusterId)
+	{
+		return mReplicaLan[ClusterId];
+	}
+
+	/**
+	 * @return number of datapoints of a cluster
+	 */
+	public int getClusterSize(int ClusterId)
+	{
+		return mClusterSizes[ClusterId];
+	}
+
+	/**
+	 * @return cluster of a datapoint, in the order of the clustered point store
+	 */
+	public int getAssignment(int index)
+	{
+		return mAssignments[index];
+	}
+
+	/**
+	 * @return a copy of the cluster of every datapoint
+	 */
+	public int[] getAssignments()
+	{
+		return mAssignments.clone();
+	}
+
+	/**
+	 * @return number of datapoints with a cluster in getAssignments(), none for a streamed clustering
+	 */
+	public int getPointCount()
+	{
+		return mAssignments.length;
+	}
+
+	/**
+	 * @return number of clustered datapoints, also for a streamed clustering
+	 */
+	public long getClusteredCount()
+	{
+		return mPointCount;
+	}
+
+	/**
+	 * @return sum of distances of the datapoints from the replicas of their clusters, in Kilometers
+	 */
+	public double getTotalDistance()
+	{
+		return mTotalDistance;
+	}
+
+	/**
+	 * @return average distance of a datapoint from the replica of its cluster, in Kilometers
+	 */
+	public double getAverageDistance()
+	{
+		return (mPointCount == 0) ? 0 : mTotalDistance / mPointCount;
+	}
+
+	/**
+	 * @return number of iterations of the clustering
+	 */
+	public int getIterations()
+	{
+		return mIterations;
+	}
+
+	/**
+	 * @return true if the clustering converged within the largest number of iterations
+	 */
+	public boolean isConverged()
+	{
+		return mConverged;
+	}
+}
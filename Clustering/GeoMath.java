@@ -0,0 +1,63 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+/*************************************************************************************
+ * Geometry of datapoints represented as unit vectors (x,y,z) on the sphere.
+ * The closest centroid of a datapoint is the one with the largest dot product, so the
+ * nearest centroid can be found without any trigonometric call. The great circle
+ * distance is only computed when it has to be reported.
+ *************************************************************************************/
+public final class GeoMath
+{
+	private GeoMath()
+	{
+		// Prevents instantiation
+	}
+
+	/** Radius of earth in Kilometers, same as used by GreatCircleDistUsingHaverSine. */
+	public static final double EARTH_RADIUS_KM = 6372.8;
+
+	/**
+	 * @return x component of the unit vector of a location
+	 */
+	public static double unitX(double Latitude, double Longitude)
+	{
+		return Math.cos(Math.toRadians(Latitude)) * Math.cos(Math.toRadians(Longitude));
+	}
+
+	/**
+	 * @return y component of the unit vector of a location
+	 */
+	public static double unitY(double Latitude, double Longitude)
+	{
+		return Math.cos(Math.toRadians(Latitude)) * Math.sin(Math.toRadians(Longitude));
+	}
+
+	/**
+	 * @return z component of the unit vector of a location
+	 */
+	public static double unitZ(double Latitude)
+	{
+		return Math.sin(Math.toRadians(Latitude));
+	}
+
+	/*************************************************************************************
+	 * Great circle distance between two unit vectors.
+	 * The angle is derived from the chord length, which stays accurate for nearby points
+	 * where the dot product is close to 1.
+	 *
+	 * @return the geographical distance between two datapoints in Kilometers
+	 *************************************************************************************/
+	public static double Distance(double x1, double y1, double z1, double x2, double y2, double z2)
+	{
+		double dx = x1 - x2;
+		double dy = y1 - y2;
+		double dz = z1 - z2;
+		double chord = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		return 2 * Math.asin(Math.min(1, chord / 2)) * EARTH_RADIUS_KM;
+	}
+}
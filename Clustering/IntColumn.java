@@ -0,0 +1,232 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*************************************************************************************
+ * A column of ints of the point store, either in a heap array or in memory-mapped
+ * segments (off-heap).
+ *************************************************************************************/
+abstract class IntColumn
+{
+	abstract int get(int index);
+
+	abstract void set(int index, int value);
+
+	/**
+	 * @return bytes held per value
+	 */
+	abstract int width();
+
+	/**
+	 * @return number of values the column can hold; columns on the heap only
+	 */
+	int capacity()
+	{
+		throw new UnsupportedOperationException("Column is not on the heap");
+	}
+
+	/**
+	 * Change the number of values the column can hold; columns on the heap only.
+	 */
+	void resize(int capacity)
+	{
+		throw new UnsupportedOperationException("Column is not on the heap");
+	}
+
+	/**
+	 * Copy a range of values to another position; columns on the heap only.
+	 */
+	void move(int from, int to, int length)
+	{
+		throw new UnsupportedOperationException("Column is not on the heap");
+	}
+
+	/*************************************************************************************
+	 * Column held in an int[] on the heap.
+	 *************************************************************************************/
+	static final class Heap extends IntColumn
+	{
+		int[] mValues;
+
+		Heap(int capacity)
+		{
+			mValues = new int[capacity];
+		}
+
+		@Override
+		int get(int index)
+		{
+			return mValues[index];
+		}
+
+		@Override
+		void set(int index, int value)
+		{
+			mValues[index] = value;
+		}
+
+		@Override
+		int width()
+		{
+			return 4;
+		}
+
+		@Override
+		int capacity()
+		{
+			return mValues.length;
+		}
+
+		@Override
+		void resize(int capacity)
+		{
+			mValues = Arrays.copyOf(mValues, capacity);
+		}
+
+		@Override
+		void move(int from, int to, int length)
+		{
+			System.arraycopy(mValues, from, mValues, to, length);
+		}
+	}
+
+	/*************************************************************************************
+	 * Column of values from Short.MIN_VALUE to Short.MAX_VALUE held in a short[], for
+	 * the cluster labels of up to 32767 clusters.
+	 *************************************************************************************/
+	static final class Heap16 extends IntColumn
+	{
+		short[] mValues;
+
+		Heap16(int capacity)
+		{
+			mValues = new short[capacity];
+		}
+
+		@Override
+		int get(int index)
+		{
+			return mValues[index];
+		}
+
+		@Override
+		void set(int index, int value)
+		{
+			mValues[index] = (short) value;
+		}
+
+		@Override
+		int width()
+		{
+			return 2;
+		}
+
+		@Override
+		int capacity()
+		{
+			return mValues.length;
+		}
+
+		@Override
+		void resize(int capacity)
+		{
+			mValues = Arrays.copyOf(mValues, capacity);
+		}
+
+		@Override
+		void move(int from, int to, int length)
+		{
+			System.arraycopy(mValues, from, mValues, to, length);
+		}
+	}
+
+	/*************************************************************************************
+	 * Column of values from Byte.MIN_VALUE to Byte.MAX_VALUE held in a byte[], for the
+	 * cluster labels of up to 127 clusters.
+	 *************************************************************************************/
+	static final class Heap8 extends IntColumn
+	{
+		byte[] mValues;
+
+		Heap8(int capacity)
+		{
+			mValues = new byte[capacity];
+		}
+
+		@Override
+		int get(int index)
+		{
+			return mValues[index];
+		}
+
+		@Override
+		void set(int index, int value)
+		{
+			mValues[index] = (byte) value;
+		}
+
+		@Override
+		int width()
+		{
+			return 1;
+		}
+
+		@Override
+		int capacity()
+		{
+			return mValues.length;
+		}
+
+		@Override
+		void resize(int capacity)
+		{
+			mValues = Arrays.copyOf(mValues, capacity);
+		}
+
+		@Override
+		void move(int from, int to, int length)
+		{
+			System.arraycopy(mValues, from, mValues, to, length);
+		}
+	}
+
+	/*************************************************************************************
+	 * Column of little-endian ints in memory-mapped segments of 2^SEGMENT_SHIFT values.
+	 *************************************************************************************/
+	static final class Mapped extends IntColumn
+	{
+		static final int SEGMENT_SHIFT = 28;
+		private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+		private final ByteBuffer[] mSegments;
+
+		Mapped(ByteBuffer[] segments)
+		{
+			mSegments = segments;
+		}
+
+		@Override
+		int get(int index)
+		{
+			return mSegments[index >>> SEGMENT_SHIFT].getInt((index & SEGMENT_MASK) << 2);
+		}
+
+		@Override
+		void set(int index, int value)
+		{
+			mSegments[index >>> SEGMENT_SHIFT].putInt((index & SEGMENT_MASK) << 2, value);
+		}
+
+		@Override
+		int width()
+		{
+			return 4;
+		}
+	}
+}
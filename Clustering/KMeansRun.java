@@ -0,0 +1,1313 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * One K-Means clustering of the datapoints, run by GeoKMeans.
+ * A run owns its clusters, the cluster labels of the datapoints and its assignment engine,
+ * so several runs can cluster the same loaded datapoints at the same time.
+ *************************************************************************************/
+final class KMeansRun
+{
+	/** Settings of the clustering. */
+	private final GeoKMeansConfig mConfig;
+
+	/** Number of clusters. */
+	private int mClusterCount;
+
+	/** Array of clusters. */
+	private GetGeoClusters.Cluster[] mClustersArray;
+
+	/** Geo coordinates of all users and the cluster labels of this run. */
+	private final PointStore mPoints;
+
+	/** Pool shared by the parallel steps, null when single-threaded. */
+	private final ForkJoinPool mPool;
+
+	/** Runs the assignment step on the pool. */
+	private final AssignmentEngine mAssignmentEngine;
+
+	/** Seeding strategy of globalConstants and seed of its random choices. */
+	private final int mSeeding;
+	private final long mSeed;
+
+	/** Prepended to the log lines of the run, empty for a single run. */
+	private String mLogPrefix;
+
+	/** Number of calls of UpdateCentroids(), to schedule full recomputations of the cluster sums. */
+	private int mCentroidUpdates = 0;
+
+	/** Time of the steps, distance evaluations, moves, merges, splits and cost of every iteration. */
+	private final RunMetrics mMetrics;
+
+	/** Users collapsed into the weighted datapoints of the run, null if every datapoint is a user. */
+	private WeightedPoints mWeighted;
+
+	/** Number of iterations run, and whether the run converged within the largest number of iterations. */
+	private int mIterations;
+	private boolean mConverged;
+
+	/** Stopping rules of the iterations besides no datapoint changing cluster. */
+	private final Convergence mConvergence;
+
+	/** Largest distance in Kilometers a centroid moved in the last centroid update. */
+	private double mLastShift = Double.POSITIVE_INFINITY;
+
+	/** Total distance in meters of the last assignment step, and whether it only scanned an active set. */
+	private long mLastCost;
+	private boolean mLastPartial;
+
+	/** Number of users whose datapoint changed cluster in the last UpdateClusters(). */
+	private long mMovedUsers;
+
+	/**
+	 * Instantiates a new run.
+	 *
+	 * @param config settings of the clustering
+	 * @param points the datapoints, with labels owned by this run (see PointStore.shareCoordinates())
+	 * @param clusterCount number of clusters
+	 * @param pool pool shared by the parallel steps, null runs on the calling thread
+	 * @param seeding seeding strategy of globalConstants
+	 * @param seed seed of the random choices of seeding
+	 * @param logPrefix prepended to the log lines of the run
+	 */
+	KMeansRun(GeoKMeansConfig config, PointStore points, int clusterCount, ForkJoinPool pool, int seeding, long seed, String logPrefix)
+	{
+		mConfig = config;
+		mPoints = points;
+		mClusterCount = clusterCount;
+		mClustersArray = new GetGeoClusters.Cluster[clusterCount];
+		mPool = pool;
+		mSeeding = seeding;
+		mSeed = seed;
+		mLogPrefix = logPrefix;
+		mMetrics = new RunMetrics(logPrefix.isEmpty() ? "main" : logPrefix.replaceAll("[\\[\\]]", "").trim());
+		ActiveSet activeSet = (config.mActiveSetMarginKm > 0) ? new ActiveSet(config.mActiveSetMarginKm, config.mActiveSetSweep) : null;
+		mAssignmentEngine = new AssignmentEngine(pool, config.mUseDistanceBounds, config.mUseCentroidIndex, config.mUseVectorKernel, activeSet);
+		mConvergence = new Convergence(config);
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			mClustersArray[i] = new GetGeoClusters.Cluster();
+		}
+	}
+
+	/*************************************************************************************
+	 * Cluster the datapoints.
+	 * The datapoints are dealt to the clusters uniformly and the centroids are placed along
+	 * the diagonal of the bounding box, or chosen by the seeding strategy.
+	 *
+	 * @param Min_Lat smallest latitude of datapoints
+	 * @param Min_Lan smallest longitude of datapoints
+	 * @param Max_Lat largest latitude of datapoints
+	 * @param Max_Lan largest longitude of datapoints
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	void run(double Min_Lat, double Min_Lan, double Max_Lat, double Max_Lan) throws IOException
+	{
+		initialize(Min_Lat, Min_Lan, Max_Lat, Max_Lan);
+		startAnalysis();
+	}
+
+	/*************************************************************************************
+	 * Cluster the datapoints starting from given centroids.
+	 *
+	 * @param Latitudes latitude of the initial centroid of every cluster
+	 * @param Longitudes longitude of the initial centroid of every cluster
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	void runFrom(double[] Latitudes, double[] Longitudes) throws IOException
+	{
+		start(Latitudes, Longitudes);
+		startAnalysis();
+	}
+
+	/*************************************************************************************
+	 * Deal the datapoints to the clusters and place the centroids, without iterating.
+	 *
+	 * @param Latitudes latitude of the initial centroid of every cluster
+	 * @param Longitudes longitude of the initial centroid of every cluster
+	 *************************************************************************************/
+	void start(double[] Latitudes, double[] Longitudes)
+	{
+		log("KMeansRun.initialize()");
+		dealDataPoints();
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			mClustersArray[i].SetCentroid(Latitudes[i], Longitudes[i]);
+		}
+	}
+
+	/*************************************************************************************
+	 * Assign the datapoints to the closest centroid of a run fitted on other datapoints (a
+	 * coreset of them) in one assignment step, without iterating: the centroids, iterations
+	 * and convergence are those of the fitted run, and clusters below MinClusterSize are
+	 * not merged.
+	 *
+	 * @param fitted the run whose centroids are used, with as many clusters as this run
+	 *************************************************************************************/
+	void assignFrom(KMeansRun fitted)
+	{
+		double[] Latitudes = new double[mClusterCount];
+		double[] Longitudes = new double[mClusterCount];
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			Latitudes[i] = fitted.getCentroidLatitude(i);
+			Longitudes[i] = fitted.getCentroidLongitude(i);
+		}
+		start(Latitudes, Longitudes);
+
+		mMetrics.beginIteration(0, mClusterCount);
+		long start = mMetrics.beginPhase(RunMetrics.PHASE_ASSIGNMENT);
+		findBestClusters();
+		mMetrics.endPhase(RunMetrics.PHASE_ASSIGNMENT, start);
+		start = mMetrics.beginPhase(RunMetrics.PHASE_UPDATE_CLUSTERS);
+		UpdateClusters();
+		mMetrics.endPhase(RunMetrics.PHASE_UPDATE_CLUSTERS, start);
+		mMetrics.endIteration();
+		mIterations = fitted.getIterations();
+		mConverged = fitted.isConverged();
+		log(mMetrics.summary());
+	}
+
+	/*************************************************************************************
+	 * Continue a previous clustering of changed datapoints.
+	 * The datapoints keep their previous clusters, whose centroids are the means of their
+	 * datapoints as when the previous clustering ended. Datapoints without a previous
+	 * cluster join the closest centroid first. With distance bounds only the stale
+	 * datapoints and those near the boundaries of their clusters are scanned by the first
+	 * assignment step; the iterations then continue as in run().
+	 *
+	 * @param previousClusters previous cluster of every datapoint, -1 if it has none
+	 * @param stale true for the datapoints added, moved or without a previous cluster
+	 * @throws IllegalArgumentException if no datapoint has a previous cluster
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	void resume(int[] previousClusters, boolean[] stale) throws IOException
+	{
+		log("KMeansRun.resume()");
+		int n = mPoints.size();
+		for (int i = 0; i < n; i++)
+		{
+			int CId = previousClusters[i];
+			if ((CId >= 0) && (CId < mClusterCount))
+			{
+				mPoints.setClusterId(i, CId);
+				mPoints.setNewClusterId(i, CId);
+				mClustersArray[CId].mCount += mPoints.getWeight(i);
+				mClustersArray[CId].AddToSums(mPoints.getLatitude(i), mPoints.getLongitude(i), mPoints.getWeight(i));
+			}
+		}
+		int activeCount = 0;
+		int[] activeClusters = new int[mClusterCount];
+		for (int j = 0; j < mClusterCount; j++)
+		{
+			GetGeoClusters.Cluster c = mClustersArray[j];
+			if (c.mCount != 0)
+			{
+				c.SetCentroid(c.mSumLat / c.mCount, Math.toDegrees(Math.atan2(c.mSumSin, c.mSumCos)));
+				activeClusters[activeCount++] = j;
+			}
+		}
+		if (activeCount == 0)
+		{
+			throw new IllegalArgumentException("No datapoint has a previous cluster");
+		}
+
+		int joined = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int CId = previousClusters[i];
+			if ((CId >= 0) && (CId < mClusterCount))
+			{
+				continue;
+			}
+			int best = activeClusters[0];
+			double BestCloseness = Closeness(i, best);
+			for (int a = 1; a < activeCount; a++)
+			{
+				double NewCloseness = Closeness(i, activeClusters[a]);
+				if (NewCloseness > BestCloseness)
+				{
+					BestCloseness = NewCloseness;
+					best = activeClusters[a];
+				}
+			}
+			mPoints.setClusterId(i, best);
+			mPoints.setNewClusterId(i, best);
+			mClustersArray[best].mCount += mPoints.getWeight(i);
+			mClustersArray[best].AddToSums(mPoints.getLatitude(i), mPoints.getLongitude(i), mPoints.getWeight(i));
+			joined++;
+		}
+		UpdateCentroids();
+
+		int staleCount = 0;
+		if (mAssignmentEngine.seedBounds(n))
+		{
+			for (int i = 0; i < n; i++)
+			{
+				if (stale[i])
+				{
+					mAssignmentEngine.invalidateBound(i);
+					staleCount++;
+				}
+			}
+		}
+		log("KMeansRun.resume() " + n + " datapoints, " + staleCount + " stale, " + joined + " joined their closest cluster");
+
+		if (HasSmallCluster())
+		{
+			// Clusters emptied by the changes are merged or refilled before the iterations
+			RecomputeClusterCosts();
+			UpdateEmptyCluster();
+			UpdateCentroids();
+		}
+		startAnalysis();
+	}
+
+	/*************************************************************************************
+	 * Warm start with one more cluster.
+	 * The worst cluster is split into two, the centroids are updated and the iterations
+	 * continue from the current clustering.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	void AddCluster() throws IOException
+	{
+		if (!mConverged)
+		{
+			// The last centroid update made the costs stale
+			RecomputeClusterCosts();
+		}
+		int newClusterId = mClusterCount;
+		mClustersArray = Arrays.copyOf(mClustersArray, mClusterCount + 1);
+		mClustersArray[newClusterId] = new GetGeoClusters.Cluster();
+		mClusterCount++;
+
+		int WorstCid = FindWorstCluster();
+		log("Adding Cluster " + newClusterId + ": Dividing Worst Cluster " + WorstCid);
+		SplitWorstCluster(WorstCid, newClusterId);
+		mMetrics.split();
+		UpdateCentroids();
+		startAnalysis();
+	}
+
+	/*************************************************************************************
+	 * Initialize all the datapoints to the clusters uniformly
+	 * Calculate the centroid based on initial assignment
+	 *************************************************************************************/
+	private void initialize(double Min_Lat, double Min_Lan, double Max_Lat, double Max_Lan)
+	{
+		log("KMeansRun.initialize()");
+		dealDataPoints();
+
+		// Find uniformly the initial position of all the Centroids. Optimization step
+		double iLat = 0, iLan = 0;
+		for (int n = 1; n <= mClusterCount; n++)
+		{
+			iLat = (((Max_Lat - Min_Lat) / (mClusterCount + 1)) * n) + Min_Lat;
+			iLan = (((Max_Lan - Min_Lan) / (mClusterCount + 1)) * n) + Min_Lan;
+			mClustersArray[n - 1].SetCentroid(iLat, iLan);
+		}
+		log("\nKMeansRun.setInitialCentroids() completed");
+
+		if (mSeeding == globalConstants.SEED_UNIFORM)
+		{
+			UpdateCentroids();
+		}
+		else
+		{
+			// The first iteration assigns every datapoint to its closest seeded centroid
+			seedCentroids();
+		}
+	}
+
+	/*************************************************************************************
+	 * Deal the datapoints to the clusters uniformly, in their order before any reorder so
+	 * that the spatial order does not change the initial clusters.
+	 *************************************************************************************/
+	private void dealDataPoints()
+	{
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			int CId = (mPoints.getSourceIndex(i) + 1) % mClusterCount;
+			mPoints.setClusterId(i, CId);
+			mPoints.setNewClusterId(i, CId);
+			mClustersArray[CId].mCount += mPoints.getWeight(i);
+			mClustersArray[CId].AddToSums(mPoints.getLatitude(i), mPoints.getLongitude(i), mPoints.getWeight(i));
+		}
+	}
+
+	/*************************************************************************************
+	 * Choose the initial centroids among the datapoints with k-means++ or k-means||.
+	 *************************************************************************************/
+	private void seedCentroids()
+	{
+		long start = System.currentTimeMillis();
+		long seedingStart = mMetrics.begin("seeding");
+		Seeding seeding = new Seeding(mPool, mSeed);
+		int[] seeds;
+		try
+		{
+			if (mSeeding == globalConstants.SEED_KMEANS_PARALLEL)
+			{
+				seeds = seeding.KMeansParallel(mPoints, mClusterCount, mConfig.mSeedingRounds, mConfig.mSeedingOversampling);
+			}
+			else
+			{
+				seeds = seeding.KMeansPlusPlus(mPoints, mClusterCount);
+			}
+		}
+		finally
+		{
+			seeding.shutdown();
+			mMetrics.endSeeding(seedingStart);
+		}
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			mClustersArray[i].SetCentroid(mPoints.getLatitude(seeds[i]), mPoints.getLongitude(seeds[i]));
+		}
+		log("KMeansRun.seedCentroids() " + Seeding.Name(mSeeding) + " completed in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/*************************************************************************************
+	 * Start analysis.
+	 * Assign each datapoint to closest cluster
+	 * If all datapoints are intact, the algorithms is converge
+	 * If the datapoints moves to other clusters, then remove bad clusters and update the clusters centroids.
+	 * The iterations also stop when a rule of Convergence is met and no cluster is below
+	 * MinClusterSize. With an active set, convergence is only accepted after an assignment
+	 * step that scanned every datapoint.
+	 *
+	 * @throws NumberFormatException the number format exception
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	private void startAnalysis() throws NumberFormatException, IOException
+	{
+		mIterations = mConfig.mIterCount;
+		mConverged = false;
+		mConvergence.reset();
+		long users = mConvergence.isEnabled() ? mPoints.totalWeight() : 0;
+		for (int i = 0; i < mConfig.mIterCount; i++)
+		{
+			if (isLogging(globalConstants.LL_DEBUG))
+			{
+				log(globalConstants.LL_DEBUG, "\nIteration = " + i);
+			}
+
+			mMetrics.beginIteration(i, mClusterCount);
+			long start = mMetrics.beginPhase(RunMetrics.PHASE_ASSIGNMENT);
+			findBestClusters();
+			mMetrics.endPhase(RunMetrics.PHASE_ASSIGNMENT, start);
+
+			start = mMetrics.beginPhase(RunMetrics.PHASE_UPDATE_CLUSTERS);
+			boolean changed = UpdateClusters();
+			mMetrics.endPhase(RunMetrics.PHASE_UPDATE_CLUSTERS, start);
+			if (mLastPartial)
+			{
+				if (changed == false)
+				{
+					// The datapoints left out of the active set are checked before the run converges
+					mAssignmentEngine.requestSweep();
+					mMetrics.endIteration();
+					continue;
+				}
+			}
+			else if (changed == false)
+			{
+				mMetrics.endIteration();
+				log("Algorithm conerged in " + i + " iterations");
+				mIterations = i;
+				mConverged = true;
+				break;
+			}
+			else if (mConvergence.isEnabled())
+			{
+				String rule = mConvergence.check(mMovedUsers, users, mLastShift, mLastCost);
+				if ((rule != null) && !HasSmallCluster())
+				{
+					mMetrics.endIteration();
+					log("Algorithm stopped in " + i + " iterations : " + rule);
+					mIterations = i;
+					mConverged = true;
+					break;
+				}
+			}
+
+			start = mMetrics.beginPhase(RunMetrics.PHASE_UPDATE_EMPTY_CLUSTER);
+			UpdateEmptyCluster();
+			mMetrics.endPhase(RunMetrics.PHASE_UPDATE_EMPTY_CLUSTER, start);
+
+			start = mMetrics.beginPhase(RunMetrics.PHASE_UPDATE_CENTROIDS);
+			UpdateCentroids();
+			mMetrics.endPhase(RunMetrics.PHASE_UPDATE_CENTROIDS, start);
+			mMetrics.endIteration();
+		}
+		if (!mConverged)
+		{
+			log("Seeding " + Seeding.Name(mSeeding) + " : not converged in " + mConfig.mIterCount + " iterations");
+		}
+		else
+		{
+			log("Seeding " + Seeding.Name(mSeeding) + " : converged in " + mIterations + " iterations");
+		}
+		log(mMetrics.summary());
+	}
+
+	/*************************************************************************************
+	 * For each datapoint, find which cluster is closest.
+	 *************************************************************************************/
+	void findBestClusters()
+	{
+		// Empty clusters are skipped, decide it once per iteration instead of per datapoint
+		int activeCount = 0;
+		int[] activeClusters = new int[mClusterCount];
+		for (int j = 0; j < mClusterCount; j++)
+		{
+			if (GetClusterElementCount(j) != 0)
+			{
+				activeClusters[activeCount++] = j;
+			}
+		}
+		CentroidTable centroids = new CentroidTable(mClustersArray, Arrays.copyOf(activeClusters, activeCount));
+
+		AssignmentResult result = mAssignmentEngine.assign(mPoints, centroids);
+		long TotalDistanceofAllDps = result.mTotalDistance;
+		long cost = 0;
+		for (int j = 0; j < mClusterCount; j++)
+		{
+			// Valid once UpdateClusters() has applied the new cluster ids
+			mClustersArray[j].mCost = result.mClusterCost[j];
+			cost += result.mClusterCost[j];
+		}
+		mLastCost = cost;
+		mLastPartial = result.mPartial;
+		mMetrics.assigned(cost, result.mDistanceEvaluations, result.mBruteForceEvaluations);
+		if (isLogging(globalConstants.LL_DEBUG))
+		{
+			log(globalConstants.LL_DEBUG, "GetGeoClusters.findBestClusters() " + ((1.0 * TotalDistanceofAllDps) / mPoints.totalWeight()));
+			if (mConfig.mUseDistanceBounds)
+			{
+				log(globalConstants.LL_DEBUG, "Distance bounds saved " + (result.mBruteForceEvaluations - result.mDistanceEvaluations) + " of " + result.mBruteForceEvaluations
+						+ " distance evaluations");
+			}
+		}
+
+	}
+
+	/*************************************************************************************
+	 * Update clusters.	
+	 * If any datapoint is closest to differnt cluster than remove it from current cluster and assign to the closest cluster.
+	 *  
+	 * @return true, if successful
+	 * if all datapoints are assigned to the best cluster already, then return false
+	 *************************************************************************************/
+	boolean UpdateClusters()
+	{
+		long moved = 0;
+		long movedUsers = 0;
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			int currentClusterId = mPoints.getClusterId(i);
+			int newClusterId = mPoints.getNewClusterId(i);
+			if (currentClusterId != newClusterId)
+			{
+				moved++;
+				movedUsers += mPoints.getWeight(i);
+				MoveDataPoint(i, currentClusterId, newClusterId);
+			}
+		}
+		mMovedUsers = movedUsers;
+		mMetrics.moved(moved);
+		boolean changed = (moved > 0);
+		log(globalConstants.LL_DEBUG, "GetGeoClusters.UpdateClusters()");
+		return changed;
+	}
+
+	/*************************************************************************************
+	 * Update clusters which contains very few datapoints or have become empty
+	 *
+	 * @throws NumberFormatException the number format exception
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	private void UpdateEmptyCluster() throws NumberFormatException, IOException
+	{
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			// When a cluster contains very few elements, then each elements of this cluster is merged to the cluster which is closest to it.
+			if (GetClusterElementCount(i) < mConfig.mMinClusterSize)
+			{
+				log("Merging Cluster " + i + " which has " + GetClusterElementCount(i) + " elements");
+				MergeCluster(i);
+				mMetrics.merged();
+			}
+
+			// When a cluster becomes empty, then the biggest cluster is split into two sub-parts and half of its elements are
+			// assigned to an empty cluster
+			if (GetClusterElementCount(i) == 0)
+			{
+				int WorstCid = FindWorstCluster();
+				log("Empty Cluster Found " + i + ": Dividing Worst Cluster " + WorstCid);
+				SplitWorstCluster(WorstCid, i);
+				mMetrics.split();
+			}
+		}
+	}
+
+	/**
+	 * @return true if a cluster has fewer than MinClusterSize users
+	 */
+	private boolean HasSmallCluster()
+	{
+		for (int j = 0; j < mClusterCount; j++)
+		{
+			if (GetClusterElementCount(j) < mConfig.mMinClusterSize)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*************************************************************************************
+	 * Merge cluster.
+	 *
+	 * @param IdClusterTobeMerged the id cluster to be merged
+	 *************************************************************************************/
+	private void MergeCluster(int IdClusterTobeMerged)
+	{
+		if (mConfig.mUseCentroidIndex)
+		{
+			MergeClusterUsingIndex(IdClusterTobeMerged);
+			return;
+		}
+
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			if (mPoints.getClusterId(i) != IdClusterTobeMerged)
+			{
+				continue;
+			}
+
+			double BestCloseness = Double.NEGATIVE_INFINITY;
+			double NewCloseness = 0.0;
+			int NewClusterId = -1;
+
+			// Assign Element to that cluster which has least distance from the Datapoint
+			for (int j = 0; j < mClusterCount; j++)
+			{
+				if (GetClusterElementCount(j) < mConfig.mMinClusterSize) // Ignore empty cluster or the cluster that has few datapoints
+				{
+					continue;
+				}
+
+				if (j == IdClusterTobeMerged) // Ignore Cluster to which the Datapoint was earlier associated
+				{
+					continue;
+				}
+
+				NewCloseness = Closeness(i, j);
+				if (NewCloseness > BestCloseness)
+				{
+					BestCloseness = NewCloseness;
+					NewClusterId = j;
+				}
+			}
+
+			if (NewClusterId == -1)
+			{
+				log(globalConstants.LL_ERROR, "Error : Canot merge clusters with given inputs. Suggestion : Decrease UserThreshold.");
+				throw new IllegalStateException("Canot merge cluster " + IdClusterTobeMerged + " : no cluster has " + mConfig.mMinClusterSize + " datapoints");
+			}
+			TransferCost(i, IdClusterTobeMerged, NewClusterId);
+			MoveDataPoint(i, IdClusterTobeMerged, NewClusterId);
+			mAssignmentEngine.invalidateBound(i);
+		}
+	}
+
+	/*************************************************************************************
+	 * Merge cluster, finding the nearest cluster of each datapoint with a k-d tree.
+	 * Only clusters that already have MinClusterSize datapoints can receive datapoints, and
+	 * merging never changes which clusters those are, so the tree is built once.
+	 *
+	 * @param IdClusterTobeMerged the id cluster to be merged
+	 *************************************************************************************/
+	private void MergeClusterUsingIndex(int IdClusterTobeMerged)
+	{
+		int eligibleCount = 0;
+		int[] eligible = new int[mClusterCount];
+		for (int j = 0; j < mClusterCount; j++)
+		{
+			if ((GetClusterElementCount(j) >= mConfig.mMinClusterSize) && (j != IdClusterTobeMerged))
+			{
+				eligible[eligibleCount++] = j;
+			}
+		}
+		CentroidTable centroids = new CentroidTable(mClustersArray, Arrays.copyOf(eligible, eligibleCount));
+		CentroidIndex index = new CentroidIndex(centroids, centroids.mActive);
+		CentroidIndex.Search search = new CentroidIndex.Search();
+
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			if (mPoints.getClusterId(i) != IdClusterTobeMerged)
+			{
+				continue;
+			}
+			index.nearestCentroid(mPoints, i, search);
+			if (search.mBest == -1)
+			{
+				log(globalConstants.LL_ERROR, "Error : Canot merge clusters with given inputs. Suggestion : Decrease UserThreshold.");
+				throw new IllegalStateException("Canot merge cluster " + IdClusterTobeMerged + " : no cluster has " + mConfig.mMinClusterSize + " datapoints");
+			}
+			TransferCost(i, IdClusterTobeMerged, search.mBest);
+			MoveDataPoint(i, IdClusterTobeMerged, search.mBest);
+			mAssignmentEngine.invalidateBound(i);
+		}
+	}
+
+	/*************************************************************************************
+	 * Find cluster whose datapoints are farthest from its centroid. 
+	 *
+	 * @return index of worst cluster
+	 * @throws NumberFormatException the number format exception
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	int FindWorstCluster() throws NumberFormatException, IOException
+	{
+		int lWorstClusterIndex = 0;
+		double lWorstCumDistance = 0;
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			double thisClusterDist = GetClusterTotalDistance(i);
+			if (lWorstCumDistance < thisClusterDist)
+			{
+				lWorstClusterIndex = i;
+				lWorstCumDistance = thisClusterDist;
+			}
+		}
+		return lWorstClusterIndex;
+	}
+
+	/*************************************************************************************
+	 * Split worst cluster.
+	 *
+	 * @param bigCid the big cid
+	 * @param emptyClusterId the empty cluster id
+	 *************************************************************************************/
+	void SplitWorstCluster(int bigCid, int emptyClusterId)
+	{
+		double lLat_Min = Double.MAX_VALUE;
+		double lLat_Max = Double.MIN_VALUE;
+
+		double lLan_Min = Double.MAX_VALUE;
+		double lLan_Max = Double.MIN_VALUE;
+
+		// Divide along Longitude
+
+		double SumSin = 0.0;
+		double SumCos = 0.0;
+		double Sum_X = 0.0;
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			if (mPoints.getClusterId(i) != bigCid)
+			{
+				continue;
+			}
+			double lat = mPoints.getLatitude(i);
+			double lan = mPoints.getLongitude(i);
+			int weight = mPoints.getWeight(i);
+			if (lat < lLat_Min)
+			{
+				lLat_Min = lat;
+			}
+			if (lat > lLat_Max)
+			{
+				lLat_Max = lat;
+			}
+			Sum_X += lat * weight;
+
+			// Longitude
+			if (lan < lLan_Min)
+			{
+				lLan_Min = lan;
+			}
+			if (lan > lLan_Max)
+			{
+				lLan_Max = lan;
+			}
+			SumSin += Math.sin(Math.toRadians(lan)) * weight;
+			SumCos += Math.cos(Math.toRadians(lan)) * weight;
+		}
+
+		boolean Split_X = false;
+		if (GetGeoClusters.GreatCircleDistUsingHaverSine(lLat_Min, 0, lLat_Max, 0) > GetGeoClusters.GreatCircleDistUsingHaverSine(0, lLan_Min, 0, lLan_Max)) // Longer along Latitude
+		{
+			Split_X = true;
+		}
+		if (isLogging(globalConstants.LL_DEBUG))
+		{
+			log(globalConstants.LL_DEBUG, lLat_Min + "\t" + lLat_Max + "\t, \t" + lLan_Min + "\t" + lLan_Max + "\t" + "Split_X=" + Split_X);
+		}
+
+		double AvgAngle_X = Sum_X / GetClusterElementCount(bigCid);
+
+		double ComputedAngle_Y = Math.toDegrees(Math.atan2(SumSin, SumCos));
+		double MinAngle_Y = 0.0;
+		double MaxAngle_Y = 0.0;
+		if (ComputedAngle_Y < 0)
+		{
+			MinAngle_Y = (ComputedAngle_Y + 180) % 360;
+			MaxAngle_Y = (ComputedAngle_Y + 360) % 360;
+		}
+		else
+		{
+			MinAngle_Y = (ComputedAngle_Y + 360) % 360;
+			MaxAngle_Y = (ComputedAngle_Y + 180) % 360;
+		}
+		if (isLogging(globalConstants.LL_DEBUG))
+		{
+			log(globalConstants.LL_DEBUG, "AvgAngle_X=" + AvgAngle_X + "\t MinAngle_Y=" + MinAngle_Y + "X MaxAngle_Y=" + MaxAngle_Y);
+		}
+
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			if (mPoints.getClusterId(i) != bigCid)
+			{
+				continue;
+			}
+			double insideAngle = (mPoints.getLongitude(i) + 360) % 360;
+			if (!Split_X)
+			{
+				// longitude
+				if ((MinAngle_Y < insideAngle) && (insideAngle <= MaxAngle_Y))
+				{
+					TransferCost(i, bigCid, emptyClusterId);
+					MoveDataPoint(i, bigCid, emptyClusterId);
+					mAssignmentEngine.invalidateBound(i);
+				}
+			}
+			else if (Split_X)
+			{
+				if (mPoints.getLatitude(i) < AvgAngle_X)
+				{
+					TransferCost(i, bigCid, emptyClusterId);
+					MoveDataPoint(i, bigCid, emptyClusterId);
+					mAssignmentEngine.invalidateBound(i);
+				}
+			}
+		}
+		if (isLogging(globalConstants.LL_DEBUG))
+		{
+			log(globalConstants.LL_DEBUG, "Worst has now " + GetClusterElementCount(bigCid) + " and Empty has " + GetClusterElementCount(emptyClusterId) + " elements");
+		}
+
+	}
+
+	/*************************************************************************************
+	 * Update centroid of a cluster
+	 * When assignment of datapoints in clusters is changed, the centroids are recalculated
+	 * from the running sums of the clusters, which are kept up to date as datapoints move.
+	 * Every gFullUpdateInterval updates the sums are recomputed from all datapoints so that
+	 * rounding errors of the incremental updates do not build up. The largest distance a
+	 * centroid moved is kept for the convergence rules.
+	 *************************************************************************************/
+	void UpdateCentroids()
+	{
+		mCentroidUpdates++;
+		if ((mCentroidUpdates % mConfig.mFullUpdateInterval) == 0)
+		{
+			RecomputeClusterSums();
+		}
+		double shift = 0;
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			GetGeoClusters.Cluster c = mClustersArray[i];
+			double x = c.mUx;
+			double y = c.mUy;
+			double z = c.mUz;
+			c.SetCentroid(c.mSumLat / GetClusterElementCount(i), Math.toDegrees(Math.atan2(c.mSumSin, c.mSumCos)));
+			if (GetClusterElementCount(i) != 0)
+			{
+				shift = Math.max(shift, GeoMath.Distance(x, y, z, c.mUx, c.mUy, c.mUz));
+			}
+		}
+		mLastShift = shift;
+		if (isLogging(globalConstants.LL_DEBUG))
+		{
+			log(globalConstants.LL_DEBUG, "GetGeoClusters.UpdateCentroids() completed");
+			WriteClusersInformation();
+		}
+	}
+
+	/*************************************************************************************
+	 * Recompute the running sums of all clusters in one pass over the store.
+	 *************************************************************************************/
+	private void RecomputeClusterSums()
+	{
+		double[] tempX = new double[mClusterCount];
+		double[] SumSin = new double[mClusterCount];
+		double[] SumCos = new double[mClusterCount];
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			int cid = mPoints.getClusterId(i);
+			int weight = mPoints.getWeight(i);
+			double lan = Math.toRadians(mPoints.getLongitude(i));
+			tempX[cid] += mPoints.getLatitude(i) * weight;
+			SumSin[cid] += Math.sin(lan) * weight;
+			SumCos[cid] += Math.cos(lan) * weight;
+		}
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			mClustersArray[i].mSumLat = tempX[i];
+			mClustersArray[i].mSumSin = SumSin[i];
+			mClustersArray[i].mSumCos = SumCos[i];
+		}
+	}
+
+	/*************************************************************************************
+	 * Recompute the cost of all clusters from the current centroids.
+	 *************************************************************************************/
+	private void RecomputeClusterCosts()
+	{
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			mClustersArray[i].mCost = 0;
+		}
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			int cid = mPoints.getClusterId(i);
+			mClustersArray[cid].mCost += mPoints.getWeight(i) * AssignmentResult.Meters(DistanceFromCentroid(i, cid));
+		}
+	}
+
+	/*************************************************************************************
+	 * Write cluster information in files
+	 * Write cluster assignment of users in a file
+	 * Computer total and average distance of users from centroid of clusters
+	 *
+	 * @param usersFile output file containing id of cluster which user belongs to
+	 * @param clustersFile output file containing location of clusters
+	 * @throws NumberFormatException the number format exception
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	@SuppressWarnings("boxing")
+	void WriteOutput(String usersFile, String clustersFile) throws NumberFormatException, IOException
+	{
+		//WriteClusersInformation();
+		long outputStart = mMetrics.begin("output");
+
+		//Format double values
+		NumberFormat formatter = new DecimalFormat("#0.00");
+
+		double[] nearestLat = new double[mClusterCount];
+		double[] nearestLan = new double[mClusterCount];
+		findReplicas(nearestLat, nearestLan);
+
+		// Users are written cluster by cluster
+		PointStore users = (mWeighted == null) ? mPoints : mWeighted.expand(mPoints, mClusterCount);
+		int[] clusterStart = new int[mClusterCount + 1];
+		int[] order = users.orderByCluster(mClusterCount, clusterStart);
+		double TotalDistance = new ClusterOutputWriter(mPool, mConfig.mOutputFormat).write(users, order, nearestLat, nearestLan, usersFile);
+		int UsersCount = order.length;
+
+		log("\nTotal Datapoints = " + UsersCount);
+		log("Total Distance of datapoints= " + formatter.format(TotalDistance) + " Kilometer");
+		log("Average Distance of a datapoint= " + formatter.format(TotalDistance / UsersCount) + " Kilometer");
+
+		// Output file containing clusters information
+		ClusterOutputWriter.WriteClusters(clustersFile, nearestLat, nearestLan, TotalDistance, UsersCount);
+		mMetrics.endOutput(outputStart);
+		log("KMeansRun.WriteOutput() completed in " + Math.round(mMetrics.getOutputMs()) + " ms");
+	}
+
+	/*************************************************************************************
+	 * Write the users whose cluster changed since the previous clustering: users added or
+	 * now in another cluster with their cluster, removed users with cluster -1. An added
+	 * user has the previous cluster -1.
+	 *
+	 * @param changesFile output file containing the changed users
+	 * @param applied the changes of the datapoints and their previous clusters
+	 * @return number of changed users
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	long WriteChanges(String changesFile, LocationDelta.Applied applied) throws IOException
+	{
+		long changed = 0;
+		TextEncoder encoder = new TextEncoder(1 << 16);
+		try (OutputStream os = new BufferedOutputStream(new FileOutputStream(changesFile), 1 << 20))
+		{
+			encoder.append("#UserId" + "\t" + "Latitude" + "\t" + "Longitude" + "\t" + "PreviousCluster" + "\t" + "NearestCluster" + "\n");
+			for (int i = 0; i < mPoints.size(); i++)
+			{
+				int previous = applied.mPreviousCluster[i];
+				int current = mPoints.getClusterId(i);
+				if (previous != current)
+				{
+					encoder.append(mPoints.getId(i)).append('\t').appendFixed2(mPoints.getLatitude(i)).append('\t').appendFixed2(mPoints.getLongitude(i)).append('\t')
+							.append(previous).append('\t').append(current).append('\n');
+					changed++;
+				}
+				if (encoder.length() >= (1 << 16))
+				{
+					os.write(encoder.buffer(), 0, encoder.length());
+					encoder.reset();
+				}
+			}
+			PointStore base = applied.mBase;
+			for (int r = 0; r < applied.mRemovedPoints.length; r++)
+			{
+				int dp = applied.mRemovedPoints[r];
+				encoder.append(base.getId(dp)).append('\t').appendFixed2(base.getLatitude(dp)).append('\t').appendFixed2(base.getLongitude(dp)).append('\t')
+						.append(applied.mRemovedClusters[r]).append('\t').append(-1).append('\n');
+				changed++;
+				if (encoder.length() >= (1 << 16))
+				{
+					os.write(encoder.buffer(), 0, encoder.length());
+					encoder.reset();
+				}
+			}
+			os.write(encoder.buffer(), 0, encoder.length());
+		}
+		log("KMeansRun.WriteChanges() " + changed + " changed users");
+		return changed;
+	}
+
+	//
+	/*************************************************************************************
+	 *  It may happen the centroid of the cluster lies in the sea, therefore choose that point which lie on the land. We choose the nearest datapoint from the centroid as the new centroid
+	 *  Return the datapoint which is closest to the centroid of every cluster
+	 *
+	 * @return index of closest datapoint in the point store of every cluster, -1 if the cluster is empty
+	 *************************************************************************************/
+	private int[] findNearestDatPoints()
+	{
+		//Find closest datapoint to the centroid of every cluster in one pass over the datapoints
+		double[] loopCloseness = new double[mClusterCount];
+		int[] ret_Dp = new int[mClusterCount];
+		Arrays.fill(loopCloseness, Double.NEGATIVE_INFINITY);
+		Arrays.fill(ret_Dp, -1);
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			int clusterid = mPoints.getClusterId(i);
+			double Closeness = Closeness(i, clusterid);
+			if (loopCloseness[clusterid] < Closeness)
+			{
+				loopCloseness[clusterid] = Closeness;
+				ret_Dp[clusterid] = i;
+			}
+		}
+		return ret_Dp;
+	}
+
+	/*************************************************************************************
+	 * Find sum of distance of all datapoints from the centroid of a cluster
+	 * The sum is set by the assignment step and kept up to date when datapoints are merged
+	 * or split, so it is valid until the centroids are updated.
+	 *
+	 * @param ClusterId the cluster id
+	 * @return the total distance in Kilometers
+	 *************************************************************************************/
+	private double GetClusterTotalDistance(int ClusterId)
+	{
+		return mClustersArray[ClusterId].mCost / 1000.0;
+	}
+
+	/*************************************************************************************
+	 * Distance of a datapoint from the centroid of a cluster.
+	 *
+	 * @param index : index of datapoint in the point store
+	 * @param ClusterId : the cluster id
+	 * @return the geographical distance in Kilometers
+	 *************************************************************************************/
+	private double DistanceFromCentroid(int index, int ClusterId)
+	{
+		GetGeoClusters.Cluster c = mClustersArray[ClusterId];
+		if (mPoints.hasUnitVectors())
+		{
+			return GeoMath.Distance(mPoints.getX(index), mPoints.getY(index), mPoints.getZ(index), c.mUx, c.mUy, c.mUz);
+		}
+		return GetGeoClusters.GreatCircleDistUsingHaverSine(mPoints.getLatitude(index), mPoints.getLongitude(index), c.mCx, c.mCy);
+	}
+
+	/*************************************************************************************
+	 * How close a datapoint is to the centroid of a cluster. Larger is closer.
+	 * With unit vectors this is the dot product, otherwise the negated Haversine distance.
+	 *
+	 * @param index : index of datapoint in the point store
+	 * @param ClusterId : the cluster id
+	 * @return closeness of datapoint and centroid, only meaningful for comparisons
+	 *************************************************************************************/
+	private double Closeness(int index, int ClusterId)
+	{
+		GetGeoClusters.Cluster c = mClustersArray[ClusterId];
+		if (mPoints.hasUnitVectors())
+		{
+			return mPoints.getX(index) * c.mUx + mPoints.getY(index) * c.mUy + mPoints.getZ(index) * c.mUz;
+		}
+		return -GetGeoClusters.GreatCircleDistUsingHaverSine(mPoints.getLatitude(index), mPoints.getLongitude(index), c.mCx, c.mCy);
+	}
+
+	/*************************************************************************************
+	 * Write clusters information to a file
+	 *************************************************************************************/
+	private void WriteClusersInformation()
+	{
+		log(globalConstants.LL_DEBUG, "");
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			int usersCount = GetClusterElementCount(i);
+			log(globalConstants.LL_DEBUG, "Cluster " + i + " has " + usersCount + " datapoints");
+		}
+	}
+
+	/*************************************************************************************
+	 * Gets number of datapoints in a cluster.
+	 *
+	 * @param index : index of cluster
+	 * @return number of datapoints in a cluster
+	 *************************************************************************************/
+	int GetClusterElementCount(int index)
+	{
+		return mClustersArray[index].mCount;
+	}
+
+	/*************************************************************************************
+	 * Move a datapoint from one cluster to another.
+	 * Only the label of the datapoint and the cluster counts are updated.
+	 *
+	 * @param index : index of datapoint in the point store
+	 * @param fromCid : cluster the datapoint currently belongs to
+	 * @param toCid : cluster the datapoint is moved to
+	 *************************************************************************************/
+	private void MoveDataPoint(int index, int fromCid, int toCid)
+	{
+		double lat = mPoints.getLatitude(index);
+		double lan = mPoints.getLongitude(index);
+		int weight = mPoints.getWeight(index);
+		mPoints.setClusterId(index, toCid);
+		mPoints.setNewClusterId(index, toCid);
+		mClustersArray[fromCid].mCount -= weight;
+		mClustersArray[fromCid].RemoveFromSums(lat, lan, weight);
+		mClustersArray[toCid].mCount += weight;
+		mClustersArray[toCid].AddToSums(lat, lan, weight);
+	}
+
+	/*************************************************************************************
+	 * Move the distance of a datapoint from the cost of one cluster to another, when the
+	 * datapoint is moved outside the assignment step.
+	 *
+	 * @param index : index of datapoint in the point store
+	 * @param fromCid : cluster the datapoint currently belongs to
+	 * @param toCid : cluster the datapoint is moved to
+	 *************************************************************************************/
+	private void TransferCost(int index, int fromCid, int toCid)
+	{
+		int weight = mPoints.getWeight(index);
+		mClustersArray[fromCid].mCost -= weight * AssignmentResult.Meters(DistanceFromCentroid(index, fromCid));
+		mClustersArray[toCid].mCost += weight * AssignmentResult.Meters(DistanceFromCentroid(index, toCid));
+	}
+
+	/*************************************************************************************
+	 * Total distance of the datapoints from the datapoint nearest to the centroid of their
+	 * cluster, i.e. the total distance reported by WriteOutput(). A weighted datapoint
+	 * counts its distance once per user, so with users collapsed into grid cells the total
+	 * is that of the cells.
+	 *
+	 * @return total distance in Kilometers
+	 *************************************************************************************/
+	double TotalDistance()
+	{
+		double[] nearestLat = new double[mClusterCount];
+		double[] nearestLan = new double[mClusterCount];
+		findReplicas(nearestLat, nearestLan);
+		double TotalDistance = 0;
+		for (int i = 0; i < mPoints.size(); i++)
+		{
+			int cid = mPoints.getClusterId(i);
+			TotalDistance += GetGeoClusters.GreatCircleDistUsingHaverSine(mPoints.getLatitude(i), mPoints.getLongitude(i), nearestLat[cid], nearestLan[cid]) * mPoints.getWeight(i);
+		}
+		return TotalDistance;
+	}
+
+	/**
+	 * Location of the datapoint nearest to the centroid of every cluster, (0,0) for an empty cluster.
+	 */
+	private void findReplicas(double[] nearestLat, double[] nearestLan)
+	{
+		int[] nearest = findNearestDatPoints();
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			int dpNearest = nearest[i];
+			nearestLat[i] = (dpNearest == -1) ? 0 : mPoints.getLatitude(dpNearest);
+			nearestLan[i] = (dpNearest == -1) ? 0 : mPoints.getLongitude(dpNearest);
+		}
+	}
+
+	/*************************************************************************************
+	 * Result of the run: centroids, replica locations, cluster of every datapoint and the
+	 * total distance.
+	 *
+	 * @return the result
+	 *************************************************************************************/
+	GeoKMeansResult result()
+	{
+		double[] centroidLat = new double[mClusterCount];
+		double[] centroidLan = new double[mClusterCount];
+		int[] sizes = new int[mClusterCount];
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			centroidLat[i] = mClustersArray[i].mCx;
+			centroidLan[i] = mClustersArray[i].mCy;
+			sizes[i] = GetClusterElementCount(i);
+		}
+		double[] nearestLat = new double[mClusterCount];
+		double[] nearestLan = new double[mClusterCount];
+		findReplicas(nearestLat, nearestLan);
+
+		// The cluster of every user, expanded from the weighted datapoints
+		PointStore users = (mWeighted == null) ? mPoints : mWeighted.getUsers();
+		int[] assignments = new int[users.size()];
+		double TotalDistance = 0;
+		for (int i = 0; i < users.size(); i++)
+		{
+			int cid = (mWeighted == null) ? mPoints.getClusterId(i) : mPoints.getClusterId(mWeighted.getRepresentative(i));
+			assignments[i] = cid;
+			TotalDistance += GetGeoClusters.GreatCircleDistUsingHaverSine(users.getLatitude(i), users.getLongitude(i), nearestLat[cid], nearestLan[cid]);
+		}
+		return new GeoKMeansResult(centroidLat, centroidLan, nearestLat, nearestLan, sizes, assignments, TotalDistance, mIterations, mConverged);
+	}
+
+	/**
+	 * Set the users collapsed into the datapoints of the run, whose clusters are expanded
+	 * back to the users by WriteOutput() and result().
+	 */
+	void setWeightedPoints(WeightedPoints weighted)
+	{
+		mWeighted = weighted;
+	}
+
+	/**
+	 * @return metrics of the run
+	 */
+	RunMetrics getMetrics()
+	{
+		return mMetrics;
+	}
+
+	/**
+	 * @return number of clusters
+	 */
+	int getClusterCount()
+	{
+		return mClusterCount;
+	}
+
+	/**
+	 * @return latitude of the centroid of a cluster
+	 */
+	double getCentroidLatitude(int ClusterId)
+	{
+		return mClustersArray[ClusterId].mCx;
+	}
+
+	/**
+	 * @return longitude of the centroid of a cluster
+	 */
+	double getCentroidLongitude(int ClusterId)
+	{
+		return mClustersArray[ClusterId].mCy;
+	}
+
+	/**
+	 * @return number of iterations run by the last call of run(), runFrom() or AddCluster()
+	 */
+	int getIterations()
+	{
+		return mIterations;
+	}
+
+	/**
+	 * @return true if the run converged within the largest number of iterations
+	 */
+	boolean isConverged()
+	{
+		return mConverged;
+	}
+
+	/**
+	 * @return seed of the random choices of seeding
+	 */
+	long getSeed()
+	{
+		return mSeed;
+	}
+
+	/**
+	 * @return seeding strategy of globalConstants
+	 */
+	int getSeeding()
+	{
+		return mSeeding;
+	}
+
+	/**
+	 * @param logPrefix prepended to the log lines of the run from now on
+	 */
+	void setLogPrefix(String logPrefix)
+	{
+		mLogPrefix = logPrefix;
+	}
+
+	/*************************************************************************************
+	 * Log a line of this run.
+	 *************************************************************************************/
+	private void log(String strLine)
+	{
+		log(globalConstants.LL_INFO, strLine);
+	}
+
+	/*************************************************************************************
+	 * Log a line of the given level of this run. Lines costly to build are guarded by
+	 * isLogging() at the caller.
+	 *************************************************************************************/
+	private void log(int level, String strLine)
+	{
+		if (!isLogging(level))
+		{
+			return;
+		}
+		if (mLogPrefix.isEmpty())
+		{
+			mConfig.mLogger.logAndPrint(level, strLine);
+		}
+		else if (strLine.startsWith("\n"))
+		{
+			mConfig.mLogger.logAndPrint(level, "\n" + mLogPrefix + strLine.substring(1));
+		}
+		else
+		{
+			mConfig.mLogger.logAndPrint(level, mLogPrefix + strLine);
+		}
+	}
+
+	/**
+	 * @return true if lines of the given level are logged
+	 */
+	private boolean isLogging(int level)
+	{
+		return mConfig.mLogger.isLogging(level);
+	}
+}
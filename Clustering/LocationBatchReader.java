@@ -0,0 +1,268 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*************************************************************************************
+ * Reads the datapoints of a user location file or of a point file batch by batch, so
+ * that a clustering can pass over an input that does not fit in memory. Only the batch and
+ * a read buffer are held; a point file is mapped and copied a batch at a time.
+ * The input can be read again from the start with rewind(). The report is filled by the
+ * first pass.
+ *************************************************************************************/
+final class LocationBatchReader implements Closeable
+{
+	/** Initial size of the read buffer of a text file; it grows for longer lines. */
+	private static final int BUFFER_SIZE = 1 << 22;
+
+	private final String mFileName;
+	private final UserLocationLoader.LoadReport mReport;
+
+	/** Datapoints of a point file, null for a text file. */
+	private final PointStore mMapped;
+
+	/** Index of the next datapoint of a point file. */
+	private int mNextPoint;
+
+	/** Text file, null for a point file. */
+	private final RandomAccessFile mFile;
+	private final FileChannel mChannel;
+
+	/** Bytes of the text file read but not yet parsed are [mLineStart, mBuffer.position()). */
+	private ByteBuffer mBuffer;
+	private int mLineStart;
+	private boolean mEndOfFile;
+
+	/** Index (0 based) of the next line of the text file. */
+	private long mLine;
+
+	/** True while the first pass fills the report. */
+	private boolean mFirstPass = true;
+
+	/** Datapoints read by the first pass. */
+	private long mLoaded;
+
+	private final LocationLineParser mParser = new LocationLineParser();
+
+	private LocationBatchReader(String fileName, UserLocationLoader.LoadReport report, PointStore mapped) throws IOException
+	{
+		mFileName = fileName;
+		mReport = report;
+		mMapped = mapped;
+		if (mapped == null)
+		{
+			mFile = new RandomAccessFile(fileName, "r");
+			mChannel = mFile.getChannel();
+			mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+		}
+		else
+		{
+			mFile = null;
+			mChannel = null;
+		}
+	}
+
+	/*************************************************************************************
+	 * Open a point file or a text file of user locations.
+	 *
+	 * @param fileName the input file
+	 * @param report receives the counts and the bounding box of the first pass
+	 * @return the reader, positioned at the first datapoint
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	static LocationBatchReader open(String fileName, UserLocationLoader.LoadReport report) throws IOException
+	{
+		if (PointFile.isPointFile(fileName))
+		{
+			return new LocationBatchReader(fileName, report, PointFile.open(fileName, report));
+		}
+		return new LocationBatchReader(fileName, report, null);
+	}
+
+	/**
+	 * @return number of datapoints read by the first pass so far
+	 */
+	long getLoaded()
+	{
+		return mLoaded;
+	}
+
+	/*************************************************************************************
+	 * Replace the datapoints of the batch with the next datapoints of the input.
+	 *
+	 * @param batch the batch, emptied first
+	 * @param max largest number of datapoints read
+	 * @return number of datapoints in the batch, 0 at the end of the input
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	int next(PointStore batch, int max) throws IOException
+	{
+		batch.truncate(0);
+		if (mMapped != null)
+		{
+			int end = (int) Math.min(mMapped.size(), (long) mNextPoint + max);
+			for (; mNextPoint < end; mNextPoint++)
+			{
+				batch.add(mMapped.getLatitude(mNextPoint), mMapped.getLongitude(mNextPoint), mMapped.getId(mNextPoint), 0);
+			}
+		}
+		else
+		{
+			while ((batch.size() < max) && nextLine(batch))
+			{
+				// Lines are parsed into the batch until it is full
+			}
+		}
+		if (mFirstPass)
+		{
+			mLoaded += batch.size();
+		}
+		return batch.size();
+	}
+
+	/**
+	 * Parse the next line of the text file into the batch.
+	 *
+	 * @return false at the end of the file
+	 */
+	private boolean nextLine(PointStore batch) throws IOException
+	{
+		int lineEnd = mLineStart;
+		while (true)
+		{
+			int filled = mBuffer.position();
+			while ((lineEnd < filled) && (mBuffer.get(lineEnd) != '\n'))
+			{
+				lineEnd++;
+			}
+			if (lineEnd < filled)
+			{
+				break;
+			}
+			if (mEndOfFile)
+			{
+				if (mLineStart == filled)
+				{
+					return false;
+				}
+				// Last line without end of line
+				break;
+			}
+			lineEnd -= fill();
+		}
+
+		int next = lineEnd + 1;
+		if ((lineEnd > mLineStart) && (mBuffer.get(lineEnd - 1) == '\r'))
+		{
+			lineEnd--;
+		}
+		int status = mParser.parse(mBuffer, mLineStart, lineEnd);
+		if (status == LocationLineParser.OK)
+		{
+			batch.add(mParser.mLat, mParser.mLan, mParser.mId, 0);
+			if (mFirstPass)
+			{
+				mReport.mMinLat = Math.min(mReport.mMinLat, mParser.mLat);
+				mReport.mMaxLat = Math.max(mReport.mMaxLat, mParser.mLat);
+				mReport.mMinLan = Math.min(mReport.mMinLan, mParser.mLan);
+				mReport.mMaxLan = Math.max(mReport.mMaxLan, mParser.mLan);
+			}
+		}
+		else if (mFirstPass)
+		{
+			if (status == LocationLineParser.MALFORMED)
+			{
+				mReport.mMalformed++;
+			}
+			else
+			{
+				mReport.mOutOfRange++;
+			}
+			if (mReport.mBadLines.size() < UserLocationLoader.MAX_REPORTED_LINES)
+			{
+				mReport.mBadLines.add(Long.valueOf(mLine + 1));
+			}
+		}
+		if (mFirstPass)
+		{
+			mReport.mRows++;
+		}
+		mLine++;
+		mLineStart = Math.min(next, mBuffer.position());
+		return true;
+	}
+
+	/**
+	 * Move the unparsed bytes to the start of the buffer, growing it when they fill it, and
+	 * read more of the file after them.
+	 *
+	 * @return number of bytes the unparsed bytes moved by
+	 */
+	private int fill() throws IOException
+	{
+		int shift = mLineStart;
+		mBuffer.flip();
+		mBuffer.position(shift);
+		if (mBuffer.remaining() == mBuffer.capacity())
+		{
+			ByteBuffer larger = ByteBuffer.allocate(mBuffer.capacity() * 2);
+			larger.put(mBuffer);
+			mBuffer = larger;
+		}
+		else
+		{
+			mBuffer.compact();
+		}
+		mLineStart = 0;
+		if (mChannel.read(mBuffer) < 0)
+		{
+			mEndOfFile = true;
+		}
+		return shift;
+	}
+
+	/*************************************************************************************
+	 * Read the input again from its first datapoint. The report keeps the counts of the
+	 * first pass.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	void rewind() throws IOException
+	{
+		mFirstPass = false;
+		mNextPoint = 0;
+		if (mChannel != null)
+		{
+			mChannel.position(0);
+			mBuffer.clear();
+			mLineStart = 0;
+			mEndOfFile = false;
+			mLine = 0;
+		}
+	}
+
+	/**
+	 * @return name of the input file
+	 */
+	String getFileName()
+	{
+		return mFileName;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (mFile != null)
+		{
+			mFile.close();
+		}
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Changes of the user locations since a clustering: users added, moved or removed.
+ *
+ * A delta file has one change per line:
+ *   A \t UserId \t Latitude \t Longitude  : the user is added
+ *   U \t UserId \t Latitude \t Longitude  : the user has moved
+ *   R \t UserId                          : the user is removed
+ * Lines starting with '#' are comments. The last line of a user decides: A and U both
+ * place every datapoint of the user at the location, adding the user when it has none,
+ * and R removes every datapoint of the user.
+ *************************************************************************************/
+public final class LocationDelta
+{
+	public static final char ADD = 'A';
+	public static final char UPDATE = 'U';
+	public static final char REMOVE = 'R';
+
+	/** Change of a removed datapoint in apply(). */
+	private static final int REMOVED = -2;
+
+	/** Changes in order. */
+	private char[] mOps = new char[16];
+	private int[] mIds = new int[16];
+	private double[] mLat = new double[16];
+	private double[] mLan = new double[16];
+	private int mSize;
+
+	/**
+	 * Add a user at a location.
+	 */
+	public void add(int uid, double latitude, double longitude)
+	{
+		append(ADD, uid, latitude, longitude);
+	}
+
+	/**
+	 * Move a user to a location.
+	 */
+	public void update(int uid, double latitude, double longitude)
+	{
+		append(UPDATE, uid, latitude, longitude);
+	}
+
+	/**
+	 * Remove a user.
+	 */
+	public void remove(int uid)
+	{
+		append(REMOVE, uid, 0, 0);
+	}
+
+	/**
+	 * @return number of changes
+	 */
+	public int size()
+	{
+		return mSize;
+	}
+
+	private void append(char op, int uid, double latitude, double longitude)
+	{
+		if (mSize == mOps.length)
+		{
+			int capacity = mSize * 2;
+			mOps = Arrays.copyOf(mOps, capacity);
+			mIds = Arrays.copyOf(mIds, capacity);
+			mLat = Arrays.copyOf(mLat, capacity);
+			mLan = Arrays.copyOf(mLan, capacity);
+		}
+		mOps[mSize] = op;
+		mIds[mSize] = uid;
+		mLat[mSize] = latitude;
+		mLan[mSize] = longitude;
+		mSize++;
+	}
+
+	/*************************************************************************************
+	 * Read a delta file.
+	 *
+	 * @param fileName the delta file
+	 * @param report receives the number of lines and the bad lines
+	 * @return the changes of the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static LocationDelta load(String fileName, UserLocationLoader.LoadReport report) throws IOException
+	{
+		LocationDelta delta = new LocationDelta();
+		try (BufferedReader in = new BufferedReader(new FileReader(fileName)))
+		{
+			String line;
+			long lineNumber = 0;
+			while ((line = in.readLine()) != null)
+			{
+				lineNumber++;
+				if (line.isEmpty() || (line.charAt(0) == '#'))
+				{
+					continue;
+				}
+				report.mRows++;
+				int status = delta.parse(line);
+				if (status != LocationLineParser.OK)
+				{
+					if (status == LocationLineParser.MALFORMED)
+					{
+						report.mMalformed++;
+					}
+					else
+					{
+						report.mOutOfRange++;
+					}
+					if (report.mBadLines.size() < UserLocationLoader.MAX_REPORTED_LINES)
+					{
+						report.mBadLines.add(Long.valueOf(lineNumber));
+					}
+				}
+			}
+		}
+		return delta;
+	}
+
+	/**
+	 * Append the change of a line of a delta file.
+	 *
+	 * @return LocationLineParser.OK, MALFORMED or OUT_OF_RANGE
+	 */
+	private int parse(String line)
+	{
+		String[] fields = line.split("\t");
+		char op = (fields[0].length() == 1) ? fields[0].charAt(0) : 0;
+		try
+		{
+			if ((op == REMOVE) && (fields.length >= 2))
+			{
+				remove(Integer.parseInt(fields[1].trim()));
+				return LocationLineParser.OK;
+			}
+			if (((op != ADD) && (op != UPDATE)) || (fields.length < 4))
+			{
+				return LocationLineParser.MALFORMED;
+			}
+			int uid = Integer.parseInt(fields[1].trim());
+			double lat = Double.parseDouble(fields[2]);
+			double lan = Double.parseDouble(fields[3]);
+			if (!(lat >= globalConstants.Earth_MinLat && lat <= globalConstants.Earth_MaxLat && lan >= globalConstants.Earth_MinLan && lan <= globalConstants.Earth_MaxLan))
+			{
+				return LocationLineParser.OUT_OF_RANGE;
+			}
+			append(op, uid, lat, lan);
+			return LocationLineParser.OK;
+		}
+		catch (NumberFormatException e)
+		{
+			return LocationLineParser.MALFORMED;
+		}
+	}
+
+	/*************************************************************************************
+	 * Apply the changes to the datapoints of a clustering.
+	 * The datapoints that are kept come first in their order, then the added users in the
+	 * order of their changes.
+	 *
+	 * @param base datapoints of the clustering
+	 * @param baseClusters cluster of every datapoint of the clustering, -1 if unknown
+	 * @param compact true for compact columns
+	 * @return the changed datapoints on the heap
+	 *************************************************************************************/
+	Applied apply(PointStore base, int[] baseClusters, boolean compact)
+	{
+		// The last change of a user decides
+		Map<Integer, Integer> last = new HashMap<>();
+		for (int d = 0; d < mSize; d++)
+		{
+			last.put(Integer.valueOf(mIds[d]), Integer.valueOf(d));
+		}
+
+		// Change of every datapoint of the clustering: -1 kept, REMOVED, else the index of its move
+		int n = base.size();
+		int[] change = new int[n];
+		Arrays.fill(change, -1);
+		int[] added = new int[last.size()];
+		Applied applied = new Applied(base);
+		UserIdIndex index = new UserIdIndex(base);
+		for (int d = 0; d < mSize; d++)
+		{
+			if (last.get(Integer.valueOf(mIds[d])).intValue() != d)
+			{
+				continue;
+			}
+			int first = index.first(mIds[d]);
+			if (first == -1)
+			{
+				if (mOps[d] == REMOVE)
+				{
+					applied.mUnknown++;
+				}
+				else
+				{
+					added[applied.mAdded++] = d;
+				}
+				continue;
+			}
+			for (int i = first; i != -1; i = index.next(i))
+			{
+				change[i] = (mOps[d] == REMOVE) ? REMOVED : d;
+				if (mOps[d] == REMOVE)
+				{
+					applied.mRemoved++;
+				}
+				else
+				{
+					applied.mMoved++;
+				}
+			}
+		}
+
+		int size = n - applied.mRemoved + applied.mAdded;
+		PointStore points = PointStore.allocate(size, compact);
+		applied.mPoints = points;
+		applied.mPreviousCluster = new int[size];
+		applied.mStale = new boolean[size];
+		applied.mRemovedPoints = new int[applied.mRemoved];
+		applied.mRemovedClusters = new int[applied.mRemoved];
+		int k = 0;
+		int r = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int d = change[i];
+			if (d == REMOVED)
+			{
+				applied.mRemovedPoints[r] = i;
+				applied.mRemovedClusters[r++] = baseClusters[i];
+				continue;
+			}
+			if (d == -1)
+			{
+				points.set(k, base.getLatitude(i), base.getLongitude(i), base.getId(i));
+			}
+			else
+			{
+				points.set(k, mLat[d], mLan[d], base.getId(i));
+			}
+			applied.mPreviousCluster[k] = baseClusters[i];
+			applied.mStale[k] = (d != -1) || (baseClusters[i] < 0);
+			if (baseClusters[i] < 0)
+			{
+				applied.mUnlabelled++;
+			}
+			k++;
+		}
+		for (int a = 0; a < applied.mAdded; a++)
+		{
+			int d = added[a];
+			points.set(k, mLat[d], mLan[d], mIds[d]);
+			applied.mPreviousCluster[k] = -1;
+			applied.mStale[k] = true;
+			k++;
+		}
+		return applied;
+	}
+
+	/*************************************************************************************
+	 * Datapoints after the changes, with the cluster of every datapoint in the clustering
+	 * the changes apply to.
+	 *************************************************************************************/
+	static final class Applied
+	{
+		/** Datapoints of the clustering the changes apply to. */
+		final PointStore mBase;
+
+		/** Datapoints after the changes. */
+		PointStore mPoints;
+
+		/** Cluster of every datapoint before the changes, -1 for added users and unknown clusters. */
+		int[] mPreviousCluster;
+
+		/** True for the datapoints added, moved or without a previous cluster. */
+		boolean[] mStale;
+
+		/** Removed datapoints, as indexes in mBase, and their previous clusters. */
+		int[] mRemovedPoints;
+		int[] mRemovedClusters;
+
+		/** Number of datapoints added, moved and removed. */
+		int mAdded;
+		int mMoved;
+		int mRemoved;
+
+		/** Number of removals of users that were not clustered. */
+		int mUnknown;
+
+		/** Number of kept datapoints without a previous cluster. */
+		int mUnlabelled;
+
+		Applied(PointStore base)
+		{
+			mBase = base;
+		}
+	}
+}
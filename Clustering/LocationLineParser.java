@@ -0,0 +1,247 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Parses one line of the user location file (UserId \t Latitude \t Longitude) straight
+ * from bytes, accepting the same numbers as Integer.parseInt and Double.parseDouble.
+ * One instance is used by one thread.
+ *************************************************************************************/
+final class LocationLineParser
+{
+	/** Result of parse() */
+	static final int OK = 0;
+	static final int MALFORMED = 1;
+	static final int OUT_OF_RANGE = 2;
+
+	/** Exact powers of ten used by the fast path of the number parser. */
+	private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+			1e21, 1e22 };
+
+	/** Fields of the last parsed line. */
+	int mId;
+	double mLat;
+	double mLan;
+
+	/** Set by the field parsers when a field is not a number. */
+	private boolean mError;
+
+	private ByteBuffer mBuffer;
+
+	/*************************************************************************************
+	 * Parse the line [start, end) of a buffer, without its end of line.
+	 *
+	 * @return OK, MALFORMED or OUT_OF_RANGE
+	 *************************************************************************************/
+	int parse(ByteBuffer buffer, int start, int end)
+	{
+		mBuffer = buffer;
+		int tab1 = indexOfTab(start, end);
+		int tab2 = (tab1 < 0) ? -1 : indexOfTab(tab1 + 1, end);
+		if (tab2 < 0)
+		{
+			return MALFORMED;
+		}
+		int tab3 = indexOfTab(tab2 + 1, end);
+		int lanEnd = (tab3 < 0) ? end : tab3;
+
+		mError = false;
+		mId = parseInt(start, tab1);
+		mLat = parseDouble(tab1 + 1, tab2);
+		mLan = parseDouble(tab2 + 1, lanEnd);
+		if (mError)
+		{
+			return MALFORMED;
+		}
+
+		//Verify bad coordinates
+		if (!(mLat >= globalConstants.Earth_MinLat && mLat <= globalConstants.Earth_MaxLat && mLan >= globalConstants.Earth_MinLan
+				&& mLan <= globalConstants.Earth_MaxLan))
+		{
+			return OUT_OF_RANGE;
+		}
+		return OK;
+	}
+
+	private int indexOfTab(int from, int end)
+	{
+		for (int i = from; i < end; i++)
+		{
+			if (mBuffer.get(i) == '\t')
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parse a decimal integer like Integer.parseInt.
+	 */
+	private int parseInt(int start, int end)
+	{
+		int i = start;
+		boolean negative = false;
+		if ((i < end) && ((mBuffer.get(i) == '-') || (mBuffer.get(i) == '+')))
+		{
+			negative = mBuffer.get(i) == '-';
+			i++;
+		}
+		if (i == end)
+		{
+			mError = true;
+			return 0;
+		}
+		long value = 0;
+		for (; i < end; i++)
+		{
+			int d = mBuffer.get(i) - '0';
+			if ((d < 0) || (d > 9))
+			{
+				mError = true;
+				return 0;
+			}
+			value = value * 10 + d;
+			if (value > 1L + Integer.MAX_VALUE)
+			{
+				mError = true;
+				return 0;
+			}
+		}
+		value = negative ? -value : value;
+		if ((value < Integer.MIN_VALUE) || (value > Integer.MAX_VALUE))
+		{
+			mError = true;
+			return 0;
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Parse a decimal number like Double.parseDouble.
+	 * Plain numbers with up to 15 significant digits are converted exactly with a single
+	 * multiplication or division by a power of ten; anything else goes through
+	 * Double.parseDouble.
+	 */
+	private double parseDouble(int start, int end)
+	{
+		// Double.parseDouble ignores surrounding white space
+		while ((start < end) && (mBuffer.get(start) <= ' '))
+		{
+			start++;
+		}
+		while ((end > start) && (mBuffer.get(end - 1) <= ' '))
+		{
+			end--;
+		}
+
+		int i = start;
+		boolean negative = false;
+		if ((i < end) && ((mBuffer.get(i) == '-') || (mBuffer.get(i) == '+')))
+		{
+			negative = mBuffer.get(i) == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigit = false;
+		boolean exact = true;
+		boolean fraction = false;
+		for (; i < end; i++)
+		{
+			byte b = mBuffer.get(i);
+			if ((b >= '0') && (b <= '9'))
+			{
+				anyDigit = true;
+				if ((mantissa == 0) && (b == '0'))
+				{
+					exponent -= fraction ? 1 : 0;
+				}
+				else if (digits < 15)
+				{
+					mantissa = mantissa * 10 + (b - '0');
+					digits++;
+					exponent -= fraction ? 1 : 0;
+				}
+				else
+				{
+					exact = false;
+					break;
+				}
+			}
+			else if ((b == '.') && !fraction)
+			{
+				fraction = true;
+			}
+			else
+			{
+				break;
+			}
+		}
+
+		if (exact && anyDigit && (i < end) && ((mBuffer.get(i) == 'e') || (mBuffer.get(i) == 'E')))
+		{
+			i++;
+			boolean negativeExp = false;
+			if ((i < end) && ((mBuffer.get(i) == '-') || (mBuffer.get(i) == '+')))
+			{
+				negativeExp = mBuffer.get(i) == '-';
+				i++;
+			}
+			int exp = 0;
+			boolean anyExpDigit = false;
+			for (; (i < end) && (mBuffer.get(i) >= '0') && (mBuffer.get(i) <= '9'); i++)
+			{
+				anyExpDigit = true;
+				exp = Math.min(exp * 10 + (mBuffer.get(i) - '0'), 10000);
+			}
+			exact = anyExpDigit;
+			exponent += negativeExp ? -exp : exp;
+		}
+
+		if (exact && anyDigit && (i == end))
+		{
+			if (mantissa == 0)
+			{
+				return negative ? -0.0 : 0.0;
+			}
+			if ((exponent >= -22) && (exponent <= 22))
+			{
+				double value = (exponent >= 0) ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+				return negative ? -value : value;
+			}
+		}
+		return parseDoubleSlow(start, end);
+	}
+
+	/**
+	 * Parse a number the fast path does not handle (long mantissa, large exponent, suffixes...).
+	 */
+	private double parseDoubleSlow(int start, int end)
+	{
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++)
+		{
+			bytes[i] = mBuffer.get(start + i);
+		}
+		try
+		{
+			return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+		}
+		catch (NumberFormatException e)
+		{
+			mError = true;
+			return 0;
+		}
+	}
+}
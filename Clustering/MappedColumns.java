@@ -0,0 +1,100 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/*************************************************************************************
+ * Maps columns of a file into memory. Columns are split in segments because a single
+ * mapping cannot exceed 2 GB. Besides columns of existing files, writable scratch columns
+ * (labels, unit vectors) can be created in a temporary file so that point sets larger than
+ * the heap are held entirely off-heap.
+ *************************************************************************************/
+final class MappedColumns
+{
+	private MappedColumns()
+	{
+		// Prevents instantiation
+	}
+
+	/**
+	 * Map a column of count doubles starting at offset.
+	 */
+	static DoubleColumn.Mapped mapDoubles(FileChannel channel, FileChannel.MapMode mode, long offset, long count) throws IOException
+	{
+		return new DoubleColumn.Mapped(mapSegments(channel, mode, offset, count, 3, DoubleColumn.Mapped.SEGMENT_SHIFT));
+	}
+
+	/**
+	 * Map a column of count ints starting at offset.
+	 */
+	static IntColumn.Mapped mapInts(FileChannel channel, FileChannel.MapMode mode, long offset, long count) throws IOException
+	{
+		return new IntColumn.Mapped(mapSegments(channel, mode, offset, count, 2, IntColumn.Mapped.SEGMENT_SHIFT));
+	}
+
+	private static ByteBuffer[] mapSegments(FileChannel channel, FileChannel.MapMode mode, long offset, long count, int elementShift, int segmentShift)
+			throws IOException
+	{
+		long perSegment = 1L << segmentShift;
+		int segments = (int) Math.max(1, (count + perSegment - 1) / perSegment);
+		ByteBuffer[] result = new ByteBuffer[segments];
+		for (int s = 0; s < segments; s++)
+		{
+			long values = Math.min(perSegment, count - (s * perSegment));
+			result[s] = channel.map(mode, offset + ((s * perSegment) << elementShift), Math.max(0, values) << elementShift).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return result;
+	}
+
+	/*************************************************************************************
+	 * Temporary file holding writable off-heap columns. The mappings stay valid after the
+	 * file is closed; the file is removed when the JVM exits. Clusterings running at the same
+	 * time may create columns in one scratch file.
+	 *************************************************************************************/
+	static final class Scratch
+	{
+		private final File mFile;
+		private long mLength;
+
+		Scratch() throws IOException
+		{
+			mFile = File.createTempFile("geoclusters", ".cols");
+			mFile.deleteOnExit();
+		}
+
+		synchronized DoubleColumn.Mapped newDoubles(long count) throws IOException
+		{
+			try (RandomAccessFile file = new RandomAccessFile(mFile, "rw"); FileChannel channel = file.getChannel())
+			{
+				long offset = extend(file, count << 3);
+				return mapDoubles(channel, FileChannel.MapMode.READ_WRITE, offset, count);
+			}
+		}
+
+		synchronized IntColumn.Mapped newInts(long count) throws IOException
+		{
+			try (RandomAccessFile file = new RandomAccessFile(mFile, "rw"); FileChannel channel = file.getChannel())
+			{
+				long offset = extend(file, count << 2);
+				return mapInts(channel, FileChannel.MapMode.READ_WRITE, offset, count);
+			}
+		}
+
+		private long extend(RandomAccessFile file, long bytes) throws IOException
+		{
+			long offset = mLength;
+			mLength += (bytes + 7) & ~7L;
+			file.setLength(mLength);
+			return offset;
+		}
+	}
+}
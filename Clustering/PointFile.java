@@ -0,0 +1,264 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*************************************************************************************
+ * Binary columnar point file.
+ *
+ * Layout, all values little-endian:
+ *   0 : magic "GEOPOINT"
+ *   8 : int version, int header size (64)
+ *  16 : long number of datapoints N
+ *  24 : double Min_Lat, Max_Lat, Min_Lan, Max_Lan (bounding box)
+ *  56 : long reserved
+ *  64 : N doubles latitude, then N doubles longitude, then N ints user id
+ *
+ * The columns of a point file are memory-mapped and read in place, so the coordinates of
+ * a point file never have to fit in the heap.
+ *************************************************************************************/
+public final class PointFile
+{
+	private static final byte[] MAGIC = "GEOPOINT".getBytes(StandardCharsets.US_ASCII);
+	private static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+
+	private PointFile()
+	{
+		// Prevents instantiation
+	}
+
+	/*************************************************************************************
+	 * Check whether a file is a point file.
+	 *
+	 * @param fileName the file
+	 * @return true if the file starts with the point file magic
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static boolean isPointFile(String fileName) throws IOException
+	{
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r"))
+		{
+			if (file.length() < HEADER_SIZE)
+			{
+				return false;
+			}
+			byte[] magic = new byte[MAGIC.length];
+			file.readFully(magic);
+			return Arrays.equals(magic, MAGIC);
+		}
+	}
+
+	/*************************************************************************************
+	 * Open a point file as an off-heap point store. Nothing is copied: the store reads the
+	 * mapped columns of the file.
+	 *
+	 * @param fileName the point file
+	 * @param report receives the number of datapoints and the bounding box
+	 * @return the point store
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static PointStore open(String fileName, UserLocationLoader.LoadReport report) throws IOException
+	{
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r"); FileChannel channel = file.getChannel())
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			channel.read(header, 0);
+			header.flip();
+			byte[] magic = new byte[MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, MAGIC) || (header.getInt() != VERSION) || (header.getInt() != HEADER_SIZE))
+			{
+				throw new IOException(fileName + " is not a point file of version " + VERSION);
+			}
+			long count = header.getLong();
+			if ((count < 0) || (count > Integer.MAX_VALUE - 8) || (channel.size() < HEADER_SIZE + (count * 20)))
+			{
+				throw new IOException("Corrupt point file " + fileName + " : " + count + " datapoints in " + channel.size() + " bytes");
+			}
+			report.mRows = count;
+			report.mMinLat = header.getDouble();
+			report.mMaxLat = header.getDouble();
+			report.mMinLan = header.getDouble();
+			report.mMaxLan = header.getDouble();
+
+			DoubleColumn latitude = MappedColumns.mapDoubles(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, count);
+			DoubleColumn longitude = MappedColumns.mapDoubles(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE + (count * 8), count);
+			IntColumn id = MappedColumns.mapInts(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE + (count * 16), count);
+			return new PointStore((int) count, latitude, longitude, id);
+		}
+	}
+
+	/*************************************************************************************
+	 * Writes a point file datapoint by datapoint with bounded memory.
+	 * Space for a given capacity of datapoints is reserved up front; when fewer datapoints
+	 * are written the columns are moved together on close.
+	 *************************************************************************************/
+	public static final class Writer implements AutoCloseable
+	{
+		private static final int BUFFER_SIZE = 1 << 20;
+
+		private final RandomAccessFile mFile;
+		private final FileChannel mChannel;
+		private final long mCapacity;
+		private long mCount;
+
+		private final ByteBuffer mLatBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private final ByteBuffer mLanBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private final ByteBuffer mIdBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE / 2).order(ByteOrder.LITTLE_ENDIAN);
+
+		/** Next file position of each column. */
+		private long mLatPosition;
+		private long mLanPosition;
+		private long mIdPosition;
+
+		private double mMinLat = Double.MAX_VALUE;
+		private double mMaxLat = -Double.MAX_VALUE;
+		private double mMinLan = Double.MAX_VALUE;
+		private double mMaxLan = -Double.MAX_VALUE;
+
+		/**
+		 * Create a point file.
+		 *
+		 * @param fileName the point file
+		 * @param capacity largest number of datapoints that will be written
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public Writer(String fileName, long capacity) throws IOException
+		{
+			mFile = new RandomAccessFile(fileName, "rw");
+			mFile.setLength(0);
+			mChannel = mFile.getChannel();
+			mCapacity = capacity;
+			mLatPosition = HEADER_SIZE;
+			mLanPosition = HEADER_SIZE + (capacity * 8);
+			mIdPosition = HEADER_SIZE + (capacity * 16);
+		}
+
+		/**
+		 * Append a datapoint.
+		 *
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public void add(double latitude, double longitude, int uid) throws IOException
+		{
+			if (mCount == mCapacity)
+			{
+				throw new IOException("Point file capacity of " + mCapacity + " datapoints exceeded");
+			}
+			if (!mIdBuffer.hasRemaining())
+			{
+				flush();
+			}
+			mLatBuffer.putDouble(latitude);
+			mLanBuffer.putDouble(longitude);
+			mIdBuffer.putInt(uid);
+			mCount++;
+
+			mMinLat = Math.min(mMinLat, latitude);
+			mMaxLat = Math.max(mMaxLat, latitude);
+			mMinLan = Math.min(mMinLan, longitude);
+			mMaxLan = Math.max(mMaxLan, longitude);
+		}
+
+		/**
+		 * @return number of datapoints written so far
+		 */
+		public long count()
+		{
+			return mCount;
+		}
+
+		private void flush() throws IOException
+		{
+			mLatPosition = write(mLatBuffer, mLatPosition);
+			mLanPosition = write(mLanBuffer, mLanPosition);
+			mIdPosition = write(mIdBuffer, mIdPosition);
+		}
+
+		private long write(ByteBuffer buffer, long position) throws IOException
+		{
+			buffer.flip();
+			while (buffer.hasRemaining())
+			{
+				position += mChannel.write(buffer, position);
+			}
+			buffer.clear();
+			return position;
+		}
+
+		/**
+		 * Move the columns together if fewer datapoints than the capacity were written,
+		 * then write the header.
+		 *
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				flush();
+				if (mCount < mCapacity)
+				{
+					move(HEADER_SIZE + (mCapacity * 8), HEADER_SIZE + (mCount * 8), mCount * 8);
+					move(HEADER_SIZE + (mCapacity * 16), HEADER_SIZE + (mCount * 16), mCount * 4);
+				}
+				mFile.setLength(HEADER_SIZE + (mCount * 20));
+
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+				header.put(MAGIC);
+				header.putInt(VERSION);
+				header.putInt(HEADER_SIZE);
+				header.putLong(mCount);
+				header.putDouble(mMinLat);
+				header.putDouble(mMaxLat);
+				header.putDouble(mMinLan);
+				header.putDouble(mMaxLan);
+				header.putLong(0);
+				header.flip();
+				mChannel.write(header, 0);
+			}
+			finally
+			{
+				mFile.close();
+			}
+		}
+
+		/**
+		 * Copy bytes to a lower position of the file, front to back.
+		 */
+		private void move(long from, long to, long length) throws IOException
+		{
+			ByteBuffer buffer = mLatBuffer;
+			long done = 0;
+			while (done < length)
+			{
+				buffer.clear();
+				buffer.limit((int) Math.min(buffer.capacity(), length - done));
+				int read = 0;
+				while (buffer.hasRemaining())
+				{
+					read += mChannel.read(buffer, from + done + read);
+				}
+				buffer.flip();
+				int written = 0;
+				while (buffer.hasRemaining())
+				{
+					written += mChannel.write(buffer, to + done + written);
+				}
+				done += read;
+			}
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+
+import Defination.RunLogger;
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Converts a tab-separated user location file into a binary point file (see PointFile).
+ * The input is streamed chunk by chunk, so files of any size can be converted with a small
+ * heap. Malformed and out-of-range rows are skipped and counted as by the text loader.
+ *
+ * Usage : PointFileConverter [input.txt [output.bin]]
+ * Defaults to globalConstants.fin_UserLoc and globalConstants.fin_UserLocBinary.
+ *************************************************************************************/
+public class PointFileConverter
+{
+	/*************************************************************************************
+	 * The main method.
+	 *
+	 * @param args input file and output file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static void main(String args[]) throws IOException
+	{
+		String input = (args.length > 0) ? args[0] : globalConstants.fin_UserLoc;
+		String output = (args.length > 1) ? args[1] : globalConstants.fin_UserLocBinary;
+
+		// Logs to the console only, the output and log folders of the last clustering are kept
+		RunLogger logger = new RunLogger(null, true);
+		logger.logAndPrint("PointFileConverter started at " + new Date().toString() + " : " + input + " -> " + output);
+		UserLocationLoader.LoadReport report = convert(input, output);
+		logger.logAndPrint("Rows=" + report.mRows + " Written=" + (report.mRows - report.mMalformed - report.mOutOfRange) + " Malformed=" + report.mMalformed
+				+ " OutOfRange=" + report.mOutOfRange);
+		logger.logAndPrint("PointFileConverter finished at " + new Date().toString());
+	}
+
+	/*************************************************************************************
+	 * Convert a user location file to a point file.
+	 *
+	 * @param input the tab-separated user location file
+	 * @param output the point file to create
+	 * @return counts of rows read and skipped
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static UserLocationLoader.LoadReport convert(String input, String output) throws IOException
+	{
+		UserLocationLoader.LoadReport report = new UserLocationLoader.LoadReport();
+		try (RandomAccessFile file = new RandomAccessFile(input, "r"); FileChannel channel = file.getChannel())
+		{
+			long[] bounds = UserLocationLoader.ChunkBounds(channel, 1);
+
+			// Number of lines bounds the number of datapoints
+			for (int c = 0; c + 1 < bounds.length; c++)
+			{
+				report.mRows += UserLocationLoader.CountLines(channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]));
+			}
+
+			LocationLineParser parser = new LocationLineParser();
+			try (PointFile.Writer writer = new PointFile.Writer(output, report.mRows))
+			{
+				for (int c = 0; c + 1 < bounds.length; c++)
+				{
+					MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+					int limit = buffer.limit();
+					int lineStart = 0;
+					while (lineStart < limit)
+					{
+						int lineEnd = lineStart;
+						while ((lineEnd < limit) && (buffer.get(lineEnd) != '\n'))
+						{
+							lineEnd++;
+						}
+						int next = lineEnd + 1;
+						if ((lineEnd > lineStart) && (buffer.get(lineEnd - 1) == '\r'))
+						{
+							lineEnd--;
+						}
+
+						int status = parser.parse(buffer, lineStart, lineEnd);
+						if (status == LocationLineParser.OK)
+						{
+							writer.add(parser.mLat, parser.mLan, parser.mId);
+						}
+						else if (status == LocationLineParser.MALFORMED)
+						{
+							report.mMalformed++;
+						}
+						else
+						{
+							report.mOutOfRange++;
+						}
+						lineStart = next;
+					}
+				}
+			}
+		}
+		return report;
+	}
+}
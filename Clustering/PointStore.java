@@ -0,0 +1,568 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/*************************************************************************************
+ * Columnar store of the datapoints (one slot per user).
+ * Coordinates, user ids and cluster labels are kept in primitive columns. Membership of
+ * a cluster is given by the label of a datapoint, so moving a datapoint from one cluster
+ * to another is a label update and never shifts or allocates objects.
+ *
+ * Columns live in heap arrays, or off-heap in memory-mapped files when the store is
+ * opened from a point file (see PointFile).
+ *
+ * A compact store on the heap keeps the coordinates as ints of 1e-7 degree, the unit
+ * vectors as floats and the labels of its views in 8 or 16 bits when the number of
+ * clusters allows it: 4 + 4 + 4 + 2 * 1 + 3 * 4 = 26 bytes per datapoint with unit vectors
+ * and up to 127 clusters, instead of 52. Every value is read back as a double, so the
+ * distance math stays in double; coordinates of up to 7 decimals read back unchanged.
+ *************************************************************************************/
+public class PointStore
+{
+	/** Initial capacity used while the input file is being read. */
+	private static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/** Latitude of datapoints +-90 */
+	private DoubleColumn mLatitude;
+
+	/** Longitude of datapoints +-180 */
+	private DoubleColumn mLongitude;
+
+	/** UserId of datapoints */
+	private IntColumn mId;
+
+	/** The current cluster id of datapoints. */
+	private IntColumn mClusterId;
+
+	/** The new cluster id of datapoints, as found by the latest assignment step. */
+	private IntColumn mNewClusterId;
+
+	/** Number of users every datapoint stands for, null when each stands for one (see WeightedPoints). */
+	private IntColumn mWeight;
+
+	/** Position of every datapoint before it was reordered (see WeightedPoints.reorder()), null in the loaded order. */
+	private IntColumn mSourceIndex;
+
+	/** Unit vectors (x,y,z) of datapoints, null until computeUnitVectors() is called. */
+	private DoubleColumn mX;
+	private DoubleColumn mY;
+	private DoubleColumn mZ;
+
+	/** Tiles of consecutive datapoints sharing candidate centroids, null until computeTiles() is called. */
+	private PointTiles mTiles;
+
+	/** Temporary file of the writable columns of an off-heap store, null on the heap. */
+	private MappedColumns.Scratch mScratch;
+
+	/** Number of datapoints in the store. */
+	private int mSize;
+
+	/** True for compact columns on the heap. */
+	private boolean mCompact;
+
+	/**
+	 * Instantiates an empty point store.
+	 */
+	public PointStore()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates an empty point store with room for the given number of datapoints.
+	 *
+	 * @param capacity the initial capacity
+	 */
+	public PointStore(int capacity)
+	{
+		this(capacity, false);
+	}
+
+	/**
+	 * Instantiates an empty point store with room for the given number of datapoints.
+	 *
+	 * @param capacity the initial capacity
+	 * @param compact true for compact columns (see PointStore); the labels of the store hold up to 32767 clusters
+	 */
+	public PointStore(int capacity, boolean compact)
+	{
+		capacity = Math.max(capacity, 1);
+		mCompact = compact;
+		mLatitude = compact ? new DoubleColumn.Fixed(capacity) : new DoubleColumn.Heap(capacity);
+		mLongitude = compact ? new DoubleColumn.Fixed(capacity) : new DoubleColumn.Heap(capacity);
+		mId = new IntColumn.Heap(capacity);
+		mClusterId = compact ? new IntColumn.Heap16(capacity) : new IntColumn.Heap(capacity);
+		mNewClusterId = compact ? new IntColumn.Heap16(capacity) : new IntColumn.Heap(capacity);
+	}
+
+	/**
+	 * Instantiates an off-heap point store over mapped coordinate and id columns.
+	 * The cluster labels are created in a temporary mapped file.
+	 *
+	 * @param size number of datapoints
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	PointStore(int size, DoubleColumn latitude, DoubleColumn longitude, IntColumn id) throws IOException
+	{
+		mSize = size;
+		mLatitude = latitude;
+		mLongitude = longitude;
+		mId = id;
+		mScratch = new MappedColumns.Scratch();
+		mClusterId = mScratch.newInts(size);
+		mNewClusterId = mScratch.newInts(size);
+	}
+
+	/**
+	 * Instantiates a point store of the given size whose slots are filled with set().
+	 * Used by loaders writing datapoints in parallel at known positions.
+	 *
+	 * @param size number of datapoints
+	 * @param compact true for compact columns
+	 * @return the point store
+	 */
+	static PointStore allocate(int size, boolean compact)
+	{
+		PointStore store = new PointStore(size, compact);
+		store.mSize = size;
+		return store;
+	}
+
+	/**
+	 * Instantiates a point store holding a copy of in-memory datapoints.
+	 *
+	 * @param latitude latitude of every datapoint
+	 * @param longitude longitude of every datapoint
+	 * @param ids user id of every datapoint, null to number the datapoints from 0
+	 * @return the point store
+	 * @throws IllegalArgumentException if the arrays differ in length
+	 */
+	public static PointStore of(double[] latitude, double[] longitude, int[] ids)
+	{
+		return of(latitude, longitude, ids, false);
+	}
+
+	/**
+	 * Instantiates a point store holding a copy of in-memory datapoints.
+	 *
+	 * @param latitude latitude of every datapoint
+	 * @param longitude longitude of every datapoint
+	 * @param ids user id of every datapoint, null to number the datapoints from 0
+	 * @param compact true for compact columns
+	 * @return the point store
+	 * @throws IllegalArgumentException if the arrays differ in length
+	 */
+	public static PointStore of(double[] latitude, double[] longitude, int[] ids, boolean compact)
+	{
+		if ((latitude.length != longitude.length) || ((ids != null) && (ids.length != latitude.length)))
+		{
+			throw new IllegalArgumentException("latitude, longitude and ids must have the same length");
+		}
+		PointStore store = allocate(latitude.length, compact);
+		for (int i = 0; i < latitude.length; i++)
+		{
+			store.set(i, latitude[i], longitude[i], (ids == null) ? i : ids[i]);
+		}
+		return store;
+	}
+
+	/**
+	 * A point store over the same datapoints with its own cluster labels, so that several
+	 * clusterings can run on one loaded store. Coordinates, user ids and unit vectors are
+	 * shared and must not change afterwards.
+	 *
+	 * @return the new point store, labels set to cluster 0
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public PointStore shareCoordinates() throws IOException
+	{
+		return shareCoordinates(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * A point store over the same datapoints with its own cluster labels, as
+	 * shareCoordinates(). The labels of a compact store are as narrow as the number of
+	 * clusters allows.
+	 *
+	 * @param clusterCount largest number of clusters the labels must hold
+	 * @return the new point store, labels set to cluster 0
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public PointStore shareCoordinates(int clusterCount) throws IOException
+	{
+		PointStore store = new PointStore(1);
+		store.mSize = mSize;
+		store.mCompact = mCompact;
+		store.mLatitude = mLatitude;
+		store.mLongitude = mLongitude;
+		store.mId = mId;
+		store.mWeight = mWeight;
+		store.mSourceIndex = mSourceIndex;
+		store.mX = mX;
+		store.mY = mY;
+		store.mZ = mZ;
+		store.mTiles = mTiles;
+		if (isOnHeap())
+		{
+			store.mClusterId = newLabels(Math.max(mSize, 1), clusterCount);
+			store.mNewClusterId = newLabels(Math.max(mSize, 1), clusterCount);
+		}
+		else
+		{
+			store.mScratch = mScratch;
+			store.mClusterId = mScratch.newInts(mSize);
+			store.mNewClusterId = mScratch.newInts(mSize);
+		}
+		return store;
+	}
+
+	/**
+	 * @return label column on the heap, narrow for a compact store
+	 */
+	private IntColumn newLabels(int capacity, int clusterCount)
+	{
+		if (mCompact && (clusterCount <= Byte.MAX_VALUE))
+		{
+			return new IntColumn.Heap8(capacity);
+		}
+		if (mCompact && (clusterCount <= Short.MAX_VALUE))
+		{
+			return new IntColumn.Heap16(capacity);
+		}
+		return new IntColumn.Heap(capacity);
+	}
+
+	/**
+	 * @return true if the store has compact columns
+	 */
+	public boolean isCompact()
+	{
+		return mCompact;
+	}
+
+	/**
+	 * @return bytes held per datapoint by the columns of the store
+	 */
+	public int bytesPerPoint()
+	{
+		int bytes = mLatitude.width() + mLongitude.width() + mId.width() + mClusterId.width() + mNewClusterId.width();
+		if (mX != null)
+		{
+			bytes += mX.width() + mY.width() + mZ.width();
+		}
+		if (mWeight != null)
+		{
+			bytes += mWeight.width();
+		}
+		if (mSourceIndex != null)
+		{
+			bytes += mSourceIndex.width();
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return true if the columns of the store are on the heap
+	 */
+	public boolean isOnHeap()
+	{
+		return mScratch == null;
+	}
+
+	/**
+	 * Append a datapoint to the store. Only supported on the heap.
+	 *
+	 * @param latitude the Latitude
+	 * @param longitude the Longitude
+	 * @param uid the UserID
+	 * @param clusterId the initial cluster of the datapoint
+	 * @return index of the datapoint in the store
+	 */
+	public int add(double latitude, double longitude, int uid, int clusterId)
+	{
+		if (mSize == mLatitude.capacity())
+		{
+			grow();
+		}
+		int index = mSize++;
+		mLatitude.set(index, latitude);
+		mLongitude.set(index, longitude);
+		mId.set(index, uid);
+		mClusterId.set(index, clusterId);
+		mNewClusterId.set(index, clusterId);
+		return index;
+	}
+
+	/**
+	 * Write the coordinates and user id of a slot.
+	 */
+	void set(int index, double latitude, double longitude, int uid)
+	{
+		mLatitude.set(index, latitude);
+		mLongitude.set(index, longitude);
+		mId.set(index, uid);
+	}
+
+	/**
+	 * Copy the coordinates and user ids of a range of slots to another position.
+	 * Only supported on the heap.
+	 */
+	void moveRange(int from, int to, int length)
+	{
+		mLatitude.move(from, to, length);
+		mLongitude.move(from, to, length);
+		mId.move(from, to, length);
+	}
+
+	/**
+	 * Drop the datapoints after the given size.
+	 */
+	void truncate(int size)
+	{
+		mSize = Math.min(mSize, size);
+	}
+
+	/**
+	 * Release the unused capacity once all datapoints are loaded.
+	 */
+	public void trimToSize()
+	{
+		if (isOnHeap() && (mSize < mLatitude.capacity()))
+		{
+			resize(mSize);
+		}
+	}
+
+	private void grow()
+	{
+		int capacity = mLatitude.capacity();
+		long newCapacity = Math.min((long) capacity * 2, Integer.MAX_VALUE - 8);
+		if (newCapacity <= capacity)
+		{
+			throw new IllegalStateException("PointStore cannot hold more than " + capacity + " datapoints");
+		}
+		resize((int) newCapacity);
+	}
+
+	private void resize(int capacity)
+	{
+		mLatitude.resize(capacity);
+		mLongitude.resize(capacity);
+		mId.resize(capacity);
+		mClusterId.resize(capacity);
+		mNewClusterId.resize(capacity);
+	}
+
+	/**
+	 * Convert every datapoint to its unit vector once. Datapoints never move, so the
+	 * trigonometry of a datapoint is not repeated in later iterations.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void computeUnitVectors() throws IOException
+	{
+		if (mCompact)
+		{
+			mX = new DoubleColumn.Single(mSize);
+			mY = new DoubleColumn.Single(mSize);
+			mZ = new DoubleColumn.Single(mSize);
+		}
+		else if (isOnHeap())
+		{
+			mX = new DoubleColumn.Heap(mSize);
+			mY = new DoubleColumn.Heap(mSize);
+			mZ = new DoubleColumn.Heap(mSize);
+		}
+		else
+		{
+			mX = mScratch.newDoubles(mSize);
+			mY = mScratch.newDoubles(mSize);
+			mZ = mScratch.newDoubles(mSize);
+		}
+		for (int i = 0; i < mSize; i++)
+		{
+			double lat = mLatitude.get(i);
+			double lan = mLongitude.get(i);
+			mX.set(i, GeoMath.unitX(lat, lan));
+			mY.set(i, GeoMath.unitY(lat, lan));
+			mZ.set(i, GeoMath.unitZ(lat));
+		}
+	}
+
+	/**
+	 * Bound tiles of consecutive datapoints once, after the unit vectors if any (see
+	 * PointTiles). Worth it for datapoints ordered along a space-filling curve.
+	 *
+	 * @param tileSize number of datapoints of a tile
+	 */
+	void computeTiles(int tileSize)
+	{
+		mTiles = PointTiles.build(this, tileSize);
+	}
+
+	/**
+	 * @return the tiles of the datapoints, null if they are not computed
+	 */
+	PointTiles getTiles()
+	{
+		return mTiles;
+	}
+
+	/**
+	 * @return true if the unit vectors of datapoints are available
+	 */
+	public boolean hasUnitVectors()
+	{
+		return mX != null;
+	}
+
+	public double getX(int index)
+	{
+		return mX.get(index);
+	}
+
+	public double getY(int index)
+	{
+		return mY.get(index);
+	}
+
+	public double getZ(int index)
+	{
+		return mZ.get(index);
+	}
+
+	/**
+	 * @return number of datapoints in the store
+	 */
+	public int size()
+	{
+		return mSize;
+	}
+
+	public double getLatitude(int index)
+	{
+		return mLatitude.get(index);
+	}
+
+	public double getLongitude(int index)
+	{
+		return mLongitude.get(index);
+	}
+
+	public int getId(int index)
+	{
+		return mId.get(index);
+	}
+
+	/**
+	 * @return number of users the datapoint stands for, 1 unless the store is weighted
+	 */
+	public int getWeight(int index)
+	{
+		return (mWeight == null) ? 1 : mWeight.get(index);
+	}
+
+	/**
+	 * @return true if datapoints may stand for more than one user
+	 */
+	public boolean hasWeights()
+	{
+		return mWeight != null;
+	}
+
+	/**
+	 * @return number of users the datapoints stand for
+	 */
+	public long totalWeight()
+	{
+		if (mWeight == null)
+		{
+			return mSize;
+		}
+		long total = 0;
+		for (int i = 0; i < mSize; i++)
+		{
+			total += mWeight.get(i);
+		}
+		return total;
+	}
+
+	/**
+	 * Set the weight of every datapoint once the store is filled.
+	 */
+	void setWeights(IntColumn weight)
+	{
+		mWeight = weight;
+	}
+
+	/**
+	 * @return position of the datapoint before the store was reordered, its index if it was not
+	 */
+	int getSourceIndex(int index)
+	{
+		return (mSourceIndex == null) ? index : mSourceIndex.get(index);
+	}
+
+	/**
+	 * Set the position of every datapoint before the store was reordered.
+	 */
+	void setSourceIndex(IntColumn sourceIndex)
+	{
+		mSourceIndex = sourceIndex;
+	}
+
+	public int getClusterId(int index)
+	{
+		return mClusterId.get(index);
+	}
+
+	public void setClusterId(int index, int clusterId)
+	{
+		mClusterId.set(index, clusterId);
+	}
+
+	public int getNewClusterId(int index)
+	{
+		return mNewClusterId.get(index);
+	}
+
+	public void setNewClusterId(int index, int clusterId)
+	{
+		mNewClusterId.set(index, clusterId);
+	}
+
+	/**
+	 * Indexes of the datapoints grouped by their current cluster, keeping the store order
+	 * inside a cluster (counting sort on the cluster labels).
+	 *
+	 * @param clusterCount number of clusters
+	 * @param clusterStart filled with the start of each cluster in the returned array; length clusterCount + 1
+	 * @return datapoint indexes ordered by cluster
+	 */
+	public int[] orderByCluster(int clusterCount, int[] clusterStart)
+	{
+		Arrays.fill(clusterStart, 0);
+		for (int i = 0; i < mSize; i++)
+		{
+			clusterStart[mClusterId.get(i) + 1]++;
+		}
+		for (int c = 0; c < clusterCount; c++)
+		{
+			clusterStart[c + 1] += clusterStart[c];
+		}
+
+		int[] next = Arrays.copyOf(clusterStart, clusterCount);
+		int[] order = new int[mSize];
+		for (int i = 0; i < mSize; i++)
+		{
+			order[next[mClusterId.get(i)]++] = i;
+		}
+		return order;
+	}
+}
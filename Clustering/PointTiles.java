@@ -0,0 +1,107 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+/*************************************************************************************
+ * Tiles of consecutive datapoints of a point store, each bounded by a spherical cap: the
+ * unit vector of the mean of its datapoints and the largest distance of a datapoint from
+ * it. Once the datapoints are ordered along a space-filling curve (see SpatialOrder) the
+ * caps are small and the datapoints of a tile share their candidate centroids: a centroid
+ * farther from the cap center than the closest centroid plus twice the radius of the cap
+ * cannot be the closest centroid of any datapoint of the tile.
+ *************************************************************************************/
+final class PointTiles
+{
+	/** Number of datapoints of a tile, the last tile may have fewer. */
+	final int mTileSize;
+
+	/** Unit vector of the center of every tile. */
+	final double[] mX;
+	final double[] mY;
+	final double[] mZ;
+
+	/** Largest distance in Kilometers of a datapoint of every tile from its center. */
+	final double[] mRadius;
+
+	private PointTiles(int tileSize, int count)
+	{
+		mTileSize = tileSize;
+		mX = new double[count];
+		mY = new double[count];
+		mZ = new double[count];
+		mRadius = new double[count];
+	}
+
+	/*************************************************************************************
+	 * Bound the tiles of the datapoints.
+	 *
+	 * @param points the datapoints
+	 * @param tileSize number of datapoints of a tile
+	 * @return the tiles
+	 *************************************************************************************/
+	static PointTiles build(PointStore points, int tileSize)
+	{
+		int n = points.size();
+		PointTiles tiles = new PointTiles(tileSize, (n + tileSize - 1) / tileSize);
+		for (int t = 0; t < tiles.mRadius.length; t++)
+		{
+			int from = t * tileSize;
+			int to = Math.min(n, from + tileSize);
+			double sx = 0, sy = 0, sz = 0;
+			for (int i = from; i < to; i++)
+			{
+				sx += X(points, i);
+				sy += Y(points, i);
+				sz += Z(points, i);
+			}
+			double norm = Math.sqrt(sx * sx + sy * sy + sz * sz);
+			if (norm < 1e-9)
+			{
+				// Datapoints spread around the sphere, the cap is centered on the first one
+				sx = X(points, from);
+				sy = Y(points, from);
+				sz = Z(points, from);
+				norm = 1;
+			}
+			double cx = sx / norm;
+			double cy = sy / norm;
+			double cz = sz / norm;
+			double radius = 0;
+			for (int i = from; i < to; i++)
+			{
+				radius = Math.max(radius, GeoMath.Distance(X(points, i), Y(points, i), Z(points, i), cx, cy, cz));
+			}
+			tiles.mX[t] = cx;
+			tiles.mY[t] = cy;
+			tiles.mZ[t] = cz;
+			tiles.mRadius[t] = radius;
+		}
+		return tiles;
+	}
+
+	private static double X(PointStore points, int i)
+	{
+		return points.hasUnitVectors() ? points.getX(i) : GeoMath.unitX(points.getLatitude(i), points.getLongitude(i));
+	}
+
+	private static double Y(PointStore points, int i)
+	{
+		return points.hasUnitVectors() ? points.getY(i) : GeoMath.unitY(points.getLatitude(i), points.getLongitude(i));
+	}
+
+	private static double Z(PointStore points, int i)
+	{
+		return points.hasUnitVectors() ? points.getZ(i) : GeoMath.unitZ(points.getLatitude(i));
+	}
+
+	/**
+	 * @return number of tiles
+	 */
+	int size()
+	{
+		return mRadius.length;
+	}
+}
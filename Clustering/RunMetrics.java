@@ -0,0 +1,441 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*************************************************************************************
+ * Instrumentation of a clustering run: time of every step of every iteration, distance
+ * evaluations, moved datapoints, merges, splits and cost.
+ * The run thread records the metrics; the running totals can be read at any time, e.g.
+ * through JMX, and the timeline of iterations is exported as CSV or JSON once the run is
+ * over.
+ *************************************************************************************/
+public final class RunMetrics implements RunMetricsMBean
+{
+	// Steps of an iteration
+	static final int PHASE_ASSIGNMENT = 0;
+	static final int PHASE_UPDATE_CLUSTERS = 1;
+	static final int PHASE_UPDATE_EMPTY_CLUSTER = 2;
+	static final int PHASE_UPDATE_CENTROIDS = 3;
+	private static final String[] PHASE_NAMES = { "assignment", "updateClusters", "updateEmptyCluster", "updateCentroids" };
+
+	/*************************************************************************************
+	 * Metrics of one iteration.
+	 *************************************************************************************/
+	static final class Iteration
+	{
+		final int mClusterCount;
+		final int mIteration;
+		final long[] mPhaseNanos = new long[PHASE_NAMES.length];
+		long mDistanceEvaluations;
+		long mBruteForceEvaluations;
+		long mMovedPoints;
+		int mMerges;
+		int mSplits;
+
+		/** Total distance of the datapoints from their closest centroid, in meters. */
+		long mCost;
+
+		Iteration(int iteration, int clusterCount)
+		{
+			mIteration = iteration;
+			mClusterCount = clusterCount;
+		}
+	}
+
+	/** Name of the run. */
+	private final String mRun;
+
+	/** Completed iterations, guarded by this. */
+	private final List<Iteration> mTimeline = new ArrayList<>();
+
+	/** Iteration in progress, only used by the run thread. */
+	private Iteration mCurrent;
+
+	// Running totals, written by the run thread only
+	private volatile String mPhase = "idle";
+	private volatile int mClusterCount;
+	private volatile int mIterationsCompleted;
+	private volatile long mCost = -1;
+	private volatile long mCostDelta;
+	private volatile long mLastMovedPoints;
+	private volatile long mDistanceEvaluations;
+	private volatile long mBruteForceEvaluations;
+	private volatile int mMerges;
+	private volatile int mSplits;
+	private volatile long mLastIterationNanos;
+	private volatile long mSeedingNanos;
+	private volatile long mOutputNanos;
+	private final AtomicLongArray mPhaseNanos = new AtomicLongArray(PHASE_NAMES.length);
+
+	/**
+	 * Instantiates the metrics of a run.
+	 *
+	 * @param run name of the run
+	 */
+	RunMetrics(String run)
+	{
+		mRun = run;
+	}
+
+	/**
+	 * Start an iteration.
+	 */
+	void beginIteration(int iteration, int clusterCount)
+	{
+		mCurrent = new Iteration(iteration, clusterCount);
+		mClusterCount = clusterCount;
+	}
+
+	/**
+	 * Start a step of the current iteration.
+	 *
+	 * @return start time to pass to endPhase()
+	 */
+	long beginPhase(int phase)
+	{
+		mPhase = PHASE_NAMES[phase];
+		return System.nanoTime();
+	}
+
+	/**
+	 * End a step of the current iteration.
+	 */
+	void endPhase(int phase, long start)
+	{
+		long nanos = System.nanoTime() - start;
+		if (mCurrent != null)
+		{
+			mCurrent.mPhaseNanos[phase] += nanos;
+		}
+		mPhaseNanos.addAndGet(phase, nanos);
+		mPhase = "idle";
+	}
+
+	/**
+	 * Record an assignment step.
+	 *
+	 * @param cost total distance of the datapoints from their closest centroid, in meters
+	 * @param evaluations datapoint/centroid distances evaluated
+	 * @param bruteForce datapoint/centroid distances a brute-force scan evaluates
+	 */
+	void assigned(long cost, long evaluations, long bruteForce)
+	{
+		if (mCurrent != null)
+		{
+			mCurrent.mCost = cost;
+			mCurrent.mDistanceEvaluations += evaluations;
+			mCurrent.mBruteForceEvaluations += bruteForce;
+		}
+		mCostDelta = (mCost < 0) ? 0 : cost - mCost;
+		mCost = cost;
+		mDistanceEvaluations += evaluations;
+		mBruteForceEvaluations += bruteForce;
+	}
+
+	/**
+	 * Record the datapoints moved by UpdateClusters().
+	 */
+	void moved(long count)
+	{
+		if (mCurrent != null)
+		{
+			mCurrent.mMovedPoints += count;
+		}
+		mLastMovedPoints = count;
+	}
+
+	/**
+	 * Record the merge of a small cluster.
+	 */
+	void merged()
+	{
+		if (mCurrent != null)
+		{
+			mCurrent.mMerges++;
+		}
+		mMerges++;
+	}
+
+	/**
+	 * Record the split of a cluster.
+	 */
+	void split()
+	{
+		if (mCurrent != null)
+		{
+			mCurrent.mSplits++;
+		}
+		mSplits++;
+	}
+
+	/**
+	 * End the current iteration and add it to the timeline.
+	 */
+	void endIteration()
+	{
+		long nanos = 0;
+		for (long n : mCurrent.mPhaseNanos)
+		{
+			nanos += n;
+		}
+		synchronized (this)
+		{
+			mTimeline.add(mCurrent);
+		}
+		mLastIterationNanos = nanos;
+		mIterationsCompleted++;
+		mCurrent = null;
+	}
+
+	/**
+	 * Start seeding or output.
+	 *
+	 * @return start time to pass to endSeeding() or endOutput()
+	 */
+	long begin(String phase)
+	{
+		mPhase = phase;
+		return System.nanoTime();
+	}
+
+	void endSeeding(long start)
+	{
+		mSeedingNanos += System.nanoTime() - start;
+		mPhase = "idle";
+	}
+
+	void endOutput(long start)
+	{
+		mOutputNanos += System.nanoTime() - start;
+		mPhase = "idle";
+	}
+
+	/**
+	 * @return a copy of the completed iterations
+	 */
+	synchronized List<Iteration> timeline()
+	{
+		return new ArrayList<>(mTimeline);
+	}
+
+	/**
+	 * @return one line summary of the time spent in every step
+	 */
+	String summary()
+	{
+		return "Time (ms) : seeding=" + ms(mSeedingNanos) + " assignment=" + ms(mPhaseNanos.get(PHASE_ASSIGNMENT)) + " updateClusters=" + ms(mPhaseNanos.get(PHASE_UPDATE_CLUSTERS))
+				+ " updateEmptyCluster=" + ms(mPhaseNanos.get(PHASE_UPDATE_EMPTY_CLUSTER)) + " updateCentroids=" + ms(mPhaseNanos.get(PHASE_UPDATE_CENTROIDS)) + " distanceEvaluations="
+				+ mDistanceEvaluations + " merges=" + mMerges + " splits=" + mSplits;
+	}
+
+	@Override
+	public String getRun()
+	{
+		return mRun;
+	}
+
+	@Override
+	public String getPhase()
+	{
+		return mPhase;
+	}
+
+	@Override
+	public int getClusterCount()
+	{
+		return mClusterCount;
+	}
+
+	@Override
+	public int getIterationsCompleted()
+	{
+		return mIterationsCompleted;
+	}
+
+	@Override
+	public double getCostKm()
+	{
+		return Math.max(mCost, 0) / 1000.0;
+	}
+
+	@Override
+	public double getCostDeltaKm()
+	{
+		return mCostDelta / 1000.0;
+	}
+
+	@Override
+	public long getLastMovedPoints()
+	{
+		return mLastMovedPoints;
+	}
+
+	@Override
+	public long getDistanceEvaluations()
+	{
+		return mDistanceEvaluations;
+	}
+
+	@Override
+	public long getBruteForceEvaluations()
+	{
+		return mBruteForceEvaluations;
+	}
+
+	@Override
+	public int getMerges()
+	{
+		return mMerges;
+	}
+
+	@Override
+	public int getSplits()
+	{
+		return mSplits;
+	}
+
+	@Override
+	public double getLastIterationMs()
+	{
+		return mLastIterationNanos / 1e6;
+	}
+
+	@Override
+	public double getSeedingMs()
+	{
+		return mSeedingNanos / 1e6;
+	}
+
+	@Override
+	public double getAssignmentMs()
+	{
+		return mPhaseNanos.get(PHASE_ASSIGNMENT) / 1e6;
+	}
+
+	@Override
+	public double getUpdateClustersMs()
+	{
+		return mPhaseNanos.get(PHASE_UPDATE_CLUSTERS) / 1e6;
+	}
+
+	@Override
+	public double getUpdateEmptyClusterMs()
+	{
+		return mPhaseNanos.get(PHASE_UPDATE_EMPTY_CLUSTER) / 1e6;
+	}
+
+	@Override
+	public double getUpdateCentroidsMs()
+	{
+		return mPhaseNanos.get(PHASE_UPDATE_CENTROIDS) / 1e6;
+	}
+
+	@Override
+	public double getOutputMs()
+	{
+		return mOutputNanos / 1e6;
+	}
+
+	/*************************************************************************************
+	 * Write the timeline of runs as CSV, one line per iteration.
+	 * CostDeltaKm is the change from the previous iteration of the run, empty for the first.
+	 *
+	 * @param runs the runs
+	 * @param fileName the CSV file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	static void WriteCsv(List<RunMetrics> runs, String fileName) throws IOException
+	{
+		try (BufferedWriter out = new BufferedWriter(new FileWriter(fileName)))
+		{
+			out.write("Run,K,Iteration,AssignmentMs,UpdateClustersMs,UpdateEmptyClusterMs,UpdateCentroidsMs,DistanceEvaluations,BruteForceEvaluations,MovedPoints,Merges,Splits,CostKm,CostDeltaKm\n");
+			for (RunMetrics run : runs)
+			{
+				Iteration previous = null;
+				for (Iteration it : run.timeline())
+				{
+					StringBuilder line = new StringBuilder();
+					line.append(run.mRun).append(',').append(it.mClusterCount).append(',').append(it.mIteration);
+					for (long nanos : it.mPhaseNanos)
+					{
+						line.append(',').append(ms(nanos));
+					}
+					line.append(',').append(it.mDistanceEvaluations).append(',').append(it.mBruteForceEvaluations).append(',').append(it.mMovedPoints).append(',').append(it.mMerges)
+							.append(',').append(it.mSplits).append(',').append(km(it.mCost)).append(',');
+					if (previous != null)
+					{
+						line.append(km(it.mCost - previous.mCost));
+					}
+					out.write(line.append('\n').toString());
+					previous = it;
+				}
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * Write the runs as JSON: the totals of every run and its timeline of iterations.
+	 *
+	 * @param runs the runs
+	 * @param fileName the JSON file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	static void WriteJson(List<RunMetrics> runs, String fileName) throws IOException
+	{
+		try (BufferedWriter out = new BufferedWriter(new FileWriter(fileName)))
+		{
+			out.write("{\"runs\":[");
+			for (int r = 0; r < runs.size(); r++)
+			{
+				RunMetrics run = runs.get(r);
+				out.write((r == 0) ? "\n" : ",\n");
+				out.write("{\"run\":\"" + run.mRun.replace("\\", "\\\\").replace("\"", "\\\"") + "\",\"seedingMs\":" + ms(run.mSeedingNanos));
+				for (int p = 0; p < PHASE_NAMES.length; p++)
+				{
+					out.write(",\"" + PHASE_NAMES[p] + "Ms\":" + ms(run.mPhaseNanos.get(p)));
+				}
+				out.write(",\"outputMs\":" + ms(run.mOutputNanos) + ",\"distanceEvaluations\":" + run.mDistanceEvaluations + ",\"bruteForceEvaluations\":" + run.mBruteForceEvaluations
+						+ ",\"merges\":" + run.mMerges + ",\"splits\":" + run.mSplits + ",\"iterations\":[");
+				Iteration previous = null;
+				for (Iteration it : run.timeline())
+				{
+					out.write((previous == null) ? "\n" : ",\n");
+					StringBuilder line = new StringBuilder();
+					line.append(" {\"k\":").append(it.mClusterCount).append(",\"iteration\":").append(it.mIteration);
+					for (int p = 0; p < PHASE_NAMES.length; p++)
+					{
+						line.append(",\"").append(PHASE_NAMES[p]).append("Ms\":").append(ms(it.mPhaseNanos[p]));
+					}
+					line.append(",\"distanceEvaluations\":").append(it.mDistanceEvaluations).append(",\"bruteForceEvaluations\":").append(it.mBruteForceEvaluations)
+							.append(",\"movedPoints\":").append(it.mMovedPoints).append(",\"merges\":").append(it.mMerges).append(",\"splits\":").append(it.mSplits).append(",\"costKm\":")
+							.append(km(it.mCost)).append(",\"costDeltaKm\":").append((previous == null) ? "null" : km(it.mCost - previous.mCost)).append('}');
+					out.write(line.toString());
+					previous = it;
+				}
+				out.write("]}");
+			}
+			out.write("\n]}\n");
+		}
+	}
+
+	private static String ms(long nanos)
+	{
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+	}
+
+	private static String km(long meters)
+	{
+		return String.format(Locale.ROOT, "%.3f", meters / 1000.0);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+/*************************************************************************************
+ * Progress of a clustering run, exposed through JMX while the run is in progress.
+ * Times are in milliseconds, distances in Kilometers.
+ *************************************************************************************/
+public interface RunMetricsMBean
+{
+	/** @return name of the run */
+	String getRun();
+
+	/** @return step the run is in: seeding, assignment, updateClusters, updateEmptyCluster, updateCentroids, output or idle */
+	String getPhase();
+
+	/** @return number of clusters of the current iteration */
+	int getClusterCount();
+
+	/** @return number of iterations completed */
+	int getIterationsCompleted();
+
+	/** @return total distance of the datapoints from their closest centroid at the last assignment */
+	double getCostKm();
+
+	/** @return change of the cost from the previous assignment, negative when the clustering improves */
+	double getCostDeltaKm();
+
+	/** @return datapoints that moved to another cluster in the last iteration */
+	long getLastMovedPoints();
+
+	/** @return datapoint/centroid distances evaluated by all assignments */
+	long getDistanceEvaluations();
+
+	/** @return datapoint/centroid distances a brute-force scan evaluates for all assignments */
+	long getBruteForceEvaluations();
+
+	/** @return small clusters merged */
+	int getMerges();
+
+	/** @return clusters split */
+	int getSplits();
+
+	/** @return time of the last iteration */
+	double getLastIterationMs();
+
+	/** @return time spent in seeding */
+	double getSeedingMs();
+
+	/** @return time spent in findBestClusters() */
+	double getAssignmentMs();
+
+	/** @return time spent in UpdateClusters() */
+	double getUpdateClustersMs();
+
+	/** @return time spent in UpdateEmptyCluster() */
+	double getUpdateEmptyClusterMs();
+
+	/** @return time spent in UpdateCentroids() */
+	double getUpdateCentroidsMs();
+
+	/** @return time spent writing the output */
+	double getOutputMs();
+}
@@ -0,0 +1,499 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Chooses the initial centroids among the datapoints.
+ *
+ * k-means++ picks the first centroid uniformly and every next one with a probability
+ * proportional to the squared great circle distance to the closest centroid picked so far.
+ * k-means|| oversamples candidates in a few parallel rounds with the same distribution,
+ * weights each candidate by the number of datapoints closest to it and runs a weighted
+ * k-means++ on the candidates only, so it needs a few passes over the datapoints instead
+ * of one pass per centroid. A weighted datapoint is picked as if each of its users were
+ * a datapoint.
+ *
+ * Datapoints are processed in fixed blocks and partial sums are combined in block order,
+ * so the chosen centroids depend on the seed only and not on the number of threads.
+ *************************************************************************************/
+public class Seeding
+{
+	/** Datapoints per block of work. */
+	private static final int BLOCK = 4096;
+
+	/** Number of worker threads. */
+	private final int mThreadCount;
+
+	/** Pool running the workers, null when single-threaded. */
+	private final ForkJoinPool mPool;
+
+	/** True if the pool was created by this seeding and is shut down with it. */
+	private final boolean mOwnsPool;
+
+	/** Seed of the random choices. */
+	private final long mSeed;
+
+	/**
+	 * Instantiates a new seeding.
+	 *
+	 * @param threadCount number of worker threads, 1 runs on the calling thread
+	 * @param seed seed of the random choices
+	 */
+	public Seeding(int threadCount, long seed)
+	{
+		mThreadCount = Math.max(1, threadCount);
+		mPool = (mThreadCount > 1) ? new ForkJoinPool(mThreadCount) : null;
+		mOwnsPool = true;
+		mSeed = seed;
+	}
+
+	/**
+	 * Instantiates a new seeding on a pool shared with other work.
+	 *
+	 * @param pool the shared pool, null runs on the calling thread
+	 * @param seed seed of the random choices
+	 */
+	public Seeding(ForkJoinPool pool, long seed)
+	{
+		mThreadCount = (pool == null) ? 1 : pool.getParallelism();
+		mPool = pool;
+		mOwnsPool = false;
+		mSeed = seed;
+	}
+
+	/*************************************************************************************
+	 * Release the worker threads.
+	 *************************************************************************************/
+	public void shutdown()
+	{
+		if ((mPool != null) && mOwnsPool)
+		{
+			mPool.shutdown();
+		}
+	}
+
+	/**
+	 * @return printable name of a seeding strategy of globalConstants
+	 */
+	public static String Name(int strategy)
+	{
+		switch (strategy)
+		{
+			case globalConstants.SEED_UNIFORM:
+				return "Uniform";
+			case globalConstants.SEED_KMEANS_PP:
+				return "k-means++";
+			case globalConstants.SEED_KMEANS_PARALLEL:
+				return "k-means||";
+			default:
+				return "Unknown(" + strategy + ")";
+		}
+	}
+
+	/*************************************************************************************
+	 * k-means++ seeding.
+	 *
+	 * @param points the point store, at least one datapoint
+	 * @param k number of centroids
+	 * @return indexes in the point store of the datapoints chosen as centroids
+	 *************************************************************************************/
+	public int[] KMeansPlusPlus(PointStore points, int k)
+	{
+		Random random = new Random(mSeed);
+		int n = points.size();
+		int[] centers = new int[k];
+		double[] dist2 = new double[n];
+		Arrays.fill(dist2, Double.MAX_VALUE);
+		double[] blockSums = new double[blockCount(n)];
+
+		centers[0] = first(points, random);
+		for (int c = 1; c < k; c++)
+		{
+			final int center = centers[c - 1];
+			forEachBlock(n, (from, to, block) -> {
+				double sum = 0;
+				for (int i = from; i < to; i++)
+				{
+					double d = Distance(points, i, center);
+					dist2[i] = Math.min(dist2[i], points.getWeight(i) * d * d);
+					sum += dist2[i];
+				}
+				blockSums[block] = sum;
+			});
+			centers[c] = sample(dist2, blockSums, random);
+		}
+		return centers;
+	}
+
+	/*************************************************************************************
+	 * k-means|| seeding.
+	 *
+	 * @param points the point store, at least one datapoint
+	 * @param k number of centroids
+	 * @param rounds number of oversampling rounds
+	 * @param oversampling expected candidates per round as a multiple of k
+	 * @return indexes in the point store of the datapoints chosen as centroids
+	 *************************************************************************************/
+	public int[] KMeansParallel(PointStore points, int k, int rounds, double oversampling)
+	{
+		Random random = new Random(mSeed);
+		int n = points.size();
+		double[] dist2 = new double[n];
+		Arrays.fill(dist2, Double.MAX_VALUE);
+		double[] blockSums = new double[blockCount(n)];
+		double expected = oversampling * k;
+
+		List<Integer> candidates = new ArrayList<>();
+		candidates.add(Integer.valueOf(first(points, random)));
+		List<Integer> added = candidates;
+		for (int r = 0; ; r++)
+		{
+			// Distance of every datapoint to the closest candidate
+			CentroidIndex index = indexOf(points, added);
+			CentroidIndex.Search[] searches = newSearches(blockCount(n));
+			forEachBlock(n, (from, to, block) -> {
+				CentroidIndex.Search search = searches[block];
+				double sum = 0;
+				for (int i = from; i < to; i++)
+				{
+					index.nearestCentroid(points, i, search);
+					dist2[i] = Math.min(dist2[i], points.getWeight(i) * search.mBestDist * search.mBestDist);
+					sum += dist2[i];
+				}
+				blockSums[block] = sum;
+			});
+			double cost = 0;
+			for (double s : blockSums)
+			{
+				cost += s;
+			}
+			if ((r == rounds) || (cost == 0))
+			{
+				break;
+			}
+
+			// Sample each datapoint independently with probability expected * d^2 / cost
+			final int round = r;
+			final double scale = expected / cost;
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			List<Integer>[] sampled = new List[blockCount(n)];
+			forEachBlock(n, (from, to, block) -> {
+				List<Integer> list = new ArrayList<>();
+				for (int i = from; i < to; i++)
+				{
+					if (uniform(round, i) < dist2[i] * scale)
+					{
+						list.add(Integer.valueOf(i));
+					}
+				}
+				sampled[block] = list;
+			});
+			added = new ArrayList<>();
+			for (List<Integer> list : sampled)
+			{
+				added.addAll(list);
+			}
+			candidates.addAll(added);
+			if (added.isEmpty())
+			{
+				break;
+			}
+		}
+
+		// Weight of a candidate : number of users of the datapoints closest to it
+		CentroidIndex index = indexOf(points, candidates);
+		CentroidIndex.Search[] searches = newSearches(blockCount(n));
+		long[] weights = new long[candidates.size()];
+		forEachBlock(n, (from, to, block) -> {
+			CentroidIndex.Search search = searches[block];
+			long[] local = new long[weights.length];
+			for (int i = from; i < to; i++)
+			{
+				index.nearestCentroid(points, i, search);
+				local[search.mBest] += points.getWeight(i);
+			}
+			synchronized (weights)
+			{
+				for (int c = 0; c < local.length; c++)
+				{
+					weights[c] += local[c];
+				}
+			}
+		});
+
+		return WeightedKMeansPlusPlus(points, candidates, weights, k, random);
+	}
+
+	/*************************************************************************************
+	 * k-means++ over weighted candidates. When there are fewer candidates than centroids,
+	 * candidates are used more than once.
+	 *************************************************************************************/
+	private static int[] WeightedKMeansPlusPlus(PointStore points, List<Integer> candidates, long[] weights, int k, Random random)
+	{
+		int m = candidates.size();
+		double[] lat = new double[m];
+		double[] lan = new double[m];
+		for (int c = 0; c < m; c++)
+		{
+			lat[c] = points.getLatitude(candidates.get(c).intValue());
+			lan[c] = points.getLongitude(candidates.get(c).intValue());
+		}
+
+		int[] centers = new int[k];
+		double[] cost = new double[m];
+		Arrays.fill(cost, Double.MAX_VALUE);
+		int chosen = pick(weights, random);
+		for (int j = 0; j < k; j++)
+		{
+			centers[j] = candidates.get(chosen).intValue();
+			double total = 0;
+			for (int c = 0; c < m; c++)
+			{
+				double d = GetGeoClusters.GreatCircleDistUsingHaverSine(lat[c], lan[c], lat[chosen], lan[chosen]);
+				cost[c] = Math.min(cost[c], weights[c] * d * d);
+				total += cost[c];
+			}
+			if (total == 0)
+			{
+				chosen = pick(weights, random);
+				continue;
+			}
+			double target = random.nextDouble() * total;
+			chosen = m - 1;
+			for (int c = 0; c < m; c++)
+			{
+				target -= cost[c];
+				if ((target < 0) && (cost[c] > 0))
+				{
+					chosen = c;
+					break;
+				}
+			}
+		}
+		return centers;
+	}
+
+	/**
+	 * @return index chosen with probability proportional to its weight
+	 */
+	private static int pick(long[] weights, Random random)
+	{
+		long total = 0;
+		for (long w : weights)
+		{
+			total += w;
+		}
+		double target = random.nextDouble() * total;
+		for (int c = 0; c < weights.length; c++)
+		{
+			target -= weights[c];
+			if ((target < 0) && (weights[c] > 0))
+			{
+				return c;
+			}
+		}
+		return weights.length - 1;
+	}
+
+	/**
+	 * @return first centroid, chosen uniformly among the users of the datapoints
+	 */
+	private static int first(PointStore points, Random random)
+	{
+		if (!points.hasWeights())
+		{
+			return random.nextInt(points.size());
+		}
+		long target = (long) (random.nextDouble() * points.totalWeight());
+		for (int i = 0; i < points.size(); i++)
+		{
+			target -= points.getWeight(i);
+			if (target < 0)
+			{
+				return i;
+			}
+		}
+		return points.size() - 1;
+	}
+
+	/**
+	 * @return datapoint chosen with probability proportional to dist2, uniformly if all are 0
+	 */
+	private static int sample(double[] dist2, double[] blockSums, Random random)
+	{
+		double total = 0;
+		for (double s : blockSums)
+		{
+			total += s;
+		}
+		if (total == 0)
+		{
+			return random.nextInt(dist2.length);
+		}
+		double target = random.nextDouble() * total;
+		int block = 0;
+		while ((block < blockSums.length - 1) && (target >= blockSums[block]))
+		{
+			target -= blockSums[block];
+			block++;
+		}
+		int to = Math.min(dist2.length, (block + 1) * BLOCK);
+		int last = -1;
+		for (int i = block * BLOCK; i < to; i++)
+		{
+			if (dist2[i] > 0)
+			{
+				last = i;
+				target -= dist2[i];
+				if (target < 0)
+				{
+					return i;
+				}
+			}
+		}
+		return (last == -1) ? random.nextInt(dist2.length) : last;
+	}
+
+	/**
+	 * @return uniform number in [0,1) for a datapoint in a round, independent of the order
+	 *         in which datapoints are visited
+	 */
+	private double uniform(int round, int index)
+	{
+		long z = mSeed + (0x9E3779B97F4A7C15L * ((((long) round) << 32) + index + 1));
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @return great circle distance in Kilometers between two datapoints
+	 */
+	private static double Distance(PointStore points, int index, int other)
+	{
+		if (points.hasUnitVectors())
+		{
+			return GeoMath.Distance(points.getX(index), points.getY(index), points.getZ(index), points.getX(other), points.getY(other), points.getZ(other));
+		}
+		return GetGeoClusters.GreatCircleDistUsingHaverSine(points.getLatitude(index), points.getLongitude(index), points.getLatitude(other), points.getLongitude(other));
+	}
+
+	/**
+	 * @return k-d tree over the locations of datapoints
+	 */
+	private static CentroidIndex indexOf(PointStore points, List<Integer> datapoints)
+	{
+		GetGeoClusters.Cluster[] clusters = new GetGeoClusters.Cluster[datapoints.size()];
+		int[] active = new int[clusters.length];
+		for (int c = 0; c < clusters.length; c++)
+		{
+			int i = datapoints.get(c).intValue();
+			clusters[c] = new GetGeoClusters.Cluster();
+			clusters[c].SetCentroid(points.getLatitude(i), points.getLongitude(i));
+			active[c] = c;
+		}
+		CentroidTable table = new CentroidTable(clusters, active);
+		return new CentroidIndex(table, active);
+	}
+
+	private static CentroidIndex.Search[] newSearches(int count)
+	{
+		CentroidIndex.Search[] searches = new CentroidIndex.Search[count];
+		for (int b = 0; b < count; b++)
+		{
+			searches[b] = new CentroidIndex.Search();
+		}
+		return searches;
+	}
+
+	private static int blockCount(int n)
+	{
+		return (n + BLOCK - 1) / BLOCK;
+	}
+
+	/*************************************************************************************
+	 * Work on the datapoints of one block.
+	 *************************************************************************************/
+	private interface BlockAction
+	{
+		void run(int from, int to, int block);
+	}
+
+	/**
+	 * Run an action on every block of datapoints, in parallel when there are worker threads.
+	 */
+	private void forEachBlock(int n, BlockAction action)
+	{
+		int blocks = blockCount(n);
+		if (mPool == null)
+		{
+			for (int b = 0; b < blocks; b++)
+			{
+				action.run(b * BLOCK, Math.min(n, (b + 1) * BLOCK), b);
+			}
+			return;
+		}
+		int grain = Math.max(1, blocks / (mThreadCount * 4));
+		BlockTask task = new BlockTask(n, 0, blocks, grain, action);
+		if (ForkJoinTask.getPool() == mPool)
+		{
+			task.invoke();
+		}
+		else
+		{
+			mPool.invoke(task);
+		}
+	}
+
+	/*************************************************************************************
+	 * Splits a range of blocks until it is small enough to run on one thread.
+	 *************************************************************************************/
+	private static final class BlockTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int mSize;
+		private final int mFrom;
+		private final int mTo;
+		private final int mGrain;
+		private final BlockAction mAction;
+
+		BlockTask(int size, int from, int to, int grain, BlockAction action)
+		{
+			mSize = size;
+			mFrom = from;
+			mTo = to;
+			mGrain = grain;
+			mAction = action;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (mTo - mFrom <= mGrain)
+			{
+				for (int b = mFrom; b < mTo; b++)
+				{
+					mAction.run(b * BLOCK, Math.min(mSize, (b + 1) * BLOCK), b);
+				}
+				return;
+			}
+			int mid = (mFrom + mTo) >>> 1;
+			invokeAll(new BlockTask(mSize, mFrom, mid, mGrain, mAction), new BlockTask(mSize, mid, mTo, mGrain, mAction));
+		}
+	}
+}
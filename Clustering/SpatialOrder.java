@@ -0,0 +1,137 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.util.Arrays;
+
+/*************************************************************************************
+ * Orders datapoints along a space-filling curve on the sphere, so that datapoints next to
+ * each other in the order are near each other on the ground.
+ *
+ * The sphere is projected on the six faces of a cube (as in S2 cell ids): the face is the
+ * axis of the largest component of the unit vector, and each face is divided in a
+ * 2^LEVEL x 2^LEVEL grid walked by a Hilbert curve. The key of a datapoint is its face
+ * followed by its position on the curve of the face; at LEVEL 14 a cell is about 600 m
+ * wide.
+ *************************************************************************************/
+final class SpatialOrder
+{
+	/** Hilbert curve level of a cube face. */
+	static final int LEVEL = 14;
+
+	/** Bits of the index of a datapoint in a packed key. */
+	private static final int INDEX_BITS = 31;
+
+	private SpatialOrder()
+	{
+	}
+
+	/*************************************************************************************
+	 * Order of the datapoints along the Hilbert curves of the cube faces. Datapoints of the
+	 * same cell keep their order.
+	 *
+	 * @param points the datapoints
+	 * @return index of the datapoint at every position of the order
+	 *************************************************************************************/
+	static int[] HilbertOrder(PointStore points)
+	{
+		int n = points.size();
+		long[] packed = new long[n];
+		for (int i = 0; i < n; i++)
+		{
+			packed[i] = ((long) Key(points.getLatitude(i), points.getLongitude(i)) << INDEX_BITS) | i;
+		}
+		Arrays.parallelSort(packed);
+		int[] order = new int[n];
+		int mask = (1 << INDEX_BITS) - 1;
+		for (int p = 0; p < n; p++)
+		{
+			order[p] = (int) (packed[p] & mask);
+		}
+		return order;
+	}
+
+	/*************************************************************************************
+	 * Key of a location: its cube face in the top bits, its position on the Hilbert curve
+	 * of the face in the 2 * LEVEL low bits.
+	 *
+	 * @param Latitude latitude of the location
+	 * @param Longitude longitude of the location
+	 * @return the key, less than 6 * 4^LEVEL
+	 *************************************************************************************/
+	static int Key(double Latitude, double Longitude)
+	{
+		double x = GeoMath.unitX(Latitude, Longitude);
+		double y = GeoMath.unitY(Latitude, Longitude);
+		double z = GeoMath.unitZ(Latitude);
+		double ax = Math.abs(x);
+		double ay = Math.abs(y);
+		double az = Math.abs(z);
+
+		// Face and coordinates (u,v) in [-1,1] on the face
+		int face;
+		double u;
+		double v;
+		if ((ax >= ay) && (ax >= az))
+		{
+			face = (x >= 0) ? 0 : 3;
+			u = y / ax;
+			v = z / ax;
+		}
+		else if (ay >= az)
+		{
+			face = (y >= 0) ? 1 : 4;
+			u = x / ay;
+			v = z / ay;
+		}
+		else
+		{
+			face = (z >= 0) ? 2 : 5;
+			u = x / az;
+			v = y / az;
+		}
+		int cells = 1 << LEVEL;
+		int i = Math.min(cells - 1, (int) (Area(u) * cells));
+		int j = Math.min(cells - 1, (int) (Area(v) * cells));
+		return (face << (2 * LEVEL)) | Hilbert(LEVEL, i, j);
+	}
+
+	/**
+	 * @return coordinate of a face in [-1,1] mapped to [0,1] so that cells have nearly equal areas (quadratic transform of S2)
+	 */
+	private static double Area(double u)
+	{
+		return (u >= 0) ? 0.5 * Math.sqrt(1 + 3 * u) : 1 - 0.5 * Math.sqrt(1 - 3 * u);
+	}
+
+	/**
+	 * @return position of cell (i,j) on the Hilbert curve of a 2^level x 2^level grid
+	 */
+	static int Hilbert(int level, int i, int j)
+	{
+		int n = 1 << level;
+		int d = 0;
+		for (int s = n >> 1; s > 0; s >>= 1)
+		{
+			int ri = ((i & s) != 0) ? 1 : 0;
+			int rj = ((j & s) != 0) ? 1 : 0;
+			d += s * s * ((3 * ri) ^ rj);
+			// Rotate the quadrant so that the curve of the sub-grid starts and ends next to its neighbours
+			if (rj == 0)
+			{
+				if (ri == 1)
+				{
+					i = n - 1 - i;
+					j = n - 1 - j;
+				}
+				int t = i;
+				i = j;
+				j = t;
+			}
+		}
+		return d;
+	}
+}
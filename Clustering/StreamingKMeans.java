@@ -0,0 +1,360 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import Defination.globalConstants;
+
+/*************************************************************************************
+ * Mini-batch K-Means over an input read batch by batch, for inputs that do not fit in
+ * memory. Only one batch of datapoints is held at a time.
+ *
+ * The centroids are seeded from the first batch. Every pass over the input assigns each
+ * batch to the current centroids and moves every centroid towards the mean of its
+ * datapoints in the batch with the learning rate 1 / (datapoints the cluster has received
+ * so far). The centroid is kept as running means of the latitude and of the sine and cosine
+ * of the longitude, so its longitude is the circular mean of UpdateCentroids(): after one
+ * pass the centroid is the mean of all datapoints it received.
+ *
+ * After the configured passes, one more pass finds the replica (datapoint nearest to the
+ * centroid) of every cluster and a last pass writes the users file, in the order of the
+ * input rather than cluster by cluster. Small clusters are not merged or split.
+ *************************************************************************************/
+final class StreamingKMeans
+{
+	/** Settings of the clustering. */
+	private final GeoKMeansConfig mConfig;
+
+	/** Pool of the parallel steps, null when single-threaded. */
+	private final ForkJoinPool mPool;
+
+	/** Assignment of a batch to the current centroids. */
+	private final AssignmentEngine mEngine;
+
+	private final int mClusterCount;
+
+	/** Centroids of the clusters; their sums and counts are not used. */
+	private final GetGeoClusters.Cluster[] mClustersArray;
+
+	/** All clusters receive datapoints. */
+	private final int[] mActive;
+
+	/** Running means of the datapoints received by every cluster: latitude, sine and cosine of longitude. */
+	private final double[] mMeanLat;
+	private final double[] mMeanSin;
+	private final double[] mMeanCos;
+
+	/** Number of datapoints received by every cluster over all passes. */
+	private final long[] mReceived;
+
+	/** The batch of datapoints read from the input. */
+	private final PointStore mBatch;
+
+	/** Identity order of the datapoints of a batch for the users file. */
+	private int[] mOrder = new int[0];
+
+	/**
+	 * Instantiates a new streaming clustering.
+	 *
+	 * @param config settings of the clustering
+	 * @param pool pool of the parallel steps, null runs on the calling thread
+	 */
+	StreamingKMeans(GeoKMeansConfig config, ForkJoinPool pool)
+	{
+		mConfig = config;
+		mPool = pool;
+		mEngine = new AssignmentEngine(pool, false, config.mUseCentroidIndex, config.mUseVectorKernel);
+		mClusterCount = config.mClusterCount;
+		mClustersArray = new GetGeoClusters.Cluster[mClusterCount];
+		mActive = new int[mClusterCount];
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			mClustersArray[i] = new GetGeoClusters.Cluster();
+			mActive[i] = i;
+		}
+		mMeanLat = new double[mClusterCount];
+		mMeanSin = new double[mClusterCount];
+		mMeanCos = new double[mClusterCount];
+		mReceived = new long[mClusterCount];
+		mBatch = new PointStore(config.mMiniBatchSize, config.mCompactPoints);
+	}
+
+	/*************************************************************************************
+	 * Cluster the datapoints of the input and write the output files of the configuration.
+	 *
+	 * @param in the input, at its first datapoint
+	 * @return the result, without the cluster of every datapoint
+	 * @throws IllegalArgumentException if the first batch has fewer datapoints than clusters
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	GeoKMeansResult run(LocationBatchReader in) throws IOException
+	{
+		long start = System.currentTimeMillis();
+		if (readBatch(in) < mClusterCount)
+		{
+			throw new IllegalArgumentException("The first batch of " + in.getFileName() + " has " + mBatch.size() + " datapoints for " + mClusterCount + " clusters");
+		}
+		seedCentroids();
+
+		NumberFormat formatter = new DecimalFormat("#0.00");
+		for (int pass = 1; pass <= mConfig.mMiniBatchPasses; pass++)
+		{
+			long passStart = System.currentTimeMillis();
+			double[] passLat = new double[mClusterCount];
+			double[] passLan = new double[mClusterCount];
+			for (int i = 0; i < mClusterCount; i++)
+			{
+				passLat[i] = mClustersArray[i].mCx;
+				passLan[i] = mClustersArray[i].mCy;
+			}
+			long datapoints = 0;
+			long cost = 0;
+			int batches = 0;
+			if (pass > 1)
+			{
+				in.rewind();
+				readBatch(in);
+			}
+			while (mBatch.size() > 0)
+			{
+				AssignmentResult assigned = mEngine.assign(mBatch, new CentroidTable(mClustersArray, mActive));
+				cost += sum(assigned.mClusterCost);
+				datapoints += mBatch.size();
+				batches++;
+				UpdateCentroids();
+				readBatch(in);
+			}
+			double shift = 0;
+			for (int i = 0; i < mClusterCount; i++)
+			{
+				shift = Math.max(shift, GetGeoClusters.GreatCircleDistUsingHaverSine(passLat[i], passLan[i], mClustersArray[i].mCx, mClustersArray[i].mCy));
+			}
+			mConfig.mLogger.logAndPrint("StreamingKMeans pass " + pass + " : " + datapoints + " datapoints in " + batches + " batches, average distance from centroid "
+					+ formatter.format(cost / 1000.0 / Math.max(datapoints, 1)) + " Kilometer, largest centroid shift " + formatter.format(shift) + " Kilometer, "
+					+ (System.currentTimeMillis() - passStart) + " ms");
+		}
+
+		// Replicas of the final centroids
+		in.rewind();
+		long[] sizes = new long[mClusterCount];
+		double[] nearestLat = new double[mClusterCount];
+		double[] nearestLan = new double[mClusterCount];
+		long UsersCount = findReplicas(in, sizes, nearestLat, nearestLan);
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			if (sizes[i] < mConfig.mMinClusterSize)
+			{
+				mConfig.mLogger.logAndPrint("StreamingKMeans : cluster " + i + " has " + sizes[i] + " datapoints, fewer than " + mConfig.mMinClusterSize);
+			}
+		}
+
+		double TotalDistance = 0;
+		if ((mConfig.mUsersFile != null) && (mConfig.mClustersFile != null))
+		{
+			in.rewind();
+			TotalDistance = WriteUsers(in, nearestLat, nearestLan, UsersCount);
+			ClusterOutputWriter.WriteClusters(mConfig.mClustersFile, nearestLat, nearestLan, TotalDistance, UsersCount);
+			mConfig.mLogger.logAndPrint("\nTotal Datapoints = " + UsersCount);
+			mConfig.mLogger.logAndPrint("Total Distance of datapoints= " + formatter.format(TotalDistance) + " Kilometer");
+			mConfig.mLogger.logAndPrint("Average Distance of a datapoint= " + formatter.format(TotalDistance / UsersCount) + " Kilometer");
+		}
+		mConfig.mLogger.logAndPrint("StreamingKMeans.run() completed in " + (System.currentTimeMillis() - start) + " ms");
+
+		double[] centroidLat = new double[mClusterCount];
+		double[] centroidLan = new double[mClusterCount];
+		int[] clusterSizes = new int[mClusterCount];
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			centroidLat[i] = mClustersArray[i].mCx;
+			centroidLan[i] = mClustersArray[i].mCy;
+			clusterSizes[i] = (int) Math.min(sizes[i], Integer.MAX_VALUE);
+		}
+		return new GeoKMeansResult(centroidLat, centroidLan, nearestLat, nearestLan, clusterSizes, new int[0], UsersCount, TotalDistance, mConfig.mMiniBatchPasses, false);
+	}
+
+	/**
+	 * Read the next batch of the input, with its unit vectors when they are used.
+	 *
+	 * @return number of datapoints in the batch, 0 at the end of the input
+	 */
+	private int readBatch(LocationBatchReader in) throws IOException
+	{
+		int n = in.next(mBatch, mConfig.mMiniBatchSize);
+		if ((n > 0) && mConfig.mUseUnitVectors)
+		{
+			mBatch.computeUnitVectors();
+		}
+		return n;
+	}
+
+	/*************************************************************************************
+	 * Choose the initial centroids among the datapoints of the first batch with k-means++
+	 * or k-means||. Uniform seeding needs the bounding box of all datapoints, which is not
+	 * known before the input is read, so k-means++ is used instead.
+	 *************************************************************************************/
+	private void seedCentroids()
+	{
+		Seeding seeding = new Seeding(mPool, mConfig.mSeed);
+		int[] seeds;
+		try
+		{
+			if (mConfig.mSeeding == globalConstants.SEED_KMEANS_PARALLEL)
+			{
+				seeds = seeding.KMeansParallel(mBatch, mClusterCount, mConfig.mSeedingRounds, mConfig.mSeedingOversampling);
+			}
+			else
+			{
+				seeds = seeding.KMeansPlusPlus(mBatch, mClusterCount);
+			}
+		}
+		finally
+		{
+			seeding.shutdown();
+		}
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			double lat = mBatch.getLatitude(seeds[i]);
+			double lan = Math.toRadians(mBatch.getLongitude(seeds[i]));
+			mMeanLat[i] = lat;
+			mMeanSin[i] = Math.sin(lan);
+			mMeanCos[i] = Math.cos(lan);
+			mClustersArray[i].SetCentroid(lat, mBatch.getLongitude(seeds[i]));
+		}
+	}
+
+	/*************************************************************************************
+	 * Move every centroid towards the mean of its datapoints in the batch. A cluster that
+	 * had received n datapoints and receives b more from the batch moves by b / (n + b) of
+	 * the way, which keeps it the mean of all datapoints it received.
+	 *************************************************************************************/
+	private void UpdateCentroids()
+	{
+		double[] SumLat = new double[mClusterCount];
+		double[] SumSin = new double[mClusterCount];
+		double[] SumCos = new double[mClusterCount];
+		int[] count = new int[mClusterCount];
+		for (int i = 0; i < mBatch.size(); i++)
+		{
+			int cid = mBatch.getNewClusterId(i);
+			double lan = Math.toRadians(mBatch.getLongitude(i));
+			SumLat[cid] += mBatch.getLatitude(i);
+			SumSin[cid] += Math.sin(lan);
+			SumCos[cid] += Math.cos(lan);
+			count[cid]++;
+		}
+		for (int i = 0; i < mClusterCount; i++)
+		{
+			if (count[i] == 0)
+			{
+				continue;
+			}
+			mReceived[i] += count[i];
+			double rate = (double) count[i] / mReceived[i];
+			mMeanLat[i] += rate * ((SumLat[i] / count[i]) - mMeanLat[i]);
+			mMeanSin[i] += rate * ((SumSin[i] / count[i]) - mMeanSin[i]);
+			mMeanCos[i] += rate * ((SumCos[i] / count[i]) - mMeanCos[i]);
+			mClustersArray[i].SetCentroid(mMeanLat[i], Math.toDegrees(Math.atan2(mMeanSin[i], mMeanCos[i])));
+		}
+	}
+
+	/*************************************************************************************
+	 * Assign all datapoints of the input to the final centroids and find the datapoint
+	 * nearest to the centroid of every cluster.
+	 *
+	 * @param in the input, at its first datapoint
+	 * @param sizes receives the number of datapoints of every cluster
+	 * @param nearestLat receives the latitude of the replica of every cluster, 0 for an empty cluster
+	 * @param nearestLan receives the longitude of the replica of every cluster, 0 for an empty cluster
+	 * @return number of datapoints
+	 *************************************************************************************/
+	private long findReplicas(LocationBatchReader in, long[] sizes, double[] nearestLat, double[] nearestLan) throws IOException
+	{
+		CentroidTable centroids = new CentroidTable(mClustersArray, mActive);
+		double[] loopCloseness = new double[mClusterCount];
+		Arrays.fill(loopCloseness, Double.NEGATIVE_INFINITY);
+		long UsersCount = 0;
+		while (readBatch(in) > 0)
+		{
+			mEngine.assign(mBatch, centroids);
+			for (int i = 0; i < mBatch.size(); i++)
+			{
+				int clusterid = mBatch.getNewClusterId(i);
+				double Closeness = Closeness(i, clusterid);
+				if (loopCloseness[clusterid] < Closeness)
+				{
+					loopCloseness[clusterid] = Closeness;
+					nearestLat[clusterid] = mBatch.getLatitude(i);
+					nearestLan[clusterid] = mBatch.getLongitude(i);
+				}
+				sizes[clusterid]++;
+			}
+			UsersCount += mBatch.size();
+		}
+		return UsersCount;
+	}
+
+	/*************************************************************************************
+	 * Assign all datapoints of the input to the final centroids and write them to the users
+	 * file in the order of the input.
+	 *
+	 * @return total distance of the datapoints from the replicas of their clusters
+	 *************************************************************************************/
+	private double WriteUsers(LocationBatchReader in, double[] nearestLat, double[] nearestLan, long UsersCount) throws IOException
+	{
+		CentroidTable centroids = new CentroidTable(mClustersArray, mActive);
+		ClusterOutputWriter writer = new ClusterOutputWriter(mPool, mConfig.mOutputFormat);
+		try (ClusterOutputWriter.Appender out = writer.new Appender(mConfig.mUsersFile, nearestLat, nearestLan, UsersCount))
+		{
+			while (readBatch(in) > 0)
+			{
+				mEngine.assign(mBatch, centroids);
+				int n = mBatch.size();
+				for (int i = 0; i < n; i++)
+				{
+					mBatch.setClusterId(i, mBatch.getNewClusterId(i));
+				}
+				if (mOrder.length != n)
+				{
+					mOrder = new int[n];
+					for (int i = 0; i < n; i++)
+					{
+						mOrder[i] = i;
+					}
+				}
+				out.append(mBatch, mOrder);
+			}
+			return out.getTotalDistance();
+		}
+	}
+
+	/**
+	 * How close a datapoint of the batch is to the centroid of a cluster. Larger is closer.
+	 */
+	private double Closeness(int index, int ClusterId)
+	{
+		GetGeoClusters.Cluster c = mClustersArray[ClusterId];
+		if (mBatch.hasUnitVectors())
+		{
+			return mBatch.getX(index) * c.mUx + mBatch.getY(index) * c.mUy + mBatch.getZ(index) * c.mUz;
+		}
+		return -GetGeoClusters.GreatCircleDistUsingHaverSine(mBatch.getLatitude(index), mBatch.getLongitude(index), c.mCx, c.mCy);
+	}
+
+	private static long sum(long[] values)
+	{
+		long total = 0;
+		for (long v : values)
+		{
+			total += v;
+		}
+		return total;
+	}
+}
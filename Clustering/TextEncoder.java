@@ -0,0 +1,232 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/*************************************************************************************
+ * Appends text lines to a growable byte array without creating objects per value.
+ * Doubles are written exactly as DecimalFormat("#0.00") of the default locale writes them
+ * (round half even on the exact binary value, "-0.00" for small negative values), in the
+ * default charset, as FileWriter does.
+ * A value is rounded from value * 100 unless it lies so close to a tie that the product
+ * may be rounded the wrong way; then, and for values the fast path does not cover, the
+ * value goes through BigDecimal or DecimalFormat.
+ * Not thread-safe: every thread uses its own encoder.
+ *************************************************************************************/
+final class TextEncoder
+{
+	/** Largest magnitude formatted on the fast path; value * 100 has an error far below the tie margin. */
+	private static final double FAST_LIMIT = 1e9;
+
+	/** Distance from a tie under which the rounding is decided on the exact value. */
+	private static final double TIE_MARGIN = 1e-4;
+
+	/** Longest text of an int or of a value on the fast path. */
+	private static final int MAX_NUMBER = 24;
+
+	private final DecimalFormat mFormat = new DecimalFormat("#0.00");
+	private final Charset mCharset = Charset.defaultCharset();
+
+	/** True if the symbols of the locale are the ASCII ones, so digits are written as bytes directly. */
+	private final boolean mAsciiSymbols;
+	private final byte mSeparator;
+	private final byte mMinus;
+
+	private byte[] mBuf;
+	private int mPos;
+
+	/**
+	 * Instantiates a new encoder.
+	 *
+	 * @param capacity initial size of the buffer in bytes
+	 */
+	TextEncoder(int capacity)
+	{
+		mBuf = new byte[Math.max(capacity, 64)];
+		DecimalFormatSymbols symbols = mFormat.getDecimalFormatSymbols();
+		char separator = symbols.getDecimalSeparator();
+		char minus = symbols.getMinusSign();
+		mAsciiSymbols = (symbols.getZeroDigit() == '0') && (separator < 0x80) && (minus < 0x80) && isAsciiCompatible(mCharset);
+		mSeparator = (byte) separator;
+		mMinus = (byte) minus;
+	}
+
+	private static boolean isAsciiCompatible(Charset charset)
+	{
+		byte[] b = "0123456789.-\t\n".getBytes(charset);
+		return (b.length == 14) && (b[0] == '0') && (b[10] == '.') && (b[13] == '\n');
+	}
+
+	/**
+	 * Forget the encoded bytes.
+	 */
+	void reset()
+	{
+		mPos = 0;
+	}
+
+	/**
+	 * @return the buffer, valid up to length()
+	 */
+	byte[] buffer()
+	{
+		return mBuf;
+	}
+
+	/**
+	 * @return number of encoded bytes
+	 */
+	int length()
+	{
+		return mPos;
+	}
+
+	/**
+	 * Append an ASCII character.
+	 */
+	TextEncoder append(char c)
+	{
+		ensure(1);
+		mBuf[mPos++] = (byte) c;
+		return this;
+	}
+
+	/**
+	 * Append text in the default charset.
+	 */
+	TextEncoder append(String s)
+	{
+		byte[] b = s.getBytes(mCharset);
+		ensure(b.length);
+		System.arraycopy(b, 0, mBuf, mPos, b.length);
+		mPos += b.length;
+		return this;
+	}
+
+	/**
+	 * Append an int as String.valueOf() writes it.
+	 */
+	TextEncoder append(int v)
+	{
+		ensure(MAX_NUMBER);
+		long n = v;
+		if (n < 0)
+		{
+			mBuf[mPos++] = '-';
+			n = -n;
+		}
+		putDigits(n);
+		return this;
+	}
+
+	/*************************************************************************************
+	 * Append a double as DecimalFormat("#0.00").format() writes it.
+	 *
+	 * @param v the value
+	 * @return this encoder
+	 *************************************************************************************/
+	TextEncoder appendFixed2(double v)
+	{
+		if (!mAsciiSymbols || !(Math.abs(v) < FAST_LIMIT))
+		{
+			// NaN, infinities, huge values and non ASCII locales
+			return append(mFormat.format(v));
+		}
+		boolean negative = (v < 0) || ((v == 0) && (Double.doubleToRawLongBits(v) != 0));
+		double a = Math.abs(v);
+		double y = a * 100;
+		long n = (long) y;
+		double frac = y - n;
+		if (Math.abs(frac - 0.5) < TIE_MARGIN)
+		{
+			n = new BigDecimal(a).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+		}
+		else if (frac > 0.5)
+		{
+			n++;
+		}
+
+		ensure(MAX_NUMBER);
+		if (negative)
+		{
+			mBuf[mPos++] = mMinus;
+		}
+		putDigits(n / 100);
+		int cents = (int) (n % 100);
+		mBuf[mPos++] = mSeparator;
+		mBuf[mPos++] = (byte) ('0' + (cents / 10));
+		mBuf[mPos++] = (byte) ('0' + (cents % 10));
+		return this;
+	}
+
+	/*************************************************************************************
+	 * Append value / 10^decimals with exactly decimals digits after a '.', as the location
+	 * files of users are written (e.g. 31446821, 6 : "31.446821").
+	 *
+	 * @param value the scaled value
+	 * @param decimals number of digits after the point, 1 to 18
+	 * @return this encoder
+	 *************************************************************************************/
+	TextEncoder appendScaled(long value, int decimals)
+	{
+		ensure(MAX_NUMBER + decimals);
+		long scale = 1;
+		for (int d = 0; d < decimals; d++)
+		{
+			scale *= 10;
+		}
+		if (value < 0)
+		{
+			mBuf[mPos++] = '-';
+			value = -value;
+		}
+		putDigits(value / scale);
+		mBuf[mPos++] = '.';
+		long fraction = value % scale;
+		for (int d = decimals - 1; d >= 0; d--)
+		{
+			mBuf[mPos + d] = (byte) ('0' + (fraction % 10));
+			fraction /= 10;
+		}
+		mPos += decimals;
+		return this;
+	}
+
+	/**
+	 * Write the decimal digits of a non-negative number.
+	 */
+	private void putDigits(long n)
+	{
+		int start = mPos;
+		do
+		{
+			mBuf[mPos++] = (byte) ('0' + (n % 10));
+			n /= 10;
+		}
+		while (n != 0);
+		for (int i = start, j = mPos - 1; i < j; i++, j--)
+		{
+			byte t = mBuf[i];
+			mBuf[i] = mBuf[j];
+			mBuf[j] = t;
+		}
+	}
+
+	private void ensure(int extra)
+	{
+		if (mPos + extra > mBuf.length)
+		{
+			byte[] grown = new byte[Math.max(mBuf.length * 2, mPos + extra)];
+			System.arraycopy(mBuf, 0, grown, 0, mPos);
+			mBuf = grown;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.util.Arrays;
+
+/*************************************************************************************
+ * Finds the datapoints of a user id in a point store.
+ * An open addressing table over the ids gives the first datapoint of every id; the other
+ * datapoints of an id, as user ids need not be unique, are chained in store order.
+ *************************************************************************************/
+final class UserIdIndex
+{
+	/** Ids of the table slots, and first datapoint of the id of a slot, -1 for a free slot. */
+	private final int[] mKeys;
+	private final int[] mFirst;
+
+	/** Next datapoint of the same id, -1 after the last one. */
+	private final int[] mNext;
+
+	private final int mMask;
+	private final int mShift;
+
+	/*************************************************************************************
+	 * Index the user ids of a point store.
+	 *
+	 * @param points the datapoints
+	 *************************************************************************************/
+	UserIdIndex(PointStore points)
+	{
+		int n = points.size();
+		int capacity = Integer.highestOneBit(Math.min(Math.max(n, 1), 1 << 28)) * 4;
+		mKeys = new int[capacity];
+		mFirst = new int[capacity];
+		mNext = new int[n];
+		mMask = capacity - 1;
+		mShift = Integer.numberOfLeadingZeros(capacity) + 1;
+		Arrays.fill(mFirst, -1);
+
+		// Backwards, so that every chain is in store order
+		for (int i = n - 1; i >= 0; i--)
+		{
+			int id = points.getId(i);
+			int slot = slot(id);
+			mKeys[slot] = id;
+			mNext[i] = mFirst[slot];
+			mFirst[slot] = i;
+		}
+	}
+
+	/**
+	 * @return slot of an id, or the free slot where it would go
+	 */
+	private int slot(int id)
+	{
+		// Fibonacci hashing: the high bits of the product mix all bits of the id
+		int slot = (id * 0x9E3779B9) >>> mShift;
+		while ((mFirst[slot] != -1) && (mKeys[slot] != id))
+		{
+			slot = (slot + 1) & mMask;
+		}
+		return slot;
+	}
+
+	/**
+	 * @return first datapoint of a user id, -1 if there is none
+	 */
+	int first(int id)
+	{
+		return mFirst[slot(id)];
+	}
+
+	/**
+	 * @return next datapoint with the user id of a datapoint, -1 after the last one
+	 */
+	int next(int index)
+	{
+		return mNext[index];
+	}
+}
@@ -0,0 +1,333 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/*************************************************************************************
+ * Loader of the user location file (UserId \t Latitude \t Longitude per line).
+ * The file is memory-mapped and split at line boundaries into chunks that are parsed in
+ * parallel straight from the mapped bytes into the point store, without creating a String
+ * per line. Rows that cannot be parsed or lie outside the earth are counted and skipped.
+ *************************************************************************************/
+public final class UserLocationLoader
+{
+	/** Smallest and largest chunk parsed by one task. */
+	private static final long MIN_CHUNK = 1L << 20;
+	private static final long MAX_CHUNK = 1L << 28;
+
+	/** Number of bad line numbers remembered for the report. */
+	static final int MAX_REPORTED_LINES = 10;
+
+	private UserLocationLoader()
+	{
+		// Prevents instantiation
+	}
+
+	/*************************************************************************************
+	 * Summary of a load: number of rows and the bounding box of the loaded datapoints.
+	 *************************************************************************************/
+	public static final class LoadReport
+	{
+		/** Lines in the file. */
+		public long mRows;
+
+		/** Lines whose fields could not be parsed. */
+		public long mMalformed;
+
+		/** Lines with a latitude or longitude outside the earth. */
+		public long mOutOfRange;
+
+		/** Line numbers (1 based) of the first bad lines. */
+		public final List<Long> mBadLines = new ArrayList<>();
+
+		/** Range of latitudes and longitudes of loaded datapoints */
+		public double mMinLat = Double.MAX_VALUE;
+		public double mMaxLat = -Double.MAX_VALUE;
+		public double mMinLan = Double.MAX_VALUE;
+		public double mMaxLan = -Double.MAX_VALUE;
+
+		private void merge(ChunkParser chunk)
+		{
+			mMalformed += chunk.mMalformed;
+			mOutOfRange += chunk.mOutOfRange;
+			for (int i = 0; (i < chunk.mBadLineCount) && (mBadLines.size() < MAX_REPORTED_LINES); i++)
+			{
+				mBadLines.add(Long.valueOf(chunk.mFirstLine + chunk.mBadLines[i] + 1));
+			}
+			mMinLat = Math.min(mMinLat, chunk.mMinLat);
+			mMaxLat = Math.max(mMaxLat, chunk.mMaxLat);
+			mMinLan = Math.min(mMinLan, chunk.mMinLan);
+			mMaxLan = Math.max(mMaxLan, chunk.mMaxLan);
+		}
+	}
+
+	/*************************************************************************************
+	 * Load all valid rows of a user location file.
+	 *
+	 * @param fileName the user location file
+	 * @param threadCount number of threads parsing chunks
+	 * @param report receives the counts of the load
+	 * @return the point store, in file order
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static PointStore load(String fileName, int threadCount, LoadReport report) throws IOException
+	{
+		return load(fileName, threadCount, report, false);
+	}
+
+	/*************************************************************************************
+	 * Load all valid rows of a user location file.
+	 *
+	 * @param fileName the user location file
+	 * @param threadCount number of threads parsing chunks
+	 * @param report receives the counts of the load
+	 * @param compact true to load into compact columns (see PointStore)
+	 * @return the point store, in file order
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	public static PointStore load(String fileName, int threadCount, LoadReport report, boolean compact) throws IOException
+	{
+		threadCount = Math.max(1, threadCount);
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r"); FileChannel channel = file.getChannel())
+		{
+			long[] bounds = ChunkBounds(channel, threadCount);
+			int chunkCount = bounds.length - 1;
+			ForkJoinPool pool = new ForkJoinPool(threadCount);
+			try
+			{
+				// Pass 1 : count lines of every chunk to know where its rows go
+				List<Callable<Long>> counters = new ArrayList<>();
+				for (int c = 0; c < chunkCount; c++)
+				{
+					final long start = bounds[c];
+					final long end = bounds[c + 1];
+					counters.add(() -> Long.valueOf(CountLines(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start))));
+				}
+				long[] firstLine = new long[chunkCount + 1];
+				List<Future<Long>> counts = pool.invokeAll(counters);
+				for (int c = 0; c < chunkCount; c++)
+				{
+					firstLine[c + 1] = firstLine[c] + counts.get(c).get().longValue();
+				}
+				report.mRows = firstLine[chunkCount];
+				if (report.mRows > Integer.MAX_VALUE - 8)
+				{
+					throw new IOException("Too many rows in " + fileName + " : " + report.mRows);
+				}
+
+				// Pass 2 : parse every chunk into its slots of the point store
+				PointStore store = PointStore.allocate((int) report.mRows, compact);
+				List<ChunkParser> parsers = new ArrayList<>();
+				for (int c = 0; c < chunkCount; c++)
+				{
+					parsers.add(new ChunkParser(channel, bounds[c], bounds[c + 1], store, firstLine[c]));
+				}
+				for (Future<ChunkParser> f : pool.invokeAll(parsers))
+				{
+					f.get();
+				}
+
+				// Close the gaps left by skipped rows
+				int loaded = 0;
+				for (ChunkParser chunk : parsers)
+				{
+					if (loaded != chunk.mFirstLine)
+					{
+						store.moveRange((int) chunk.mFirstLine, loaded, chunk.mLoaded);
+					}
+					loaded += chunk.mLoaded;
+					report.merge(chunk);
+				}
+				store.truncate(loaded);
+				store.trimToSize();
+				return store;
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while loading " + fileName, e);
+			}
+			catch (ExecutionException e)
+			{
+				throw new IOException("Failed to load " + fileName, e.getCause());
+			}
+			finally
+			{
+				pool.shutdown();
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * Split the file in chunks that start at the beginning of a line.
+	 *
+	 * @return offsets of chunks; chunk i is [bounds[i], bounds[i+1])
+	 *************************************************************************************/
+	static long[] ChunkBounds(FileChannel channel, int threadCount) throws IOException
+	{
+		long size = channel.size();
+		long chunkSize = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (threadCount * 4L)));
+		List<Long> bounds = new ArrayList<>();
+		bounds.add(Long.valueOf(0));
+		ByteBuffer window = ByteBuffer.allocate(4096);
+		long position = chunkSize;
+		while (position < size)
+		{
+			// Move the boundary after the next end of line
+			long boundary = -1;
+			long scan = position - 1;
+			while ((boundary == -1) && (scan < size))
+			{
+				window.clear();
+				int read = channel.read(window, scan);
+				for (int i = 0; i < read; i++)
+				{
+					if (window.get(i) == '\n')
+					{
+						boundary = scan + i + 1;
+						break;
+					}
+				}
+				scan += Math.max(read, 1);
+			}
+			if ((boundary == -1) || (boundary >= size))
+			{
+				break;
+			}
+			bounds.add(Long.valueOf(boundary));
+			position = boundary + chunkSize;
+		}
+		bounds.add(Long.valueOf(size));
+
+		long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++)
+		{
+			result[i] = bounds.get(i).longValue();
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of lines in a chunk, counting a last line without end of line
+	 */
+	static long CountLines(MappedByteBuffer buffer)
+	{
+		int limit = buffer.limit();
+		long lines = 0;
+		for (int i = 0; i < limit; i++)
+		{
+			if (buffer.get(i) == '\n')
+			{
+				lines++;
+			}
+		}
+		if ((limit > 0) && (buffer.get(limit - 1) != '\n'))
+		{
+			lines++;
+		}
+		return lines;
+	}
+
+	/*************************************************************************************
+	 * Parses the lines of one chunk into consecutive slots of the point store starting at
+	 * the index of its first line.
+	 *************************************************************************************/
+	private static final class ChunkParser implements Callable<ChunkParser>
+	{
+		private final FileChannel mChannel;
+		private final long mStart;
+		private final long mEnd;
+		private final PointStore mStore;
+
+		/** Index (0 based) of the first line of the chunk in the file. */
+		final long mFirstLine;
+
+		int mLoaded;
+		long mMalformed;
+		long mOutOfRange;
+		final long[] mBadLines = new long[MAX_REPORTED_LINES];
+		int mBadLineCount;
+		double mMinLat = Double.MAX_VALUE;
+		double mMaxLat = -Double.MAX_VALUE;
+		double mMinLan = Double.MAX_VALUE;
+		double mMaxLan = -Double.MAX_VALUE;
+
+		private final LocationLineParser mParser = new LocationLineParser();
+
+		ChunkParser(FileChannel channel, long start, long end, PointStore store, long firstLine)
+		{
+			mChannel = channel;
+			mStart = start;
+			mEnd = end;
+			mStore = store;
+			mFirstLine = firstLine;
+		}
+
+		@Override
+		public ChunkParser call() throws IOException
+		{
+			MappedByteBuffer buffer = mChannel.map(FileChannel.MapMode.READ_ONLY, mStart, mEnd - mStart);
+			int limit = buffer.limit();
+			int slot = (int) mFirstLine;
+			long line = 0;
+			int lineStart = 0;
+			while (lineStart < limit)
+			{
+				int lineEnd = lineStart;
+				while ((lineEnd < limit) && (buffer.get(lineEnd) != '\n'))
+				{
+					lineEnd++;
+				}
+				int next = lineEnd + 1;
+				if ((lineEnd > lineStart) && (buffer.get(lineEnd - 1) == '\r'))
+				{
+					lineEnd--;
+				}
+
+				int status = mParser.parse(buffer, lineStart, lineEnd);
+				if (status == LocationLineParser.OK)
+				{
+					mStore.set(slot, mParser.mLat, mParser.mLan, mParser.mId);
+					mMinLat = Math.min(mMinLat, mParser.mLat);
+					mMaxLat = Math.max(mMaxLat, mParser.mLat);
+					mMinLan = Math.min(mMinLan, mParser.mLan);
+					mMaxLan = Math.max(mMaxLan, mParser.mLan);
+					slot++;
+					mLoaded++;
+				}
+				else
+				{
+					if (status == LocationLineParser.MALFORMED)
+					{
+						mMalformed++;
+					}
+					else
+					{
+						mOutOfRange++;
+					}
+					if (mBadLineCount < MAX_REPORTED_LINES)
+					{
+						mBadLines[mBadLineCount++] = line;
+					}
+				}
+				line++;
+				lineStart = next;
+			}
+			return this;
+		}
+	}
+}
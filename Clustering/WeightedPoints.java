@@ -0,0 +1,215 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/*************************************************************************************
+ * Datapoints collapsed into weighted datapoints: users at the same coordinates, or in the
+ * same cell of a latitude/longitude grid, become one datapoint whose weight is their
+ * number. The clustering runs on the weighted datapoints and the cluster of every user is
+ * expanded back from them when the users file is written. The weighted datapoints can
+ * also be reordered (see SpatialOrder), the users keep their order.
+ *
+ * A weighted datapoint has the coordinates and user id of the first user of its cell, so
+ * a replica is always the location of a user; the users of a cell are at most one cell
+ * away from it.
+ *************************************************************************************/
+final class WeightedPoints
+{
+	/** The datapoints of every user. */
+	private final PointStore mUsers;
+
+	/** The weighted datapoints. */
+	private final PointStore mPoints;
+
+	/** Index of the weighted datapoint of every user. */
+	private final int[] mRepresentative;
+
+	private WeightedPoints(PointStore users, PointStore points, int[] representative)
+	{
+		mUsers = users;
+		mPoints = points;
+		mRepresentative = representative;
+	}
+
+	/*************************************************************************************
+	 * Collapse the users of every cell into one weighted datapoint, in the order of the
+	 * first user of every cell.
+	 *
+	 * @param users the datapoints of every user
+	 * @param resolution size of a grid cell in degrees, 0 to collapse only identical coordinates
+	 * @param compact true for compact columns of the weighted datapoints (see PointStore)
+	 * @return the weighted datapoints
+	 *************************************************************************************/
+	static WeightedPoints collapse(PointStore users, double resolution, boolean compact)
+	{
+		int n = users.size();
+		int bits = 1;
+		while ((bits < 30) && ((1 << bits) < 2L * n))
+		{
+			bits++;
+		}
+		int shift = 64 - bits;
+		int mask = (1 << bits) - 1;
+
+		// Open addressing table of the weighted datapoints by cell
+		int[] slots = new int[1 << bits];
+		Arrays.fill(slots, -1);
+		int[] first = new int[Math.max(n, 1)];
+		int[] weight = new int[Math.max(n, 1)];
+		int[] representative = new int[n];
+		int count = 0;
+		for (int i = 0; i < n; i++)
+		{
+			long cellLat = Cell(users.getLatitude(i), resolution);
+			long cellLan = Cell(users.getLongitude(i), resolution);
+			int slot = (int) ((((cellLat * 0x9E3779B97F4A7C15L) + cellLan) * 0x9E3779B97F4A7C15L) >>> shift);
+			while (true)
+			{
+				int g = slots[slot];
+				if (g == -1)
+				{
+					g = count++;
+					slots[slot] = g;
+					first[g] = i;
+				}
+				else if ((Cell(users.getLatitude(first[g]), resolution) != cellLat) || (Cell(users.getLongitude(first[g]), resolution) != cellLan))
+				{
+					slot = (slot + 1) & mask;
+					continue;
+				}
+				weight[g]++;
+				representative[i] = g;
+				break;
+			}
+		}
+
+		PointStore points = PointStore.allocate(count, compact);
+		IntColumn.Heap weights = new IntColumn.Heap(Math.max(count, 1));
+		for (int g = 0; g < count; g++)
+		{
+			int dp = first[g];
+			points.set(g, users.getLatitude(dp), users.getLongitude(dp), users.getId(dp));
+			weights.set(g, weight[g]);
+		}
+		points.setWeights(weights);
+		return new WeightedPoints(users, points, representative);
+	}
+
+	/*************************************************************************************
+	 * Every user as a datapoint of its own, to be reordered.
+	 *
+	 * @param users the datapoints of every user
+	 * @return the datapoints, each standing for its user
+	 *************************************************************************************/
+	static WeightedPoints of(PointStore users)
+	{
+		int[] representative = new int[users.size()];
+		for (int i = 0; i < representative.length; i++)
+		{
+			representative[i] = i;
+		}
+		return new WeightedPoints(users, users, representative);
+	}
+
+	/*************************************************************************************
+	 * The weighted datapoints in another order, standing for the same users. The reordered
+	 * datapoints keep their position before the reorder (see PointStore.getSourceIndex()).
+	 *
+	 * @param order index of the datapoint at every position of the new order
+	 * @param compact true for compact columns of the reordered datapoints (see PointStore)
+	 * @return the reordered datapoints
+	 *************************************************************************************/
+	WeightedPoints reorder(int[] order, boolean compact)
+	{
+		int n = order.length;
+		PointStore points = PointStore.allocate(n, compact);
+		IntColumn.Heap weights = mPoints.hasWeights() ? new IntColumn.Heap(Math.max(n, 1)) : null;
+		IntColumn.Heap source = new IntColumn.Heap(Math.max(n, 1));
+		int[] position = new int[n];
+		for (int p = 0; p < n; p++)
+		{
+			int dp = order[p];
+			points.set(p, mPoints.getLatitude(dp), mPoints.getLongitude(dp), mPoints.getId(dp));
+			if (weights != null)
+			{
+				weights.set(p, mPoints.getWeight(dp));
+			}
+			source.set(p, mPoints.getSourceIndex(dp));
+			position[dp] = p;
+		}
+		if (weights != null)
+		{
+			points.setWeights(weights);
+		}
+		points.setSourceIndex(source);
+		int[] representative = new int[mRepresentative.length];
+		for (int i = 0; i < representative.length; i++)
+		{
+			representative[i] = position[mRepresentative[i]];
+		}
+		return new WeightedPoints(mUsers, points, representative);
+	}
+
+	/**
+	 * @return the grid cell of a coordinate, or its bits for identical coordinates only
+	 */
+	private static long Cell(double degrees, double resolution)
+	{
+		if (resolution > 0)
+		{
+			return (long) Math.floor(degrees / resolution);
+		}
+		// -0.0 and 0.0 are the same coordinate
+		return Double.doubleToLongBits(degrees + 0.0);
+	}
+
+	/**
+	 * @return the weighted datapoints
+	 */
+	PointStore getPoints()
+	{
+		return mPoints;
+	}
+
+	/**
+	 * @return the datapoints of every user
+	 */
+	PointStore getUsers()
+	{
+		return mUsers;
+	}
+
+	/**
+	 * @return index of the weighted datapoint of a user
+	 */
+	int getRepresentative(int user)
+	{
+		return mRepresentative[user];
+	}
+
+	/*************************************************************************************
+	 * Give every user the cluster of its weighted datapoint.
+	 *
+	 * @param clustered the weighted datapoints with the labels of a clustering
+	 * @param clusterCount number of clusters of the clustering
+	 * @return the datapoints of every user with their clusters
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************************/
+	PointStore expand(PointStore clustered, int clusterCount) throws IOException
+	{
+		PointStore users = mUsers.shareCoordinates(clusterCount);
+		for (int i = 0; i < mRepresentative.length; i++)
+		{
+			int cid = clustered.getClusterId(mRepresentative[i]);
+			users.setClusterId(i, cid);
+			users.setNewClusterId(i, cid);
+		}
+		return users;
+	}
+}
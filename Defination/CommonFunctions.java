@@ -16,20 +16,15 @@ public class CommonFunctions
 {
 	public static BufferedWriter out_Log = null;
 
+	/** Logger of the program, writing to out_Log once InitializeFiles() is called. */
+	public static RunLogger gLogger = RunLogger.NONE;
+
 	/*************************************************************************
 	 * File Filter
 	 *************************************************************************/
 	public static void log(String strLine)
 	{
-		try
-		{
-			out_Log.write(strLine + "\n");
-		}
-		catch (IOException e)
-		{
-			CommonFunctions.logAndPrint("Logging Error :" + strLine);
-		}
-		return;
+		gLogger.log(strLine);
 	}
 
 	/*************************************************************************
@@ -37,16 +32,23 @@ public class CommonFunctions
 	 *************************************************************************/
 	public static void logAndPrint(String strLine)
 	{
-		try
-		{
-			out_Log.write(strLine + "\n");
-			System.out.println(strLine);
-		}
-		catch (IOException e)
-		{
-			System.out.println("Logging Error :" + strLine);
-		}
-		return;
+		gLogger.logAndPrint(strLine);
+	}
+
+	/*************************************************************************
+	 * Log and print a line of the given level
+	 *************************************************************************/
+	public static void logAndPrint(int level, String strLine)
+	{
+		gLogger.logAndPrint(level, strLine);
+	}
+
+	/*************************************************************************
+	 * True if lines of the given level are logged
+	 *************************************************************************/
+	public static boolean isLogging(int level)
+	{
+		return gLogger.isLogging(level);
 	}
 
 	/*************************************************************************
@@ -54,15 +56,7 @@ public class CommonFunctions
 	 *************************************************************************/
 	public static void logWithoutNewLine(String strLine)
 	{
-		try
-		{
-			out_Log.write(strLine);
-		}
-		catch (IOException e)
-		{
-			System.out.println("Logging Error :" + strLine);
-		}
-		return;
+		gLogger.logWithoutNewLine(strLine);
 	}
 
 	/*************************************************************************
@@ -70,16 +64,7 @@ public class CommonFunctions
 	 *************************************************************************/
 	public static void logAndFlush(String strLine)
 	{
-		try
-		{
-			out_Log.write(strLine + "\n");
-			out_Log.flush();
-		}
-		catch (IOException e)
-		{
-			System.out.println("Logging Error :" + strLine);
-		}
-		return;
+		gLogger.logAndFlush(strLine);
 	}
 
 	/*************************************************************************
@@ -100,6 +85,7 @@ public class CommonFunctions
 				new File(DirNames[i]).mkdirs();
 			}
 			out_Log = new BufferedWriter(new FileWriter(globalConstants.Log_File, false));
+			gLogger = new RunLogger(out_Log, true, globalConstants.LogLevel, globalConstants.gLogQueueSize);
 		}
 		catch (Exception e)
 		{
@@ -108,6 +94,14 @@ public class CommonFunctions
 		}
 	}
 
+	/*************************************************************************
+	 * Write the pending log lines and close the log file
+	 *************************************************************************/
+	public static void CloseFiles() throws IOException
+	{
+		gLogger.close();
+	}
+
 	/*************************************************************************
 	 * Recursively delete files from a folder. Keep the current folder.
 	 * @throws FileNotFoundException 
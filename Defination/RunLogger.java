@@ -0,0 +1,388 @@
+/*
+ * Implemented by :	Amit Ruhela
+ * Logger of a clustering: writes lines to a log file and optionally echoes them.
+ */
+
+package Defination;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*************************************************************************
+ * Lines above the level of the logger are dropped; callers building an
+ * expensive line check isLogging() first. With a queue, lines are handed
+ * to a background thread that writes them in batches and flushes the file
+ * at most once a second, so the clustering does not wait for the disk or
+ * the console. A full queue makes the logging thread wait.
+ *************************************************************************/
+public class RunLogger
+{
+	/** Logger that drops every line. */
+	public static final RunLogger NONE = new RunLogger(null, false, globalConstants.LL_ERROR - 1, 0);
+
+	/** Largest number of lines written by the background thread before a flush. */
+	private static final int BATCH_SIZE = 1024;
+
+	/** Longest time a written line waits for a flush of the log file. */
+	private static final long FLUSH_INTERVAL_MS = 1000;
+
+	/** Log file, null to write no file. */
+	private final Writer mOut;
+
+	/** True to print the lines of logAndPrint() on the console. */
+	private final boolean mPrint;
+
+	/** Most detailed level logged. */
+	private final int mLevel;
+
+	/** Lines waiting for the background thread, null to write on the calling thread. */
+	private final ArrayBlockingQueue<Line> mQueue;
+
+	/** Background thread writing the queued lines. */
+	private final Thread mWriter;
+
+	/** True once close() is called. */
+	private volatile boolean mClosed;
+
+	/** True once the log file is closed: later lines only go to the console. Guarded by this. */
+	private boolean mOutClosed;
+
+	/** A line waiting in the queue. */
+	private static final class Line
+	{
+		final String mText;
+		final boolean mNewLine;
+		final boolean mPrint;
+		final boolean mFlush;
+
+		Line(String text, boolean newLine, boolean print, boolean flush)
+		{
+			mText = text;
+			mNewLine = newLine;
+			mPrint = print;
+			mFlush = flush;
+		}
+	}
+
+	/** Queued by close() to stop the background thread. */
+	private static final Line CLOSE = new Line("", false, false, true);
+
+	/*************************************************************************
+	 * Instantiates a new logger writing on the calling thread at level LogLevel.
+	 *
+	 * @param out the log file, null to write no file
+	 * @param print true to print the lines of logAndPrint() on the console
+	 *************************************************************************/
+	public RunLogger(Writer out, boolean print)
+	{
+		this(out, print, globalConstants.LogLevel, 0);
+	}
+
+	/*************************************************************************
+	 * Instantiates a new logger.
+	 *
+	 * @param out the log file, null to write no file
+	 * @param print true to print the lines of logAndPrint() on the console
+	 * @param level most detailed level logged: LL_ERROR, LL_INFO or LL_DEBUG
+	 * @param queueSize lines queued for the background thread, 0 to write on the calling thread
+	 *************************************************************************/
+	public RunLogger(Writer out, boolean print, int level, int queueSize)
+	{
+		mOut = out;
+		mPrint = print;
+		mLevel = ((out == null) && !print) ? globalConstants.LL_ERROR - 1 : level;
+		if ((queueSize > 0) && (mLevel >= globalConstants.LL_ERROR))
+		{
+			mQueue = new ArrayBlockingQueue<>(queueSize);
+			mWriter = new Thread(this::drain, "RunLogger");
+			mWriter.setDaemon(true);
+			mWriter.start();
+		}
+		else
+		{
+			mQueue = null;
+			mWriter = null;
+		}
+	}
+
+	/*************************************************************************
+	 * @return true if lines of the given level are logged
+	 *************************************************************************/
+	public boolean isLogging(int level)
+	{
+		return level <= mLevel;
+	}
+
+	/*************************************************************************
+	 * Write a line to the log file.
+	 *************************************************************************/
+	public void log(String strLine)
+	{
+		log(globalConstants.LL_INFO, strLine);
+	}
+
+	/*************************************************************************
+	 * Write a line of the given level to the log file.
+	 *************************************************************************/
+	public void log(int level, String strLine)
+	{
+		if (isLogging(level) && (mOut != null))
+		{
+			write(new Line(strLine, true, false, false));
+		}
+	}
+
+	/*************************************************************************
+	 * Write a line to the log file and print it.
+	 *************************************************************************/
+	public void logAndPrint(String strLine)
+	{
+		logAndPrint(globalConstants.LL_INFO, strLine);
+	}
+
+	/*************************************************************************
+	 * Write a line of the given level to the log file and print it.
+	 *************************************************************************/
+	public void logAndPrint(int level, String strLine)
+	{
+		if (isLogging(level))
+		{
+			write(new Line(strLine, true, mPrint, false));
+		}
+	}
+
+	/*************************************************************************
+	 * Write text to the log file without ending the line.
+	 *************************************************************************/
+	public void logWithoutNewLine(String strLine)
+	{
+		if (isLogging(globalConstants.LL_INFO) && (mOut != null))
+		{
+			write(new Line(strLine, false, false, false));
+		}
+	}
+
+	/*************************************************************************
+	 * Write a line to the log file and flush the file.
+	 *************************************************************************/
+	public void logAndFlush(String strLine)
+	{
+		if (isLogging(globalConstants.LL_INFO) && (mOut != null))
+		{
+			write(new Line(strLine, true, false, true));
+		}
+	}
+
+	/*************************************************************************
+	 * Write the queued lines and close the log file.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 *************************************************************************/
+	public void close() throws IOException
+	{
+		if (mClosed)
+		{
+			return;
+		}
+		mClosed = true;
+		if (mWriter != null)
+		{
+			boolean interrupted = false;
+			while (true)
+			{
+				try
+				{
+					mQueue.put(CLOSE);
+					mWriter.join();
+					break;
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+			// Lines queued by other threads after CLOSE
+			writeQueued();
+		}
+		if (mOut != null)
+		{
+			synchronized (this)
+			{
+				mOutClosed = true;
+				mOut.close();
+			}
+		}
+	}
+
+	/*************************************************************************
+	 * Queue a line, or write it when the logger has no queue or is closed.
+	 * A line queued while close() stops the background thread is written by
+	 * close(), or here once the background thread is gone.
+	 *************************************************************************/
+	private void write(Line line)
+	{
+		if ((mQueue != null) && !mClosed)
+		{
+			try
+			{
+				mQueue.put(line);
+				if (mClosed && !mWriter.isAlive())
+				{
+					writeQueued();
+				}
+				return;
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (this)
+		{
+			writeLine(line, null);
+			if (line.mFlush)
+			{
+				flush();
+			}
+		}
+	}
+
+	/*************************************************************************
+	 * Body of the background thread: write the queued lines in batches and
+	 * flush the log file when asked, or once a second while lines are pending.
+	 *************************************************************************/
+	private void drain()
+	{
+		List<Line> batch = new ArrayList<>(BATCH_SIZE);
+		StringBuilder console = new StringBuilder();
+		boolean closing = false;
+		boolean dirty = false;
+		long lastFlush = System.currentTimeMillis();
+		while (!closing)
+		{
+			Line first;
+			try
+			{
+				first = mQueue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				continue;
+			}
+			boolean flush = false;
+			if (first != null)
+			{
+				batch.add(first);
+				mQueue.drainTo(batch, BATCH_SIZE - 1);
+			}
+			synchronized (this)
+			{
+				for (Line line : batch)
+				{
+					if (line == CLOSE)
+					{
+						// Lines drained after CLOSE are still written
+						closing = true;
+						continue;
+					}
+					writeLine(line, console);
+					dirty = true;
+					flush |= line.mFlush;
+				}
+				if (console.length() > 0)
+				{
+					System.out.print(console);
+					console.setLength(0);
+				}
+				long now = System.currentTimeMillis();
+				if (dirty && (flush || closing || (now - lastFlush >= FLUSH_INTERVAL_MS)))
+				{
+					flush();
+					dirty = false;
+					lastFlush = now;
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	/*************************************************************************
+	 * Write the lines left in the queue on the calling thread and flush the
+	 * log file, once the background thread has stopped.
+	 *************************************************************************/
+	private void writeQueued()
+	{
+		synchronized (this)
+		{
+			Line line;
+			while ((line = mQueue.poll()) != null)
+			{
+				if (line != CLOSE)
+				{
+					writeLine(line, null);
+				}
+			}
+			flush();
+		}
+	}
+
+	/*************************************************************************
+	 * Write a line to the log file, and to the console or to the console buffer.
+	 * A line written after close() only goes to the console.
+	 *************************************************************************/
+	private void writeLine(Line line, StringBuilder console)
+	{
+		try
+		{
+			if ((mOut != null) && !mOutClosed)
+			{
+				mOut.write(line.mText);
+				if (line.mNewLine)
+				{
+					mOut.write('\n');
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			System.out.println("Logging Error :" + line.mText);
+		}
+		if (line.mPrint)
+		{
+			if (console == null)
+			{
+				System.out.println(line.mText);
+			}
+			else
+			{
+				console.append(line.mText).append(System.lineSeparator());
+			}
+		}
+	}
+
+	/*************************************************************************
+	 * Flush the log file.
+	 *************************************************************************/
+	private void flush()
+	{
+		try
+		{
+			if ((mOut != null) && !mOutClosed)
+			{
+				mOut.flush();
+			}
+		}
+		catch (IOException e)
+		{
+			System.out.println("Logging Error : flush failed");
+		}
+	}
+}
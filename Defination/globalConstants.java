@@ -25,6 +25,17 @@ public class globalConstants
 	/** Input file containing location of users */
 	public static String fin_UserLoc = Name_InputFolder + "Sample.txt";
 //	public static String fin_UserLoc = Name_InputFolder + "UserLocation.txt";
+
+	/** Binary point file written by PointFileConverter. fin_UserLoc may also name a point file. */
+	public static String fin_UserLocBinary = Name_InputFolder + "Sample.bin";
+
+	/** Synthetic user location file written by DatasetGenerator, with its point file for large sizes. */
+	public static String fin_SyntheticUserLoc = Name_InputFolder + "Synthetic.txt";
+	public static String fin_SyntheticUserLocBinary = Name_InputFolder + "Synthetic.bin";
+
+	/** Incremental mode : users file of the previous clustering of fin_UserLoc, and the changes of user locations since. */
+	public static String fin_PreviousUserClusters = Name_InputFolder + "UserClusters.txt";
+	public static String fin_UserLocDelta = Name_InputFolder + "UserLocationDelta.txt";
 	
 	/** Output file containing id of cluster which user belongs to */
 	public static String Output_UsersFile = Name_OutputFolder + "UserClusters.txt";
@@ -32,24 +43,98 @@ public class globalConstants
 	/** The Output clusters file. */
 	public static String Output_ClustersFile = Name_OutputFolder + "ClustersLocation.txt";
 	
+	/** The Output file containing the users whose cluster changed, in the incremental mode. */
+	public static String Output_ChangesFile = Name_OutputFolder + "UserClusterChanges.txt";
+	
+	/** The Output file containing a summary of every run when gRestarts > 1. */
+	public static String Output_RunsFile = Name_OutputFolder + "Runs.txt";
+	
+	/** The Output file containing the total distance against the number of clusters when gSweepMaxK > 0. */
+	public static String Output_SweepFile = Name_OutputFolder + "Sweep.txt";
+	
+	/** The Output files containing the time, distance evaluations, moves and cost of every iteration. */
+	public static String Output_MetricsCsvFile = Name_OutputFolder + "Metrics.csv";
+	public static String Output_MetricsJsonFile = Name_OutputFolder + "Metrics.json";
+	
 	/** The file for logging. */
 	public static String Log_File = Name_LogFolder + "Log.txt";
 	
 	// Logging Levels
+	public final static int LL_ERROR = 0;
 	public final static int LL_INFO = 1;
-	public final static int LL_ERROR = 1;
-	public final static int LL_DEBUG = 1;
-	public final static int LogLevel[] = { 1, 1, 1 };
+	public final static int LL_DEBUG = 2;
+	public final static int LogLevel = LL_INFO; // Most detailed level logged. LL_DEBUG adds per iteration and per cluster lines
+
+	public final static int gLogQueueSize = 8192; // Lines queued for the background log writer. 0 = write on the calling thread
 	
 	public final static int gClusterCount = 9; // No of Clusters
 	public final static int gIterCount = 100; // No of iteration to run
 
 	public final static int MinClusterSize = 5; // Minimum number of data-points in a cluster.
+
+	public final static boolean gUseUnitVectors = false; // Find nearest centroids with precomputed unit vectors instead of Haversine
+
+	public final static boolean gUseDistanceBounds = false; // Skip centroids that cannot be closer using triangle inequality bounds
+
+	public final static boolean gUseVectorKernel = false; // Assign with unit vectors on the Vector API (jdk.incubator.vector) when available, else on the scalar path
+
+	public final static boolean gUseCentroidIndex = false; // Find nearest centroids with a k-d tree over centroids. Useful for large gClusterCount
+
+	public final static boolean gCompactPoints = false; // Keep coordinates as ints of 1e-7 degree, unit vectors as floats and cluster labels in 8 or 16 bits. Halves the memory per datapoint
+
+	public final static boolean gDeduplicate = false; // Collapse users at the same location into weighted datapoints
+	public final static double gDedupResolution = 0; // Deduplication : size of a grid cell in degrees. 0 = identical coordinates only
+
+	public final static boolean gSpatialOrder = false; // Sort the datapoints along a space-filling curve before clustering
+	public final static int gTileSize = 0; // Datapoints per tile sharing candidate centroids. 0 = no tiles
+
+	public final static int gCoresetSize = 0; // Iterate on a weighted sample of about this many datapoints, then assign all datapoints once. 0 = iterate on all datapoints
+	public final static boolean gCoresetCompare = false; // Coreset : also cluster all datapoints and log the total distance of both solutions
+
+	public final static int gThreadCount = Runtime.getRuntime().availableProcessors(); // No of threads used by the assignment step. 1 = single threaded
+
+	public final static int gFullUpdateInterval = 10; // Recompute the cluster sums from all datapoints every n centroid updates. 1 = always
+
+	// Stopping rules besides no datapoint changing cluster, checked after every full assignment step. 0 = rule off
+	public final static double gConvergeMovedFraction = 0; // Stop when at most this fraction of the users changed cluster
+	public final static double gConvergeShiftKm = 0; // Stop when no centroid moved more than this many Kilometers in the last update
+	public final static double gConvergeImprovement = 0; // Stop when the total distance improved by at most this fraction since the previous full assignment step
+
+	public final static double gActiveSetMarginKm = 0; // Active set : margin in Kilometers of the rescanned datapoints. 0 = scan every datapoint
+	public final static int gActiveSetSweep = 5; // Active set : full sweep every n assignment steps
+
+	// Seeding of the initial centroids
+	public final static int SEED_UNIFORM = 0; // Centroids along the diagonal of the bounding box, datapoints dealt round-robin
+	public final static int SEED_KMEANS_PP = 1; // k-means++ : each centroid sampled with probability proportional to squared distance
+	public final static int SEED_KMEANS_PARALLEL = 2; // k-means|| : few oversampling rounds, then k-means++ over the weighted candidates. For large datasets
+	public final static int gSeeding = SEED_UNIFORM; // Seeding strategy
+	public final static long gSeed = 1; // Seed of the random choices of seeding
+	public final static int gRestarts = 1; // No of independent runs with seeds gSeed, gSeed+1, ...; the run with the lowest total distance is written
+	public final static int gSweepMinK = 2; // Sweep : smallest number of clusters
+	public final static int gSweepMaxK = 0; // Sweep : largest number of clusters. 0 = no sweep, cluster with gClusterCount
+	public final static int gSeedingRounds = 5; // k-means|| : number of oversampling rounds
+	public final static double gSeedingOversampling = 2.0; // k-means|| : candidates sampled per round, as a multiple of gClusterCount
+
+	public final static boolean gIncremental = false; // Re-cluster from the previous clustering fin_PreviousUserClusters of fin_UserLoc and the changes fin_UserLocDelta instead of from scratch
+
+	public final static boolean gStreaming = false; // Cluster fin_UserLoc with mini-batch K-Means, reading gMiniBatchSize datapoints at a time, for inputs larger than memory
+	public final static int gMiniBatchSize = 100000; // Streaming : datapoints per batch
+	public final static int gMiniBatchPasses = 3; // Streaming : passes over the input updating the centroids, before the passes finding the replicas and writing the users file
+
+	// Format of the users output file
+	public final static int OUTPUT_TSV = 0; // Tab-separated text
+	public final static int OUTPUT_TSV_GZIP = 1; // Tab-separated text compressed with gzip, written to Output_UsersFile + ".gz"
+	public final static int OUTPUT_BINARY = 2; // Columnar little-endian binary file, written to Output_UsersFile + ".bin"
+	public final static int gOutputFormat = OUTPUT_TSV; // Format of the users output file
+
+	public final static long gSyntheticBinaryRows = 10000000; // DatasetGenerator : from this many rows the point file is written as well as the text file
+
+	public final static boolean gMetricsJmx = true; // Expose the metrics of the runs in progress as JMX MBeans "Clustering:type=KMeansRun,..."
 	
 	
 	public final static int Earth_MinLat = -90;
-	public final static int Earth_MinLan = +90;
-	public final static int Earth_MaxLat = -180;
+	public final static int Earth_MaxLat = +90;
+	public final static int Earth_MinLan = -180;
 	public final static int Earth_MaxLan = +180;
 }
 
@@ -0,0 +1,112 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/*************************************************************************************
+ * The assignment step of an iteration (KMeansRun.findBestClusters()) with every distance
+ * kernel, and ITERATIONS full iterations from the same centroids, where the distance
+ * bounds pay off. Each invocation starts from a new run with the datapoints dealt
+ * uniformly, as the first iteration of a clustering.
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx16g", "--add-modules=jdk.incubator.vector" })
+public class AssignmentBenchmark
+{
+	/** Iterations of iterations(). */
+	private static final int ITERATIONS = 10;
+
+	@Param({ "10000", "100000", "1000000", "10000000" })
+	public int N;
+
+	@Param({ "9", "100", "1000", "5000" })
+	public int K;
+
+	@Param({ "haversine", "unitVectors", "bounds", "index", "vector" })
+	public String kernel;
+
+	@Param({ "1" })
+	public int threads;
+
+	private GeoKMeansConfig mConfig;
+	private ForkJoinPool mPool;
+	private PointStore mView;
+	private double[][] mCentroids;
+	private KMeansRun mRun;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException
+	{
+		mConfig = BenchmarkData.config(kernel, K, threads).toBuilder().iterCount(ITERATIONS).minClusterSize(0).build();
+		mPool = BenchmarkData.pool(threads);
+		PointStore points = BenchmarkData.points(N, BenchmarkData.SEED);
+		if (mConfig.mUseUnitVectors)
+		{
+			points.computeUnitVectors();
+		}
+		mView = points.shareCoordinates();
+		mCentroids = BenchmarkData.centroids(points, K, BenchmarkData.SEED);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation(BenchmarkParams params)
+	{
+		if (params.getBenchmark().endsWith(".iterations"))
+		{
+			// runFrom() deals the datapoints itself
+			mRun = new KMeansRun(mConfig, mView, K, mPool, mConfig.mSeeding, mConfig.mSeed, "");
+		}
+		else
+		{
+			mRun = BenchmarkData.start(mConfig, mView, mPool, mCentroids);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		if (mPool != null)
+		{
+			mPool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public KMeansRun assignment()
+	{
+		mRun.findBestClusters();
+		return mRun;
+	}
+
+	@Benchmark
+	public double iterations() throws IOException
+	{
+		mRun.runFrom(mCentroids[0], mCentroids[1]);
+		return mRun.TotalDistance();
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/*************************************************************************************
+ * Synthetic geographic datasets of the JMH benchmarks.
+ *
+ * The benchmarks live in their own source root so that the clustering keeps no build
+ * dependency. They are in package Clustering to reach the steps of KMeansRun. To run
+ * them, compile both source roots with jmh-core and jmh-generator-annprocess on the
+ * class path (the annotation processor generates the harness) and start the JMH main:
+ *
+ *   javac -cp jmh-core.jar:jmh-generator-annprocess.jar:jopt-simple.jar:commons-math3.jar -d bench \
+ *         --add-modules jdk.incubator.vector \
+ *         Defination/*.java Clustering/*.java vector/Clustering/*.java benchmarks/Clustering/*.java
+ *   java -cp bench:jmh-core.jar:jopt-simple.jar:commons-math3.jar org.openjdk.jmh.Main \
+ *         AssignmentBenchmark -p N=100000,1000000 -p K=9,100
+ *
+ * Every benchmark takes N (datapoints) and most take K (clusters); the full grid is long,
+ * narrow it with -p. Results of two builds are compared with -rf json.
+ *************************************************************************************/
+final class BenchmarkData
+{
+	/** Seed of the datasets, the same for every build compared. */
+	static final long SEED = 20161018L;
+
+	private BenchmarkData()
+	{
+	}
+
+	/*************************************************************************************
+	 * Users of DatasetGenerator.
+	 *
+	 * @param n number of datapoints
+	 * @param seed seed of the dataset
+	 * @return the datapoints, numbered from 1
+	 *************************************************************************************/
+	static PointStore points(int n, long seed)
+	{
+		return new DatasetGenerator(seed).points(n);
+	}
+
+	/*************************************************************************************
+	 * Initial centroids placed on K distinct datapoints.
+	 *
+	 * @return latitudes in [0] and longitudes in [1]
+	 *************************************************************************************/
+	static double[][] centroids(PointStore points, int k, long seed)
+	{
+		SplittableRandom random = new SplittableRandom(seed ^ k);
+		double[][] centroids = new double[2][k];
+		int step = Math.max(1, points.size() / k);
+		for (int c = 0; c < k; c++)
+		{
+			int dp = ((c * step) + random.nextInt(step)) % points.size();
+			centroids[0][c] = points.getLatitude(dp);
+			centroids[1][c] = points.getLongitude(dp);
+		}
+		return centroids;
+	}
+
+	/*************************************************************************************
+	 * A run over a view of the datapoints with its centroids placed and its datapoints
+	 * dealt, ready for the steps of an iteration.
+	 *************************************************************************************/
+	static KMeansRun start(GeoKMeansConfig config, PointStore view, ForkJoinPool pool, double[][] centroids)
+	{
+		KMeansRun run = new KMeansRun(config, view, centroids[0].length, pool, config.mSeeding, config.mSeed, "");
+		run.start(centroids[0], centroids[1]);
+		return run;
+	}
+
+	/*************************************************************************************
+	 * Settings of a distance kernel of the assignment step:
+	 *   haversine   : GreatCircleDistUsingHaverSine against every centroid
+	 *   unitVectors : chord distance of the unit vectors against every centroid
+	 *   bounds      : unit vectors with the distance bounds of the previous iteration
+	 *   index       : unit vectors with the spatial index of the centroids
+	 *   vector      : unit vectors on the Vector API kernel (see VectorKernel)
+	 *
+	 * @param kernel one of the kernels above
+	 * @param k number of clusters
+	 * @param threads number of threads
+	 * @return the configuration
+	 *************************************************************************************/
+	static GeoKMeansConfig config(String kernel, int k, int threads)
+	{
+		GeoKMeansConfig.Builder builder = GeoKMeansConfig.builder().clusterCount(k).threadCount(threads).useUnitVectors(!kernel.equals("haversine"))
+				.useDistanceBounds(kernel.equals("bounds")).useCentroidIndex(kernel.equals("index")).useVectorKernel(kernel.equals("vector"));
+		if (!kernel.equals("haversine") && !kernel.equals("unitVectors") && !kernel.equals("bounds") && !kernel.equals("index") && !kernel.equals("vector"))
+		{
+			throw new IllegalArgumentException("Unknown kernel " + kernel);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return pool of the given number of threads, null for one thread
+	 */
+	static ForkJoinPool pool(int threads)
+	{
+		return (threads > 1) ? new ForkJoinPool(threads) : null;
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*************************************************************************************
+ * Cost of one distance between a datapoint and a centroid: the haversine formula of
+ * GetGeoClusters and the chord of the unit vectors used by the assignment step.
+ * Every invocation measures PAIRS distances over K centroids taken from the dataset.
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HaversineBenchmark
+{
+	/** Distances measured per invocation. */
+	private static final int PAIRS = 1 << 16;
+
+	@Param({ "10000", "1000000" })
+	public int N;
+
+	@Param({ "9", "5000" })
+	public int K;
+
+	private double[] mLat;
+	private double[] mLan;
+	private double[] mX;
+	private double[] mY;
+	private double[] mZ;
+	private double[] mCentroidLat;
+	private double[] mCentroidLan;
+	private double[] mCentroidX;
+	private double[] mCentroidY;
+	private double[] mCentroidZ;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		PointStore points = BenchmarkData.points(N, BenchmarkData.SEED);
+		points.computeUnitVectors();
+		int count = Math.min(PAIRS, N);
+		mLat = new double[count];
+		mLan = new double[count];
+		mX = new double[count];
+		mY = new double[count];
+		mZ = new double[count];
+		for (int i = 0; i < count; i++)
+		{
+			int dp = (int) (((long) i * N) / count);
+			mLat[i] = points.getLatitude(dp);
+			mLan[i] = points.getLongitude(dp);
+			mX[i] = points.getX(dp);
+			mY[i] = points.getY(dp);
+			mZ[i] = points.getZ(dp);
+		}
+		double[][] centroids = BenchmarkData.centroids(points, K, BenchmarkData.SEED);
+		mCentroidLat = centroids[0];
+		mCentroidLan = centroids[1];
+		mCentroidX = new double[K];
+		mCentroidY = new double[K];
+		mCentroidZ = new double[K];
+		for (int c = 0; c < K; c++)
+		{
+			mCentroidX[c] = GeoMath.unitX(mCentroidLat[c], mCentroidLan[c]);
+			mCentroidY[c] = GeoMath.unitY(mCentroidLat[c], mCentroidLan[c]);
+			mCentroidZ[c] = GeoMath.unitZ(mCentroidLat[c]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PAIRS)
+	public double greatCircleDistUsingHaverSine()
+	{
+		double sum = 0;
+		int count = mLat.length;
+		for (int k = 0; k < PAIRS; k++)
+		{
+			int i = k % count;
+			int c = k % K;
+			sum += GetGeoClusters.GreatCircleDistUsingHaverSine(mLat[i], mLan[i], mCentroidLat[c], mCentroidLan[c]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PAIRS)
+	public double unitVectorDistance()
+	{
+		double sum = 0;
+		int count = mX.length;
+		for (int k = 0; k < PAIRS; k++)
+		{
+			int i = k % count;
+			int c = k % K;
+			sum += GeoMath.Distance(mX[i], mY[i], mZ[i], mCentroidX[c], mCentroidY[c], mCentroidZ[c]);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/*************************************************************************************
+ * The bookkeeping steps of an iteration after the assignment:
+ *   updateClusters     : moving the datapoints to their closest clusters after the first
+ *                        assignment, when most of them move
+ *   updateCentroids    : the centroids from the running sums, with a full recompute of
+ *                        the sums every fullUpdateInterval calls as in a clustering
+ *   splitWorstCluster  : halving the worst cluster into another cluster
+ * The mutating steps start every invocation from a new run.
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx16g" })
+public class IterationBenchmark
+{
+	@Param({ "10000", "100000", "1000000", "10000000" })
+	public int N;
+
+	@Param({ "9", "100", "1000", "5000" })
+	public int K;
+
+	private GeoKMeansConfig mConfig;
+	private PointStore mView;
+	private double[][] mCentroids;
+	private KMeansRun mRun;
+	private int mWorstCid;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException
+	{
+		mConfig = BenchmarkData.config("unitVectors", K, 1);
+		PointStore points = BenchmarkData.points(N, BenchmarkData.SEED);
+		points.computeUnitVectors();
+		mView = points.shareCoordinates();
+		mCentroids = BenchmarkData.centroids(points, K, BenchmarkData.SEED);
+		mRun = assigned();
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation(BenchmarkParams params) throws IOException
+	{
+		if (params.getBenchmark().endsWith(".updateClusters"))
+		{
+			mRun = BenchmarkData.start(mConfig, mView, null, mCentroids);
+			mRun.findBestClusters();
+		}
+		else if (params.getBenchmark().endsWith(".splitWorstCluster"))
+		{
+			mRun = assigned();
+			mWorstCid = mRun.FindWorstCluster();
+		}
+	}
+
+	/**
+	 * @return a run after its first assignment and cluster update
+	 */
+	private KMeansRun assigned()
+	{
+		KMeansRun run = BenchmarkData.start(mConfig, mView, null, mCentroids);
+		run.findBestClusters();
+		run.UpdateClusters();
+		return run;
+	}
+
+	@Benchmark
+	public boolean updateClusters()
+	{
+		return mRun.UpdateClusters();
+	}
+
+	@Benchmark
+	public KMeansRun updateCentroids()
+	{
+		mRun.UpdateCentroids();
+		return mRun;
+	}
+
+	@Benchmark
+	public KMeansRun splitWorstCluster()
+	{
+		mRun.SplitWorstCluster(mWorstCid, (mWorstCid + 1) % K);
+		return mRun;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*************************************************************************************
+ * KMeansRun.WriteOutput() of a run after its first iteration: the replicas, the users file
+ * in the given format (0 TSV, 1 TSV_GZIP, 2 BINARY of globalConstants) and the clusters
+ * file. The files are written in java.io.tmpdir and deleted after the trial.
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx16g" })
+public class OutputBenchmark
+{
+	@Param({ "10000", "100000", "1000000", "10000000" })
+	public int N;
+
+	@Param({ "9", "100", "1000", "5000" })
+	public int K;
+
+	@Param({ "0", "1", "2" })
+	public int format;
+
+	@Param({ "1" })
+	public int threads;
+
+	private ForkJoinPool mPool;
+	private File mUsersFile;
+	private File mClustersFile;
+	private KMeansRun mRun;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		GeoKMeansConfig config = BenchmarkData.config("unitVectors", K, threads).toBuilder().outputFormat(format).build();
+		mPool = BenchmarkData.pool(threads);
+		PointStore points = BenchmarkData.points(N, BenchmarkData.SEED);
+		points.computeUnitVectors();
+		mUsersFile = File.createTempFile("bench-output-users", ".txt");
+		mClustersFile = File.createTempFile("bench-output-clusters", ".txt");
+		mRun = BenchmarkData.start(config, points.shareCoordinates(), mPool, BenchmarkData.centroids(points, K, BenchmarkData.SEED));
+		mRun.findBestClusters();
+		mRun.UpdateClusters();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		if (mPool != null)
+		{
+			mPool.shutdown();
+		}
+		new File(ClusterOutputWriter.UsersFileName(mUsersFile.getPath(), format)).delete();
+		mUsersFile.delete();
+		mClustersFile.delete();
+	}
+
+	@Benchmark
+	public KMeansRun writeOutput() throws IOException
+	{
+		mRun.WriteOutput(mUsersFile.getPath(), mClustersFile.getPath());
+		return mRun;
+	}
+}
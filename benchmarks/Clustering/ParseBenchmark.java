@@ -0,0 +1,74 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*************************************************************************************
+ * Loading the input of a clustering: a user location file parsed by threads threads, and
+ * the same datapoints opened as a point file. The files are written in java.io.tmpdir and
+ * deleted after the trial.
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx16g" })
+public class ParseBenchmark
+{
+	@Param({ "10000", "100000", "1000000", "10000000" })
+	public int N;
+
+	@Param({ "1", "4" })
+	public int threads;
+
+	private File mLocationFile;
+	private File mPointFile;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		mLocationFile = File.createTempFile("bench-users", ".txt");
+		mPointFile = File.createTempFile("bench-users", ".bin");
+		new DatasetGenerator(BenchmarkData.SEED).generate(N, threads, mLocationFile.getPath(), mPointFile.getPath());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		mLocationFile.delete();
+		mPointFile.delete();
+	}
+
+	@Benchmark
+	public PointStore parseText() throws IOException
+	{
+		return UserLocationLoader.load(mLocationFile.getPath(), threads, new UserLocationLoader.LoadReport());
+	}
+
+	@Benchmark
+	public PointStore openPointFile() throws IOException
+	{
+		return PointFile.open(mPointFile.getPath(), new UserLocationLoader.LoadReport());
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Replica Server Placement using KMeans Algorithm
+ * Implemented by :	Amit Ruhela
+ *
+ */
+package Clustering;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*************************************************************************************
+ * Assignment over unit vectors on the Vector API: the dot products of a vector of
+ * datapoints with one centroid are computed in the lanes of a DoubleVector, centroid after
+ * centroid, keeping the best dot product and its centroid per lane. The dot products are
+ * evaluated as the scalar loop evaluates them (no fused multiply-add), so the clusters and
+ * the sums are the same as those of AssignmentEngine.assignRangeUnitVectors().
+ *
+ * This file is a source root of its own because jdk.incubator.vector is not resolved by
+ * default; AssignmentEngine loads the kernel by name when it is there:
+ *
+ *   javac --add-modules jdk.incubator.vector -d out Defination/*.java Clustering/*.java vector/Clustering/*.java
+ *   java --add-modules jdk.incubator.vector -cp out Clustering.GetGeoClusters
+ *
+ * with globalConstants.gUseVectorKernel (or GeoKMeansConfig.Builder.useVectorKernel()) set.
+ *************************************************************************************/
+final class VectorKernel implements AssignmentKernel
+{
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/** Datapoints copied from the point store at a time; a multiple of the lane count. */
+	private static final int TILE = 1024;
+
+	VectorKernel()
+	{
+	}
+
+	@Override
+	public String name()
+	{
+		return "Vector API (" + SPECIES.length() + " x double)";
+	}
+
+	@Override
+	public long assignRange(PointStore points, int from, int to, CentroidTable centroids, long[] clusterCost)
+	{
+		// Centroids of the active clusters, packed
+		int[] activeClusters = centroids.mActive;
+		int k = activeClusters.length;
+		double[] ax = new double[k];
+		double[] ay = new double[k];
+		double[] az = new double[k];
+		for (int p = 0; p < k; p++)
+		{
+			ax[p] = centroids.mX[activeClusters[p]];
+			ay[p] = centroids.mY[activeClusters[p]];
+			az[p] = centroids.mZ[activeClusters[p]];
+		}
+
+		double[] tx = new double[TILE];
+		double[] ty = new double[TILE];
+		double[] tz = new double[TILE];
+		double[] bestPosition = new double[TILE];
+		int lanes = SPECIES.length();
+		long TotalDistance = 0;
+		for (int start = from; start < to; start += TILE)
+		{
+			int count = Math.min(TILE, to - start);
+			for (int t = 0; t < count; t++)
+			{
+				tx[t] = points.getX(start + t);
+				ty[t] = points.getY(start + t);
+				tz[t] = points.getZ(start + t);
+			}
+
+			int vectorEnd = SPECIES.loopBound(count);
+			for (int t = 0; t < vectorEnd; t += lanes)
+			{
+				DoubleVector x = DoubleVector.fromArray(SPECIES, tx, t);
+				DoubleVector y = DoubleVector.fromArray(SPECIES, ty, t);
+				DoubleVector z = DoubleVector.fromArray(SPECIES, tz, t);
+				DoubleVector bestDot = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+				DoubleVector best = DoubleVector.broadcast(SPECIES, -1);
+				for (int p = 0; p < k; p++)
+				{
+					DoubleVector dot = x.mul(ax[p]).add(y.mul(ay[p])).add(z.mul(az[p]));
+					VectorMask<Double> closer = dot.compare(VectorOperators.GT, bestDot);
+					bestDot = bestDot.blend(dot, closer);
+					best = best.blend(p, closer);
+				}
+				best.intoArray(bestPosition, t);
+			}
+			for (int t = vectorEnd; t < count; t++)
+			{
+				double bestDot = Double.NEGATIVE_INFINITY;
+				int best = -1;
+				for (int p = 0; p < k; p++)
+				{
+					double dot = tx[t] * ax[p] + ty[t] * ay[p] + tz[t] * az[p];
+					if (dot > bestDot)
+					{
+						bestDot = dot;
+						best = p;
+					}
+				}
+				bestPosition[t] = best;
+			}
+
+			for (int t = 0; t < count; t++)
+			{
+				int p = (int) bestPosition[t];
+				int currentBestCluster = (p < 0) ? -1 : activeClusters[p];
+				points.setNewClusterId(start + t, currentBestCluster);
+				if (currentBestCluster == -1)
+				{
+					TotalDistance += Double.MAX_VALUE;
+				}
+				else
+				{
+					double distance = GeoMath.Distance(tx[t], ty[t], tz[t], ax[p], ay[p], az[p]);
+					int weight = points.getWeight(start + t);
+					TotalDistance += distance * weight;
+					clusterCost[currentBestCluster] += weight * AssignmentResult.Meters(distance);
+				}
+			}
+		}
+		return TotalDistance;
+	}
+}